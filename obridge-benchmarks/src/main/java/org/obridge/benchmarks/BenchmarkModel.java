@@ -0,0 +1,64 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Ferenc Karsany
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+
+
+package org.obridge.benchmarks;
+
+import org.obridge.model.data.OraclePackage;
+import org.obridge.model.data.SchemaModel;
+import org.obridge.util.SyntheticSchema;
+
+import java.util.Collections;
+
+/**
+ * The small models of the single step benchmarks: one flat object type and one package, built with
+ * {@link SyntheticSchema} so they are the same in every run.
+ */
+final class BenchmarkModel {
+
+    private BenchmarkModel() {
+    }
+
+    static SchemaModel create(int attributes, int procedures) {
+        return new SyntheticSchema.Builder().types(1)
+                                            .attributes(attributes)
+                                            .nestingDepth(0)
+                                            .packages(1)
+                                            .procedures(procedures)
+                                            .build();
+    }
+
+    /**
+     * The package of the model with the Java packages set, as the package generator renders it.
+     */
+    static OraclePackage renderablePackage(SchemaModel model) {
+        OraclePackage oraclePackage = model.getPackages().get(0);
+        oraclePackage.setJavaPackageName("hu.obridge.benchmark.packages");
+        oraclePackage.setContextPackage("hu.obridge.benchmark.context");
+        oraclePackage.setConverterPackage("hu.obridge.benchmark.converters");
+        oraclePackage.setObjectPackage("hu.obridge.benchmark.objects");
+        oraclePackage.setExtraImportClasses(Collections.emptyList());
+        return oraclePackage;
+    }
+}
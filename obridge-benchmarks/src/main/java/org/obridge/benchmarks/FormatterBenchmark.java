@@ -0,0 +1,93 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Ferenc Karsany
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+
+
+package org.obridge.benchmarks;
+
+import org.obridge.context.OBridgeConfiguration;
+import org.obridge.mappers.PojoMapper;
+import org.obridge.model.data.SchemaModel;
+import org.obridge.model.dto.TypeIdDto;
+import org.obridge.model.generator.Pojo;
+import org.obridge.util.CodeFormatter;
+import org.obridge.util.MustacheRunner;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Formats a rendered entity and a rendered package class with {@link CodeFormatter#formatSource(String)}, once per
+ * formatter.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FormatterBenchmark {
+
+    @Param({OBridgeConfiguration.FORMATTER_JASTYLE, OBridgeConfiguration.FORMATTER_INDENT, OBridgeConfiguration.FORMATTER_NONE})
+    private String formatter;
+
+    private CodeFormatter codeFormatter;
+    private String        entitySource;
+    private String        packageSource;
+
+    @Setup
+    public void setUp() {
+        OBridgeConfiguration c = new OBridgeConfiguration();
+        c.setFormatter(formatter);
+        codeFormatter = new CodeFormatter(c);
+
+        SchemaModel model = BenchmarkModel.create(20, 20);
+        TypeIdDto   type  = model.getTypes().get(0);
+
+        Pojo pojo = PojoMapper.typeToPojo(false, type.getTypeName(), model.getTypeAttributes().get(type));
+        pojo.setPackageName("hu.obridge.benchmark.objects");
+        entitySource = MustacheRunner.build("pojo.mustache", pojo);
+
+        packageSource = MustacheRunner.build("package.mustache", BenchmarkModel.renderablePackage(model));
+    }
+
+    @Benchmark
+    public String entity() {
+        return codeFormatter.formatSource(entitySource);
+    }
+
+    @Benchmark
+    public String packageClass() {
+        return codeFormatter.formatSource(packageSource);
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Ferenc Karsany
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+
+
+package org.obridge.benchmarks;
+
+import org.apache.commons.io.FileUtils;
+import org.obridge.OBridge;
+import org.obridge.context.OBridgeConfiguration;
+import org.obridge.context.Packages;
+import org.obridge.model.data.SchemaModel;
+import org.obridge.util.SyntheticSchema;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Generates every source of a synthetic model of 100 types (50 with a nested type each) and 20 packages of 10
+ * procedures, the same way as the snapshot mode of the command line. The files are written to a temporary directory: the first operation creates
+ * them, the following ones find them unchanged, so this measures a regeneration.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class GenerationBenchmark {
+
+    @Param({"1", "4"})
+    private int renderThreads;
+
+    @Param({OBridgeConfiguration.FORMATTER_JASTYLE, OBridgeConfiguration.FORMATTER_INDENT})
+    private String formatter;
+
+    private File                 sourceRoot;
+    private OBridgeConfiguration configuration;
+    private SchemaModel          model;
+
+    @Setup
+    public void setUp() throws IOException {
+        sourceRoot = Files.createTempDirectory("obridge-benchmark").toFile();
+
+        configuration = new OBridgeConfiguration();
+        configuration.setSourceRoot(sourceRoot.getPath());
+        configuration.setRootPackageName("hu.obridge.benchmark");
+        configuration.setPackages(new Packages());
+        configuration.setRenderThreads(renderThreads);
+        configuration.setFormatter(formatter);
+
+        model = new SyntheticSchema.Builder().types(50)
+                                             .attributes(20)
+                                             .packages(20)
+                                             .procedures(10)
+                                             .build();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(sourceRoot);
+    }
+
+    @Benchmark
+    public void generate() {
+        new OBridge().generate(configuration, model);
+    }
+}
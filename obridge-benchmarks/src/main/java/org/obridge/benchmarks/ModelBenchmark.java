@@ -0,0 +1,104 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Ferenc Karsany
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+
+
+package org.obridge.benchmarks;
+
+import org.obridge.mappers.PojoMapper;
+import org.obridge.mappers.builders.CallStringBuilder;
+import org.obridge.model.data.Procedure;
+import org.obridge.model.data.SchemaModel;
+import org.obridge.model.data.TypeAttribute;
+import org.obridge.model.dto.TypeIdDto;
+import org.obridge.model.generator.Pojo;
+import org.obridge.util.TypeMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The model building steps between extraction and rendering: the call string of a procedure, the POJOs of a type and
+ * of a procedure context, and the Oracle to Java and JDBC type lookups.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ModelBenchmark {
+
+    private static final String[] ORACLE_TYPES = {TypeMapper.ORACLE_VARCHAR2, TypeMapper.ORACLE_NUMBER, TypeMapper.ORACLE_DATE,
+                                                  TypeMapper.ORACLE_TIMESTAMP, TypeMapper.ORACLE_CLOB, TypeMapper.ORACLE_BLOB,
+                                                  TypeMapper.ORACLE_BOOLEAN, TypeMapper.ORACLE_OBJECT, TypeMapper.ORACLE_TABLE};
+
+    private Procedure           procedure;
+    private String              typeName;
+    private List<TypeAttribute> attributes;
+
+    @Setup
+    public void setUp() {
+        SchemaModel model = BenchmarkModel.create(20, 1);
+        TypeIdDto   type  = model.getTypes().get(0);
+
+        procedure = model.getAllProcedures().get(0);
+        typeName = type.getTypeName();
+        attributes = model.getTypeAttributes().get(type);
+    }
+
+    @Benchmark
+    public String callString() {
+        return new CallStringBuilder(procedure).build();
+    }
+
+    @Benchmark
+    public Pojo typeToPojo() {
+        return PojoMapper.typeToPojo(false, typeName, attributes);
+    }
+
+    @Benchmark
+    public Pojo procedureToPojo() {
+        return PojoMapper.procedureToPojo(false, procedure);
+    }
+
+    @Benchmark
+    public void typeMapper(Blackhole blackhole) {
+        // the generators create a TypeMapper per lookup
+        for (String oracleType : ORACLE_TYPES) {
+            blackhole.consume(new TypeMapper().getJavaType(oracleType, 0));
+            blackhole.consume(new TypeMapper().getJDBCType(oracleType));
+        }
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Ferenc Karsany
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+
+
+package org.obridge.benchmarks;
+
+import org.apache.commons.io.FileUtils;
+import org.obridge.OBridge;
+import org.obridge.context.OBridgeConfiguration;
+import org.obridge.context.Packages;
+import org.obridge.model.data.SchemaModel;
+import org.obridge.util.SyntheticSchema;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Generates a synthetic schema at 1, 10 and 100 times its base size (20 types with two levels of nesting, 10 packages
+ * of 10 procedures with 2 overloads each) into an empty directory. The time of a generation should grow with the scale
+ * factor, growing faster shows super-linear behaviour in one of the generators.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ScalingBenchmark {
+
+    @Param({"1", "10", "100"})
+    private int scale;
+
+    @Param({OBridgeConfiguration.FORMATTER_INDENT})
+    private String formatter;
+
+    private SchemaModel          model;
+    private File                 sourceRoot;
+    private OBridgeConfiguration configuration;
+
+    @Setup
+    public void setUp() {
+        model = new SyntheticSchema.Builder().types(20)
+                                             .attributes(20)
+                                             .nestingDepth(2)
+                                             .packages(10)
+                                             .procedures(10)
+                                             .overloads(2)
+                                             .scale(scale)
+                                             .build();
+    }
+
+    @Setup(Level.Iteration)
+    public void createSourceRoot() throws IOException {
+        sourceRoot = Files.createTempDirectory("obridge-scaling").toFile();
+
+        configuration = new OBridgeConfiguration();
+        configuration.setSourceRoot(sourceRoot.getPath());
+        configuration.setRootPackageName("hu.obridge.benchmark");
+        configuration.setPackages(new Packages());
+        configuration.setFormatter(formatter);
+    }
+
+    @TearDown(Level.Iteration)
+    public void deleteSourceRoot() throws IOException {
+        FileUtils.deleteDirectory(sourceRoot);
+    }
+
+    @Benchmark
+    public void generate() {
+        new OBridge().generate(configuration, model);
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Ferenc Karsany
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+
+
+package org.obridge.benchmarks;
+
+import org.obridge.mappers.PojoMapper;
+import org.obridge.model.data.OraclePackage;
+import org.obridge.model.data.SchemaModel;
+import org.obridge.model.data.Type;
+import org.obridge.model.dto.TypeIdDto;
+import org.obridge.model.generator.Pojo;
+import org.obridge.util.MustacheRunner;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Renders the entity, converter and package templates with {@link MustacheRunner#build(String, Object)}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TemplateBenchmark {
+
+    @Param({"20", "200"})
+    private int attributes;
+
+    private Pojo          pojo;
+    private Type          type;
+    private OraclePackage oraclePackage;
+
+    @Setup
+    public void setUp() {
+        // a package of as many procedures as the type has attributes
+        SchemaModel model    = BenchmarkModel.create(attributes, attributes);
+        TypeIdDto   typeId   = model.getTypes().get(0);
+
+        pojo = PojoMapper.typeToPojo(false, typeId.getTypeName(), model.getTypeAttributes().get(typeId));
+        pojo.setPackageName("hu.obridge.benchmark.objects");
+
+        type = new Type();
+        type.setOwner(typeId.getOwner());
+        type.setTypeName(typeId.getTypeName());
+        type.setAttributeList(model.getTypeAttributes().get(typeId));
+        type.setConverterPackageName("hu.obridge.benchmark.converters");
+        type.setObjectPackage("hu.obridge.benchmark.objects");
+
+        oraclePackage = BenchmarkModel.renderablePackage(model);
+    }
+
+    @Benchmark
+    public String entity() {
+        return MustacheRunner.build("pojo.mustache", pojo);
+    }
+
+    @Benchmark
+    public String converter() {
+        return MustacheRunner.build("converter.mustache", type);
+    }
+
+    @Benchmark
+    public String packageClass() {
+        return MustacheRunner.build("package.mustache", oraclePackage);
+    }
+}
@@ -25,18 +25,39 @@
 package org.obridge;
 
 import com.thoughtworks.xstream.XStream;
+import lombok.extern.log4j.Log4j2;
 import org.apache.commons.cli.*;
+import org.apache.commons.lang3.StringUtils;
+import org.obridge.cache.GeneratedFiles;
+import org.obridge.cache.GenerationManifest;
+import org.obridge.cache.MetadataCache;
+import org.obridge.cache.SourceCache;
 import org.obridge.context.OBridgeConfiguration;
+import org.obridge.dao.SchemaModelDao;
 import org.obridge.generators.*;
+import org.obridge.model.data.SchemaModel;
+import org.obridge.util.DataSourceProvider;
 import org.obridge.util.OBridgeException;
+import org.obridge.util.Profiler;
+import org.obridge.util.RunLocal;
+import org.obridge.util.SchemaSnapshot;
+import org.obridge.util.Watcher;
 import org.obridge.util.XStreamFactory;
+import org.obridge.util.jdbc.QueryStatistics;
 
+import java.beans.PropertyVetoException;
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.Properties;
 
+@Log4j2
 public class OBridge {
 
+    public static final String QUERY_STATISTICS_FILE_NAME = "obridge-query-statistics.json";
+    public static final String PROFILE_FILE_NAME          = "obridge-profile.json";
+    public static final int    DEFAULT_WATCH_INTERVAL     = 1;
+
     public static void main(String... args) {
 
         try {
@@ -55,7 +76,18 @@ public class OBridge {
             }
 
             if (cmd.hasOption("c")) {
-                new OBridge().generate(new File(cmd.getOptionValue("c")));
+                OBridge              oBridge = new OBridge();
+                OBridgeConfiguration c       = oBridge.loadConfiguration(new File(cmd.getOptionValue("c")));
+
+                if (cmd.hasOption("e")) {
+                    oBridge.export(c, new File(cmd.getOptionValue("e")));
+                } else if (cmd.hasOption("s")) {
+                    oBridge.generate(c, SchemaSnapshot.read(new File(cmd.getOptionValue("s"))));
+                } else if (cmd.hasOption("w")) {
+                    oBridge.watch(c, getWatchInterval(cmd) * 1000L);
+                } else {
+                    oBridge.generate(c);
+                }
             } else {
                 printHelp(o);
             }
@@ -79,6 +111,17 @@ public class OBridge {
         formatter.printHelp("obridge", o, true);
     }
 
+    private static int getWatchInterval(CommandLine cmd) {
+        if (!cmd.hasOption("i")) {
+            return DEFAULT_WATCH_INTERVAL;
+        }
+        try {
+            return Integer.parseInt(cmd.getOptionValue("i"));
+        } catch (NumberFormatException e) {
+            throw new OBridgeException("Invalid watch interval: " + cmd.getOptionValue("i"), e);
+        }
+    }
+
     private static CommandLine getCommandLine(Options o, String[] args) throws ParseException {
 
 
@@ -104,24 +147,192 @@ public class OBridge {
                         .argName("file")
                         .build()
         );
+        o.addOption(
+                Option.builder("e")
+                        .desc("export the metadata of the configured objects to a snapshot file instead of generating sources")
+                        .longOpt("export")
+                        .hasArg()
+                        .argName("file")
+                        .build()
+        );
+        o.addOption(
+                Option.builder("s")
+                        .desc("generate sources from a snapshot file, without connecting to the database")
+                        .longOpt("snapshot")
+                        .hasArg()
+                        .argName("file")
+                        .build()
+        );
+        o.addOption(
+                Option.builder("w")
+                        .desc("keep running and regenerate the changed packages and types whenever the database objects change")
+                        .longOpt("watch")
+                        .build()
+        );
+        o.addOption(
+                Option.builder("i")
+                        .desc("seconds between two checks of the database objects in watch mode, default " + DEFAULT_WATCH_INTERVAL)
+                        .longOpt("interval")
+                        .hasArg()
+                        .argName("seconds")
+                        .build()
+        );
 
         CommandLineParser parser = new PosixParser();
         return parser.parse(o, args);
     }
 
     public void generate(OBridgeConfiguration c) {
+        GenerationContext context = new GenerationContext(c);
+
+        try {
+            DataSourceProvider.retain(c);
+        } catch (PropertyVetoException e) {
+            throw new OBridgeException(e);
+        }
+
+        try (RunLocal.Binding statistics = context.getQueryStatistics().activate();
+             RunLocal.Binding profile = context.getProfiler().activate()) {
+            if (Boolean.TRUE.equals(c.getStreamingGeneration())) {
+                // generate everything, one package at a time
+                StreamingGenerator.generate(context);
+            } else {
+                // extract once, every generator works from the same model
+                generateSources(context, new SchemaModelDao(DataSourceProvider.getDataSource(c), c.getExtractionThreads()).getGenerationModel(c));
+            }
+
+            GeneratedFiles.update(context);
+            GenerationManifest.prune(context);
+            log.info(context.getSourceWriter().formatSummary());
+            reportQueryStatistics(c, context.getQueryStatistics());
+            reportProfile(c, context.getProfiler());
+        } catch (PropertyVetoException e) {
+            throw new OBridgeException(e);
+        } finally {
+            DataSourceProvider.release(c);
+        }
+    }
 
+    /**
+     * Generates, then keeps polling the last DDL time of the configured objects and regenerates after every change until
+     * the thread is interrupted. The connection pool, the compiled templates and the metadata model stay in memory, and
+     * generation is incremental, so only the changed objects are extracted and only their classes are written again.
+     */
+    public void watch(OBridgeConfiguration configuration, long intervalMillis) {
+        // the caller's configuration is left as it is
+        OBridgeConfiguration c = copyConfiguration(configuration);
+        c.setIncremental(true);
+        c.setUseMetadataCache(true);
+
+        try {
+            DataSourceProvider.retain(c);
+        } catch (PropertyVetoException e) {
+            throw new OBridgeException(e);
+        }
+
+        MetadataCache.keepInMemory(true);
+        try {
+            SchemaModelDao schemaModelDao = new SchemaModelDao(DataSourceProvider.getDataSource(c), c.getExtractionThreads());
+
+            new Watcher(intervalMillis, () -> schemaModelDao.getObjectStatus(c), () -> generate(c)).run();
+        } catch (PropertyVetoException e) {
+            throw new OBridgeException(e);
+        } finally {
+            MetadataCache.keepInMemory(false);
+            DataSourceProvider.release(c);
+        }
+    }
+
+    static OBridgeConfiguration copyConfiguration(OBridgeConfiguration c) {
+        XStream xs = XStreamFactory.createXStream();
+        return (OBridgeConfiguration) xs.fromXML(xs.toXML(c));
+    }
+
+    /**
+     * Generates the sources from previously extracted metadata, without connecting to the database.
+     */
+    public void generate(OBridgeConfiguration c, SchemaModel model) {
+        GenerationContext context = new GenerationContext(c);
+        try (RunLocal.Binding profile = context.getProfiler().activate()) {
+            generateSources(context, model);
+
+            GeneratedFiles.update(context);
+            GenerationManifest.prune(context);
+            log.info(context.getSourceWriter().formatSummary());
+            reportProfile(c, context.getProfiler());
+        }
+    }
+
+    /**
+     * Restores the sources from the build cache if they were generated from the same model and settings before,
+     * generates and stores them otherwise.
+     */
+    private static void generateSources(GenerationContext context, SchemaModel model) {
+        OBridgeConfiguration c           = context.getConfiguration();
+        SourceCache          sourceCache = SourceCache.open(c);
+        if (!sourceCache.isEnabled()) {
+            renderSources(context, model);
+            return;
+        }
+
+        Path   sourceRoot = new File(c.getSourceRoot()).toPath().toAbsolutePath().normalize();
+        String key        = SourceCache.key(context, model);
+
+        if (sourceCache.restore(key, sourceRoot, context.getSourceWriter())) {
+            log.info("Sources restored from the build cache (" + key + ")");
+            return;
+        }
+
+        renderSources(context, model);
+        sourceCache.store(key, sourceRoot, context.getSourceWriter().getFiles());
+    }
+
+    private static void renderSources(GenerationContext context, SchemaModel model) {
         // generate objects
-        EntityObjectGenerator.generate(c);
+        EntityObjectGenerator.generate(context, model);
 
         // generate converters
-        ConverterObjectGenerator.generate(c);
+        ConverterObjectGenerator.generate(context, model);
 
         // generate contexts
-        ProcedureContextGenerator.generate(c);
+        ProcedureContextGenerator.generate(context, model);
 
         // generate packages
-        PackageObjectGenerator.generate(c);
+        PackageObjectGenerator.generate(context, model);
+    }
+
+    /**
+     * Extracts the metadata of the configured objects and writes it to a snapshot file.
+     */
+    public void export(OBridgeConfiguration c, File snapshot) {
+        QueryStatistics queryStatistics = new QueryStatistics();
+        try (RunLocal.Binding statistics = queryStatistics.activate()) {
+            DataSourceProvider.retain(c);
+            SchemaSnapshot.write(new SchemaModelDao(DataSourceProvider.getDataSource(c), c.getExtractionThreads()).getSchemaModel(c), snapshot);
+            reportQueryStatistics(c, queryStatistics);
+        } catch (PropertyVetoException e) {
+            throw new OBridgeException(e);
+        } finally {
+            DataSourceProvider.release(c);
+        }
+    }
+
+    /**
+     * The tables always go to the log, the JSON reports only to the configured report directory, never next to the
+     * generated sources.
+     */
+    private static void reportQueryStatistics(OBridgeConfiguration c, QueryStatistics queryStatistics) {
+        log.info("Metadata queries:\n" + queryStatistics.formatTable());
+        if (StringUtils.isNotBlank(c.getReportDirectory())) {
+            queryStatistics.writeJson(new File(c.getReportDirectory(), QUERY_STATISTICS_FILE_NAME));
+        }
+    }
+
+    private static void reportProfile(OBridgeConfiguration c, Profiler profiler) {
+        log.info("Generation profile:\n" + profiler.formatTable());
+        if (StringUtils.isNotBlank(c.getReportDirectory())) {
+            profiler.writeJson(new File(c.getReportDirectory(), PROFILE_FILE_NAME));
+        }
     }
 
     public OBridgeConfiguration loadConfiguration(File f) {
@@ -0,0 +1,98 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Ferenc Karsany
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+
+
+package org.obridge.cache;
+
+import lombok.extern.log4j.Log4j2;
+import org.obridge.context.OBridgeConfiguration;
+import org.obridge.generators.GenerationContext;
+import org.obridge.util.OBridgeException;
+import org.obridge.util.SourceWriter;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * List of the files generated by the last run, kept in the source root.
+ * <p>
+ * After a run, the files listed by the previous run but not generated any more (their database object was dropped or
+ * is not selected any more) are deleted. Files OBridge did not generate are never listed, so never deleted.
+ */
+@Log4j2
+public final class GeneratedFiles {
+
+    public static final String FILE_NAME = "obridge-generated-files.txt";
+
+    private GeneratedFiles() {
+    }
+
+    /**
+     * Deletes the orphans of the previous run (unless pruneOrphans is disabled) and lists the files generated by this
+     * run. Only the files written through the writer of the given context count, so concurrent runs in the same JVM do
+     * not see each other's files.
+     */
+    public static void update(GenerationContext context) {
+        OBridgeConfiguration c = context.getConfiguration();
+        update(new File(c.getSourceRoot()).toPath().toAbsolutePath().normalize(), context.getSourceWriter(), c.getPruneOrphans());
+    }
+
+    public static void update(Path sourceRoot, SourceWriter sourceWriter, boolean prune) {
+        Path        list  = sourceRoot.resolve(FILE_NAME);
+        Set<String> files = sourceWriter.getFiles()
+                                        .stream()
+                                        .filter(f -> f.startsWith(sourceRoot))
+                                        .map(f -> relativize(sourceRoot, f))
+                                        .collect(Collectors.toSet());
+
+        try {
+            if (prune && Files.isRegularFile(list)) {
+                for (String previous : new HashSet<>(Files.readAllLines(list, StandardCharsets.UTF_8))) {
+                    Path orphan = sourceRoot.resolve(previous).normalize();
+                    if (!previous.isEmpty() && !files.contains(previous) && orphan.startsWith(sourceRoot) && Files.isRegularFile(orphan)) {
+                        sourceWriter.delete(orphan.toFile());
+                        log.info(" ... " + previous + " (deleted)");
+                    }
+                }
+            }
+
+            List<String> sorted = files.stream().sorted().collect(Collectors.toList());
+            Files.createDirectories(sourceRoot);
+            Files.write(list, sorted, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new OBridgeException("Cannot update the list of generated files " + list, e);
+        }
+    }
+
+    private static String relativize(Path sourceRoot, Path file) {
+        return sourceRoot.relativize(file).toString().replace(File.separatorChar, '/');
+    }
+}
@@ -0,0 +1,305 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Ferenc Karsany
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+
+package org.obridge.cache;
+
+import com.thoughtworks.xstream.XStreamException;
+import lombok.extern.log4j.Log4j2;
+import org.obridge.context.OBridgeConfiguration;
+import org.obridge.generators.GenerationContext;
+import org.obridge.model.dto.ObjectStatusDto;
+import org.obridge.util.MustacheRunner;
+import org.obridge.util.OBridgeException;
+import org.obridge.util.XStreamFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.CodeSource;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Manifest of the generated files for incremental generation.
+ * <p>
+ * Every generated file is recorded with the last DDL time of the database objects it was generated from. On the next
+ * run a file is generated again only when it is missing, when one of these objects changed, or when the set of source
+ * objects itself changed. A changed configuration, template or OBridge build invalidates the whole manifest.
+ */
+@Log4j2
+public class GenerationManifest {
+
+    public static final String FILE_NAME = "obridge-manifest.xml";
+
+    static final String CODE_VERSION = codeVersion();
+
+    private static final int FORMAT_VERSION = 1;
+
+    private int                              version;
+    private String                           fingerprint;
+    private Map<String, Map<String, String>> files;
+
+    private transient File                         file;
+    private transient Path                         sourceRoot;
+    private transient Map<String, ObjectStatusDto> objectStatus;
+
+    private GenerationManifest(File file, Path sourceRoot, String fingerprint, Map<String, ObjectStatusDto> objectStatus) {
+        this.version = FORMAT_VERSION;
+        this.fingerprint = fingerprint;
+        this.files = new ConcurrentHashMap<>();
+        this.file = file;
+        this.sourceRoot = sourceRoot;
+        this.objectStatus = objectStatus;
+    }
+
+    /**
+     * A manifest that considers every file out of date.
+     */
+    public static GenerationManifest disabled() {
+        return new GenerationManifest(null, null, null, Collections.emptyMap());
+    }
+
+    public static GenerationManifest open(GenerationContext context, Map<String, ObjectStatusDto> objectStatus) {
+        OBridgeConfiguration c = context.getConfiguration();
+        if (!Boolean.TRUE.equals(c.getIncremental())) {
+            return disabled();
+        }
+
+        Path sourceRoot = new File(c.getSourceRoot()).toPath().toAbsolutePath().normalize();
+        return load(sourceRoot.resolve(FILE_NAME).toFile(), sourceRoot, fingerprint(context), objectStatus);
+    }
+
+    public static GenerationManifest load(File file, Path sourceRoot, String fingerprint, Map<String, ObjectStatusDto> objectStatus) {
+        GenerationManifest manifest = new GenerationManifest(file, sourceRoot, fingerprint, objectStatus);
+
+        if (!file.exists()) {
+            return manifest;
+        }
+
+        try (InputStream is = Files.newInputStream(file.toPath())) {
+            GenerationManifest stored = (GenerationManifest) XStreamFactory.createMetadataXStream().fromXML(is);
+            if (stored.version == FORMAT_VERSION && Objects.equals(stored.fingerprint, fingerprint)) {
+                manifest.files.putAll(stored.files);
+            } else {
+                log.info("Configuration or OBridge version changed since the last run, generating every file");
+            }
+        } catch (IOException | XStreamException | ClassCastException e) {
+            log.warn("Cannot read generation manifest " + file + ", generating every file", e);
+        }
+
+        return manifest;
+    }
+
+    public boolean isEnabled() {
+        return file != null;
+    }
+
+    /**
+     * Returns true if the file exists and was generated from exactly these objects, none of which changed since. A file
+     * generated from an invalid object is never up to date, its metadata may change without a new DDL time.
+     */
+    public boolean isUpToDate(String fileName, Collection<String> sources) {
+        if (!isEnabled() || !new File(fileName).exists() || hasInvalidSource(sources)) {
+            return false;
+        }
+
+        Map<String, String> recorded = files.get(relativize(fileName));
+        return recorded != null && recorded.equals(lastDdlTimes(sources));
+    }
+
+    public void record(String fileName, Collection<String> sources) {
+        if (isEnabled()) {
+            files.put(relativize(fileName), lastDdlTimes(sources));
+        }
+    }
+
+    /**
+     * Forgets the files neither written nor found up to date by the run, once every generator saved its part of the
+     * manifest, the way {@link GeneratedFiles} forgets the orphans. Without this the entries of dropped or deselected
+     * objects would stay in the manifest forever.
+     */
+    public static void prune(GenerationContext context) {
+        GenerationManifest manifest = open(context, Collections.emptyMap());
+        if (manifest.isEnabled() && manifest.file.exists() && manifest.retain(context.getSourceWriter().getFiles())) {
+            manifest.save();
+        }
+    }
+
+    /**
+     * Keeps the entries of the given files only, returns true if any entry was removed.
+     */
+    boolean retain(Collection<Path> generated) {
+        Set<String> kept = generated.stream().map(f -> relativize(f.toString())).collect(Collectors.toSet());
+        return files.keySet().retainAll(kept);
+    }
+
+    public void save() {
+        if (!isEnabled()) {
+            return;
+        }
+
+        // files are recorded by parallel render threads, they are written sorted so the manifest is the same every run
+        Map<String, Map<String, String>> recorded = files;
+        files = new LinkedHashMap<>();
+        recorded.entrySet().stream().sorted(Map.Entry.comparingByKey()).forEach(e -> files.put(e.getKey(), e.getValue()));
+
+        try {
+            Files.createDirectories(file.getAbsoluteFile().getParentFile().toPath());
+            try (OutputStream os = Files.newOutputStream(file.toPath())) {
+                XStreamFactory.createMetadataXStream().toXML(this, os);
+            }
+        } catch (IOException | XStreamException e) {
+            log.warn("Cannot write generation manifest " + file, e);
+        } finally {
+            files = recorded;
+        }
+    }
+
+    private boolean hasInvalidSource(Collection<String> sources) {
+        for (String source : sources) {
+            ObjectStatusDto status = objectStatus.get(source);
+            if (status != null && !status.isValid()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The current last DDL times of the sources, or the status of the invalid ones. Objects outside of the selected
+     * owners are not tracked.
+     */
+    private Map<String, String> lastDdlTimes(Collection<String> sources) {
+        Map<String, String> ret = new LinkedHashMap<>();
+        for (String source : sources) {
+            ObjectStatusDto status = objectStatus.get(source);
+            if (status != null) {
+                ret.put(source, status.isValid() ? status.getLastDdlTime() : status.getStatus());
+            }
+        }
+        return ret;
+    }
+
+    private String relativize(String fileName) {
+        return sourceRoot.relativize(new File(fileName).toPath().toAbsolutePath().normalize()).toString().replace(File.separatorChar, '/');
+    }
+
+    /**
+     * Hash of the settings and of the templates that influence the content of the generated files.
+     */
+    static String fingerprint(GenerationContext context) {
+        OBridgeConfiguration c = context.getConfiguration();
+        List<String> templates = MustacheRunner.TEMPLATES.stream()
+                                                         .map(t -> sha256(context.getTemplates().getTemplateSource(t)))
+                                                         .collect(Collectors.toList());
+
+        return sha256(XStreamFactory.createXStream().toXML(new Object[]{
+                CODE_VERSION,
+                c.getRootPackageName(),
+                c.getUseSchemaName(),
+                c.getPackages(),
+                c.getLogging(),
+                c.getUseLombokAccessors(),
+                c.getPackageExtraClassImports(),
+                c.getFormatter(),
+                new ArrayList<>(templates)}));
+    }
+
+    static String sha256(String value) {
+        return hex(digest().digest(value.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * The OBridge version with a hash of the jar (or of the class folder) it was loaded from, so a rebuilt snapshot
+     * invalidates the manifests and the cached sources as well as a release does.
+     */
+    static String codeVersion() {
+        Properties properties = new Properties();
+        try (InputStream in = OBridgeConfiguration.class.getResourceAsStream("/org/obridge/obridge-project.properties")) {
+            if (in != null) {
+                properties.load(in);
+            }
+        } catch (IOException e) {
+            log.debug("Cannot read the OBridge version", e);
+        }
+
+        String version = properties.getProperty("version", "unknown");
+        try {
+            CodeSource source = GenerationManifest.class.getProtectionDomain().getCodeSource();
+            if (source == null) {
+                return version;
+            }
+            Path          location = Paths.get(source.getLocation().toURI());
+            MessageDigest digest   = digest();
+            if (Files.isDirectory(location)) {
+                try (Stream<Path> classes = Files.walk(location)) {
+                    for (Path p : classes.filter(Files::isRegularFile).sorted().collect(Collectors.toList())) {
+                        digest.update(location.relativize(p).toString().getBytes(StandardCharsets.UTF_8));
+                        digest.update(Files.readAllBytes(p));
+                    }
+                }
+            } else {
+                digest.update(Files.readAllBytes(location));
+            }
+            return version + "-" + hex(digest.digest());
+        } catch (IOException | URISyntaxException | RuntimeException e) {
+            log.debug("Cannot hash the OBridge code, using its version only", e);
+            return version;
+        }
+    }
+
+    private static MessageDigest digest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new OBridgeException(e);
+        }
+    }
+
+    private static String hex(byte[] bytes) {
+        StringBuilder sb = new StringBuilder();
+        for (byte b : bytes) {
+            sb.append(String.format("%02x", b));
+        }
+        return sb.toString();
+    }
+}
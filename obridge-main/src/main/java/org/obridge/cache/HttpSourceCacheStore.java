@@ -0,0 +1,96 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Ferenc Karsany
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+
+
+package org.obridge.cache;
+
+import org.apache.commons.io.IOUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+
+/**
+ * Keeps the archives in a remote HTTP store: GET {url}/{key}.zip reads an archive (404 if there is none), PUT stores
+ * one. Any WebDAV capable server or build cache node serving plain GET and PUT can be used.
+ */
+public class HttpSourceCacheStore implements SourceCacheStore {
+
+    private static final int TIMEOUT_MILLIS = 30_000;
+
+    private final String url;
+
+    public HttpSourceCacheStore(String url) {
+        this.url = url.endsWith("/") ? url : url + "/";
+    }
+
+    @Override
+    public byte[] get(String key) throws IOException {
+        HttpURLConnection connection = open(key, "GET");
+        try {
+            int status = connection.getResponseCode();
+            if (status == HttpURLConnection.HTTP_NOT_FOUND) {
+                return null;
+            }
+            if (status != HttpURLConnection.HTTP_OK) {
+                throw new IOException("GET " + connection.getURL() + " returned " + status);
+            }
+            try (InputStream is = connection.getInputStream()) {
+                return IOUtils.toByteArray(is);
+            }
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    @Override
+    public void put(String key, byte[] archive) throws IOException {
+        HttpURLConnection connection = open(key, "PUT");
+        try {
+            connection.setDoOutput(true);
+            // not streamed, so the request is retried if a kept-alive connection turns out to be closed by the server
+            connection.setRequestProperty("Content-Type", "application/zip");
+            try (OutputStream os = connection.getOutputStream()) {
+                os.write(archive);
+            }
+
+            int status = connection.getResponseCode();
+            if (status / 100 != 2) {
+                throw new IOException("PUT " + connection.getURL() + " returned " + status);
+            }
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    private HttpURLConnection open(String key, String method) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(url + key + ".zip").openConnection();
+        connection.setRequestMethod(method);
+        connection.setConnectTimeout(TIMEOUT_MILLIS);
+        connection.setReadTimeout(TIMEOUT_MILLIS);
+        return connection;
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Ferenc Karsany
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+
+
+package org.obridge.cache;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Keeps the archives as files in a local directory, which can be shared by the builds of a machine.
+ */
+public class LocalSourceCacheStore implements SourceCacheStore {
+
+    private final Path directory;
+
+    public LocalSourceCacheStore(Path directory) {
+        this.directory = directory;
+    }
+
+    @Override
+    public byte[] get(String key) throws IOException {
+        Path archive = directory.resolve(key + ".zip");
+        return Files.isRegularFile(archive) ? Files.readAllBytes(archive) : null;
+    }
+
+    /**
+     * Writes a temporary file first, so concurrent builds never read a partially written archive.
+     */
+    @Override
+    public void put(String key, byte[] archive) throws IOException {
+        Files.createDirectories(directory);
+        Path temp = Files.createTempFile(directory, key, ".tmp");
+        try {
+            Files.write(temp, archive);
+            Files.move(temp, directory.resolve(key + ".zip"), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+}
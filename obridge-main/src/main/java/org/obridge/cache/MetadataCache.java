@@ -0,0 +1,274 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Ferenc Karsany
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+
+package org.obridge.cache;
+
+import com.thoughtworks.xstream.XStream;
+import com.thoughtworks.xstream.XStreamException;
+import lombok.extern.log4j.Log4j2;
+import org.apache.commons.lang3.StringUtils;
+import org.obridge.context.OBridgeConfiguration;
+import org.obridge.dao.ObjectStatusDao;
+import org.obridge.model.dto.ObjectStatusDto;
+import org.obridge.util.XStreamFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * On-disk cache of the extracted metadata model (package procedures, standalone procedures and type attributes).
+ * <p>
+ * Every entry records the last DDL time of the database object it was extracted from and of the types it refers to.
+ * An entry is used only while all of these objects are still VALID and have the same last DDL time as reported by
+ * {@link ObjectStatusDao}, otherwise the object is read from the data dictionary again. A cache file written by another
+ * OBridge build is ignored, its queries or model may differ.
+ */
+@Log4j2
+public class MetadataCache {
+
+    public static final String FILE_NAME = "obridge-metadata-cache.xml";
+
+    private static final int FORMAT_VERSION = 1;
+
+    private static final Map<File, Resident> resident = new ConcurrentHashMap<>();
+
+    private static volatile boolean keepInMemory;
+
+    private int                version;
+    private String             codeVersion;
+    private String             jdbcUrl;
+    private String             username;
+    private Map<String, Entry> entries;
+
+    private transient File                         file;
+    private transient Map<String, ObjectStatusDto> objectStatus;
+    private transient boolean                      changed;
+
+    private MetadataCache(File file, String jdbcUrl, String username, Map<String, ObjectStatusDto> objectStatus) {
+        this.version = FORMAT_VERSION;
+        this.codeVersion = GenerationManifest.CODE_VERSION;
+        this.jdbcUrl = jdbcUrl;
+        this.username = username;
+        this.entries = new ConcurrentHashMap<>();
+        this.file = file;
+        this.objectStatus = objectStatus;
+    }
+
+    /**
+     * A cache that never returns and never stores anything.
+     */
+    public static MetadataCache disabled() {
+        return new MetadataCache(null, null, null, Collections.emptyMap());
+    }
+
+    /**
+     * Keeps the entries last read or written in memory, so a long running process (watch mode) does not parse the cache
+     * file again on every run while the file is not changed by someone else.
+     */
+    public static void keepInMemory(boolean keep) {
+        keepInMemory = keep;
+        if (!keep) {
+            resident.clear();
+        }
+    }
+
+    public static MetadataCache open(OBridgeConfiguration c, Map<String, ObjectStatusDto> objectStatus) {
+        if (!Boolean.TRUE.equals(c.getUseMetadataCache())) {
+            return disabled();
+        }
+
+        String directory = StringUtils.defaultIfBlank(c.getMetadataCacheDirectory(), c.getSourceRoot());
+
+        return load(new File(directory, FILE_NAME), c.getJdbcUrl(), c.getUsername(), objectStatus);
+    }
+
+    public static MetadataCache load(File file, String jdbcUrl, String username, Map<String, ObjectStatusDto> objectStatus) {
+        MetadataCache cache = new MetadataCache(file, jdbcUrl, username, objectStatus);
+
+        if (!file.exists()) {
+            return cache;
+        }
+
+        Resident kept = resident.get(file.getAbsoluteFile());
+        if (keepInMemory && kept != null && kept.isCurrent(file) && Objects.equals(kept.jdbcUrl, jdbcUrl) && Objects.equals(kept.username, username)) {
+            cache.entries.putAll(kept.entries);
+            return cache;
+        }
+
+        try (InputStream is = Files.newInputStream(file.toPath())) {
+            MetadataCache stored = (MetadataCache) XStreamFactory.createMetadataXStream().fromXML(is);
+            if (stored.version == FORMAT_VERSION && Objects.equals(stored.codeVersion, GenerationManifest.CODE_VERSION)
+                    && Objects.equals(stored.jdbcUrl, jdbcUrl) && Objects.equals(stored.username, username)) {
+                cache.entries.putAll(stored.entries);
+                cache.keep();
+            } else {
+                log.info("Metadata cache " + file + " was written for another database or version, ignoring it");
+            }
+        } catch (IOException | XStreamException | ClassCastException e) {
+            log.warn("Cannot read metadata cache " + file + ", ignoring it", e);
+        }
+
+        return cache;
+    }
+
+    public boolean isEnabled() {
+        return file != null;
+    }
+
+    /**
+     * Returns the cached payload of an object, or null if it is not cached or the object (or a type it refers to) has
+     * been changed since it was cached.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null || !isUpToDate(entry)) {
+            return null;
+        }
+        return (T) entry.payload;
+    }
+
+    /**
+     * Stores the extracted payload of an object. Dependencies outside of the selected owners cannot be validated, they
+     * are not recorded.
+     */
+    public void put(String key, Object payload, Collection<String> dependencies) {
+        put(key, key, payload, dependencies);
+    }
+
+    /**
+     * Stores a payload extracted from the given object under another key, for a second kind of metadata of the same
+     * object.
+     */
+    public void put(String key, String objectKey, Object payload, Collection<String> dependencies) {
+        ObjectStatusDto self = objectStatus.get(objectKey);
+        if (!isEnabled() || self == null || !self.isValid()) {
+            return;
+        }
+
+        Map<String, String> lastDdlTimes = new LinkedHashMap<>();
+        lastDdlTimes.put(objectKey, self.getLastDdlTime());
+        for (String dependency : dependencies) {
+            ObjectStatusDto status = objectStatus.get(dependency);
+            if (status != null) {
+                lastDdlTimes.put(dependency, status.getLastDdlTime());
+            }
+        }
+
+        // collections are copied, the JDK internal implementations (unmodifiable, singleton lists) cannot be persisted
+        entries.put(key, new Entry(lastDdlTimes, payload instanceof Collection ? new ArrayList<>((Collection<?>) payload) : payload));
+        changed = true;
+    }
+
+    /**
+     * Writes the cache file, unless every entry was read from it and is still up to date.
+     */
+    public void save() {
+        if (!isEnabled()) {
+            return;
+        }
+
+        if (entries.values().removeIf(e -> !isUpToDate(e))) {
+            changed = true;
+        }
+
+        if (!changed && file.exists()) {
+            return;
+        }
+
+        try {
+            Files.createDirectories(file.getAbsoluteFile().getParentFile().toPath());
+            try (OutputStream os = Files.newOutputStream(file.toPath())) {
+                XStream xStream = XStreamFactory.createMetadataXStream();
+                xStream.toXML(this, os);
+            }
+            changed = false;
+            keep();
+        } catch (IOException | XStreamException e) {
+            log.warn("Cannot write metadata cache " + file, e);
+        }
+    }
+
+    private void keep() {
+        if (keepInMemory) {
+            resident.put(file.getAbsoluteFile(), new Resident(file, jdbcUrl, username, new HashMap<>(entries)));
+        }
+    }
+
+    private boolean isUpToDate(Entry entry) {
+        for (Map.Entry<String, String> dependency : entry.lastDdlTimes.entrySet()) {
+            ObjectStatusDto status = objectStatus.get(dependency.getKey());
+            if (status == null || !status.isValid() || !Objects.equals(status.getLastDdlTime(), dependency.getValue())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The entries of a cache file as they were last read or written, with the state of the file at that time.
+     */
+    private static final class Resident {
+
+        private final long               lastModified;
+        private final long               length;
+        private final String             jdbcUrl;
+        private final String             username;
+        private final Map<String, Entry> entries;
+
+        private Resident(File file, String jdbcUrl, String username, Map<String, Entry> entries) {
+            this.lastModified = file.lastModified();
+            this.length = file.length();
+            this.jdbcUrl = jdbcUrl;
+            this.username = username;
+            this.entries = entries;
+        }
+
+        private boolean isCurrent(File file) {
+            return file.lastModified() == lastModified && file.length() == length;
+        }
+    }
+
+    private static final class Entry {
+
+        private final Map<String, String> lastDdlTimes;
+        private final Object              payload;
+
+        private Entry(Map<String, String> lastDdlTimes, Object payload) {
+            this.lastDdlTimes = lastDdlTimes;
+            this.payload = payload;
+        }
+    }
+}
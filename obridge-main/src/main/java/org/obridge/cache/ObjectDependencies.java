@@ -0,0 +1,150 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Ferenc Karsany
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+
+package org.obridge.cache;
+
+import org.apache.commons.lang3.StringUtils;
+import org.obridge.model.data.Procedure;
+import org.obridge.model.data.TypeAttribute;
+import org.obridge.model.dto.ObjectStatusDto;
+import org.obridge.model.dto.TypeIdDto;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * The database objects a generated class is derived from, as {@link ObjectStatusDto#key} keys: the type, package or
+ * standalone procedure itself and every type it refers to, transitively through type attributes and collection
+ * elements.
+ */
+public final class ObjectDependencies {
+
+    private final Map<String, Set<String>> typeReferences = new HashMap<>();
+
+    public ObjectDependencies(Map<TypeIdDto, List<TypeAttribute>> typeAttributes) {
+        typeAttributes.forEach((type, attributes) -> typeReferences.put(typeKey(type.getOwner(), type.getTypeName()),
+                                                                        attributes.stream()
+                                                                                  .flatMap(a -> attributeTypes(type, a))
+                                                                                  .map(t -> typeKey(t.getOwner(), t.getTypeName()))
+                                                                                  .collect(Collectors.toCollection(LinkedHashSet::new))));
+    }
+
+    public Set<String> ofType(TypeIdDto type) {
+        return closure(Collections.singletonList(typeKey(type.getOwner(), type.getTypeName())));
+    }
+
+    public Set<String> ofProcedures(Collection<Procedure> procedures) {
+        Set<String> keys = new LinkedHashSet<>();
+        for (Procedure p : procedures) {
+            keys.add(StringUtils.isEmpty(p.getObjectName())
+                     ? ObjectStatusDto.key(p.getMethodType(), p.getOwner(), p.getProcedureName())
+                     : ObjectStatusDto.key("PACKAGE", p.getOwner(), p.getObjectName()));
+        }
+        keys.addAll(argumentTypes(procedures));
+        return closure(keys);
+    }
+
+    /**
+     * The types the arguments of the procedures refer to directly.
+     */
+    public static List<String> argumentTypes(Collection<Procedure> procedures) {
+        return argumentTypeIds(procedures).stream().map(t -> typeKey(t.getOwner(), t.getTypeName())).collect(Collectors.toList());
+    }
+
+    /**
+     * The types the arguments of the procedures refer to directly: the argument type and, for collections, the element
+     * type.
+     */
+    public static List<TypeIdDto> argumentTypeIds(Collection<Procedure> procedures) {
+        return procedures.stream()
+                         .flatMap(p -> p.getArgumentList().stream().filter(a -> a.getOrigTypeName() != null).flatMap(a -> {
+                             String owner = a.getTypeOwner() == null ? p.getOwner() : a.getTypeOwner();
+                             return a.getTypeName() == null
+                                    ? Stream.of(new TypeIdDto(owner, a.getOrigTypeName()))
+                                    : Stream.of(new TypeIdDto(owner, a.getOrigTypeName()), new TypeIdDto(owner, a.getTypeName()));
+                         }))
+                         .distinct()
+                         .collect(Collectors.toList());
+    }
+
+    /**
+     * The types the attributes of the types refer to directly: the attribute type and, for collections, the element
+     * type.
+     */
+    public static List<TypeIdDto> attributeTypeIds(Map<TypeIdDto, List<TypeAttribute>> typeAttributes) {
+        return typeAttributes.entrySet()
+                             .stream()
+                             .flatMap(e -> e.getValue().stream().flatMap(a -> attributeTypes(e.getKey(), a)))
+                             .distinct()
+                             .collect(Collectors.toList());
+    }
+
+    /**
+     * The user defined types an attribute refers to, under the owner of the attribute type (the owner of the containing
+     * type when it is not known). Built-in types like VARCHAR2 or NUMBER, as attribute or as element type, are skipped.
+     */
+    private static Stream<TypeIdDto> attributeTypes(TypeIdDto type, TypeAttribute a) {
+        if (!a.isUserDefinedType()) {
+            return Stream.empty();
+        }
+
+        String owner = a.getAttrTypeOwner() == null ? type.getOwner() : a.getAttrTypeOwner();
+        return a.getCollectionBaseType() == null || a.isPrimitiveList()
+               ? Stream.of(new TypeIdDto(owner, a.getAttrTypeName()))
+               : Stream.of(new TypeIdDto(owner, a.getAttrTypeName()), new TypeIdDto(owner, a.getCollectionBaseType()));
+    }
+
+    private Set<String> closure(Collection<String> keys) {
+        Set<String>   ret   = new LinkedHashSet<>(keys);
+        Deque<String> queue = new ArrayDeque<>(keys);
+
+        while (!queue.isEmpty()) {
+            for (String reference : typeReferences.getOrDefault(queue.poll(), Collections.emptySet())) {
+                if (ret.add(reference)) {
+                    queue.add(reference);
+                }
+            }
+        }
+
+        return ret;
+    }
+
+    /**
+     * Types declared in a package ("PACKAGE.TYPE") change with the package specification.
+     */
+    private static String typeKey(String owner, String typeName) {
+        return typeName.contains(".")
+               ? ObjectStatusDto.key("PACKAGE", owner, StringUtils.substringBefore(typeName, "."))
+               : ObjectStatusDto.key("TYPE", owner, typeName);
+    }
+}
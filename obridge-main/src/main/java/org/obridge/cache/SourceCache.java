@@ -0,0 +1,220 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Ferenc Karsany
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+
+
+package org.obridge.cache;
+
+import lombok.extern.log4j.Log4j2;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.obridge.context.BuildCache;
+import org.obridge.context.OBridgeConfiguration;
+import org.obridge.generators.GenerationContext;
+import org.obridge.model.data.SchemaModel;
+import org.obridge.util.SourceWriter;
+import org.obridge.util.XStreamFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Content addressed cache of the generated source trees.
+ * <p>
+ * The key is a hash of the settings that influence the generated sources, of the templates and of the extracted
+ * metadata, so builds generating from the same schema with the same settings share one entry whatever their source
+ * root is. On a hit the tree is restored without rendering anything. Failing stores are logged and treated as a miss,
+ * the cache never fails the generation.
+ */
+@Log4j2
+public final class SourceCache {
+
+    private final List<SourceCacheStore> stores;
+    private final List<SourceCacheStore> pushStores;
+
+    SourceCache(List<SourceCacheStore> stores, List<SourceCacheStore> pushStores) {
+        this.stores = stores;
+        this.pushStores = pushStores;
+    }
+
+    /**
+     * A cache that never hits and stores nothing.
+     */
+    public static SourceCache disabled() {
+        return new SourceCache(Collections.emptyList(), Collections.emptyList());
+    }
+
+    public static SourceCache open(OBridgeConfiguration c) {
+        BuildCache settings = c.getBuildCache();
+        if (settings == null) {
+            return disabled();
+        }
+
+        List<SourceCacheStore> stores     = new ArrayList<>();
+        List<SourceCacheStore> pushStores = new ArrayList<>();
+        if (StringUtils.isNotBlank(settings.getDirectory())) {
+            stores.add(new LocalSourceCacheStore(Paths.get(settings.getDirectory())));
+            pushStores.add(stores.get(0));
+        }
+        if (StringUtils.isNotBlank(settings.getRemoteUrl())) {
+            SourceCacheStore remote = new HttpSourceCacheStore(settings.getRemoteUrl());
+            stores.add(remote);
+            if (Boolean.TRUE.equals(settings.getRemotePush())) {
+                pushStores.add(remote);
+            }
+        }
+
+        return new SourceCache(stores, pushStores);
+    }
+
+    public boolean isEnabled() {
+        return !stores.isEmpty();
+    }
+
+    /**
+     * The cache key of the sources generated from the model with these settings and the current templates.
+     */
+    public static String key(GenerationContext context, SchemaModel model) {
+        // the fingerprint covers the templates of the run
+        StringBuilder sb = new StringBuilder(GenerationManifest.fingerprint(context));
+
+        // copied, the read-only views of the model cannot be serialized
+        sb.append(GenerationManifest.sha256(XStreamFactory.createMetadataXStream().toXML(new Object[]{
+                new ArrayList<>(model.getTypes()),
+                model.getTypes().stream().map(t -> new ArrayList<>(model.getTypeAttributes().getOrDefault(t, Collections.emptyList())))
+                     .collect(Collectors.toCollection(ArrayList::new)),
+                new ArrayList<>(model.getPackages())})));
+
+        return GenerationManifest.sha256(sb.toString());
+    }
+
+    /**
+     * Writes the cached tree into the source root with the given writer, returns false on a miss. A hit in the remote
+     * store is copied to the local one.
+     */
+    public boolean restore(String key, Path sourceRoot, SourceWriter sourceWriter) {
+        for (int i = 0; i < stores.size(); i++) {
+            byte[] archive = get(stores.get(i), key);
+            if (archive == null) {
+                continue;
+            }
+
+            try {
+                unzip(archive, sourceRoot, sourceWriter);
+            } catch (IOException e) {
+                log.warn("Cannot restore cached sources " + key + ", generating them", e);
+                return false;
+            }
+
+            for (int j = 0; j < i; j++) {
+                put(stores.get(j), key, archive);
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Stores the generated files of the source root.
+     */
+    public void store(String key, Path sourceRoot, Collection<Path> files) {
+        if (pushStores.isEmpty()) {
+            return;
+        }
+
+        byte[] archive;
+        try {
+            archive = zip(sourceRoot, files);
+        } catch (IOException e) {
+            log.warn("Cannot archive the generated sources", e);
+            return;
+        }
+
+        for (SourceCacheStore store : pushStores) {
+            put(store, key, archive);
+        }
+    }
+
+    private static byte[] get(SourceCacheStore store, String key) {
+        try {
+            return store.get(key);
+        } catch (IOException e) {
+            log.warn("Cannot read source cache entry " + key + " from " + store.getClass().getSimpleName(), e);
+            return null;
+        }
+    }
+
+    private static void put(SourceCacheStore store, String key, byte[] archive) {
+        try {
+            store.put(key, archive);
+        } catch (IOException e) {
+            log.warn("Cannot write source cache entry " + key + " to " + store.getClass().getSimpleName(), e);
+        }
+    }
+
+    static byte[] zip(Path sourceRoot, Collection<Path> files) throws IOException {
+        List<Path> sorted = files.stream().filter(f -> f.startsWith(sourceRoot)).sorted().collect(Collectors.toList());
+
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        try (ZipOutputStream zos = new ZipOutputStream(bos)) {
+            for (Path file : sorted) {
+                ZipEntry entry = new ZipEntry(sourceRoot.relativize(file).toString().replace(File.separatorChar, '/'));
+                entry.setTime(0L);
+                zos.putNextEntry(entry);
+                zos.write(Files.readAllBytes(file));
+                zos.closeEntry();
+            }
+        }
+        return bos.toByteArray();
+    }
+
+    /**
+     * Extracts through {@link SourceWriter}, so unchanged files keep their timestamp and the restored files are
+     * counted and listed like generated ones.
+     */
+    static void unzip(byte[] archive, Path sourceRoot, SourceWriter sourceWriter) throws IOException {
+        try (ZipInputStream zis = new ZipInputStream(new ByteArrayInputStream(archive))) {
+            for (ZipEntry entry = zis.getNextEntry(); entry != null; entry = zis.getNextEntry()) {
+                Path file = sourceRoot.resolve(entry.getName()).normalize();
+                if (entry.isDirectory() || !file.startsWith(sourceRoot)) {
+                    continue;
+                }
+                sourceWriter.write(file.toString(), new String(IOUtils.toByteArray(zis), StandardCharsets.UTF_8));
+            }
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package org.obridge.context;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Sizing of the connection pool used for metadata extraction. Unset values fall back to what the extraction needs:
+ * one connection per extraction thread plus one, and no pooled statements. A connection not available within
+ * checkoutTimeout seconds (60 by default) fails the extraction instead of waiting forever.
+ */
+@Setter
+@Getter
+public class ConnectionPool {
+
+    private Integer minPoolSize;
+    private Integer maxPoolSize;
+    private Integer statementCacheSize;
+    private Integer checkoutTimeout;
+}
@@ -3,12 +3,23 @@ package org.obridge.context;
 import lombok.Getter;
 import lombok.Setter;
 
+/**
+ * One entry of the object filter. The name is matched exactly by default, as a LIKE pattern when match is "like" or as
+ * a regular expression (REGEXP_LIKE) when match is "regex". A missing name selects every object of the owner. Excluded
+ * entries remove the matching objects from the included ones.
+ */
 @Setter
 @Getter
 public class DbObject {
 
-    private String owner;
-    private String name;
+    public static final String MATCH_EXACT = "exact";
+    public static final String MATCH_LIKE  = "like";
+    public static final String MATCH_REGEX = "regex";
+
+    private String  owner;
+    private String  name;
+    private String  match;
+    private Boolean exclude;
 
     public DbObject(String owner, String name) {
         this.owner = owner;
@@ -18,11 +29,15 @@ public class DbObject {
     public DbObject() {
     }
 
-    public String toConcatenated() {
-        return this.owner + "." + this.name;
+    public String getMatch() {
+        return match == null ? MATCH_EXACT : match.toLowerCase();
     }
 
-    public String toSQL() {
-        return "SELECT '" + this.owner + "', '" + this.name + "' FROM dual ";
+    public boolean isExclude() {
+        return Boolean.TRUE.equals(exclude);
+    }
+
+    public String toConcatenated() {
+        return this.owner + "." + this.name;
     }
 }
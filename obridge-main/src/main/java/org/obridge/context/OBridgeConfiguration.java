@@ -28,7 +28,6 @@ import lombok.Getter;
 import lombok.Setter;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * OBridge Configuration package.
@@ -41,6 +40,12 @@ import java.util.stream.Collectors;
 @Getter
 public class OBridgeConfiguration {
 
+    public static final String EXTRACTION_DICTIONARY = "dictionary";
+    public static final String EXTRACTION_JSON       = "json";
+    public static final String FORMATTER_JASTYLE     = "jastyle";
+    public static final String FORMATTER_INDENT      = "indent";
+    public static final String FORMATTER_NONE        = "none";
+
     private String         jdbcUrl;
     private String         username;
     private String         password;
@@ -51,9 +56,65 @@ public class OBridgeConfiguration {
     private Logging        logging;
     private Boolean        useLombokAccessors;
     private List<DbObject> dbObjects;
+    private Boolean        referencedTypesOnly;
     private List<String>   packageExtraClassImports;
+    private Integer        extractionThreads;
+    private Integer        renderThreads;
+    private Boolean        useMetadataCache;
+    private String         metadataCacheDirectory;
+    private Boolean        incremental;
+    private Boolean        pruneOrphans;
+    private BuildCache     buildCache;
+    private Integer        fetchSize;
+    private ConnectionPool connectionPool;
+    private String         reportDirectory;
+    private String         extractionStrategy;
+    private Boolean        streamingGeneration;
+    private String         templateDirectory;
+    private String         formatter;
+    private Boolean        precompileTemplates;
+
+    /**
+     * Number of parallel metadata extraction threads (and pooled connections they use), defaults to 1 (serial).
+     */
+    public int getExtractionThreads() {
+        return extractionThreads == null || extractionThreads < 1 ? 1 : extractionThreads;
+    }
+
+    /**
+     * Number of threads rendering, formatting and writing the generated sources, defaults to 1 (serial).
+     */
+    public int getRenderThreads() {
+        return renderThreads == null || renderThreads < 1 ? 1 : renderThreads;
+    }
+
+    /**
+     * Whether the files generated by the previous run but not generated any more are deleted, defaults to true.
+     */
+    public boolean getPruneOrphans() {
+        return pruneOrphans == null || pruneOrphans;
+    }
+
+    /**
+     * How the metadata is read: "dictionary" (the default) queries the data dictionary views per owner and object, "json"
+     * exports the whole model with a single statement.
+     */
+    public String getExtractionStrategy() {
+        return extractionStrategy == null ? EXTRACTION_DICTIONARY : extractionStrategy.toLowerCase();
+    }
+
+    /**
+     * How the generated sources are formatted: "jastyle" (the default), "indent" (a fast line based re-indenter), "none"
+     * (as rendered by the templates) or the class name of a {@link org.obridge.util.format.SourceFormatter}.
+     */
+    public String getFormatter() {
+        return formatter == null ? FORMATTER_JASTYLE : formatter;
+    }
 
-    public String toFilterString() {
-        return this.dbObjects.stream().map(DbObject::toSQL).collect(Collectors.joining(" UNION ALL "));
+    /**
+     * Rows fetched per round trip by the metadata queries, 0 (the default) keeps the JDBC driver default.
+     */
+    public int getFetchSize() {
+        return fetchSize == null || fetchSize < 0 ? 0 : fetchSize;
     }
 }
@@ -0,0 +1,307 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Ferenc Karsany
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+
+
+package org.obridge.dao;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.obridge.cache.ObjectDependencies;
+import org.obridge.context.OBridgeConfiguration;
+import org.obridge.model.data.OraclePackage;
+import org.obridge.model.data.Procedure;
+import org.obridge.model.data.ProcedureArgument;
+import org.obridge.model.data.SchemaModel;
+import org.obridge.model.data.TypeAttribute;
+import org.obridge.model.dto.ArgumentDto;
+import org.obridge.model.dto.ObjectStatusDto;
+import org.obridge.model.dto.TypeIdDto;
+import org.obridge.util.OBridgeException;
+import org.obridge.util.ResourceUtils;
+import org.obridge.util.jdbc.JdbcTemplate;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Extracts the complete {@link SchemaModel} with a single statement: the database assembles the packages, procedures,
+ * arguments, types and object status of the selected objects into one JSON document (Oracle 12.2 or later), which is
+ * parsed into the model here. This trades a heavier statement for one network round trip.
+ */
+public class JsonSchemaModelDao {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private JdbcTemplate jdbcTemplate;
+
+    public JsonSchemaModelDao(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public SchemaModel getSchemaModel(OBridgeConfiguration c) {
+        List<Object> args  = new ArrayList<>();
+        String       query = getQuery(c, args);
+
+        return jdbcTemplate.query("GET_SCHEMA_MODEL_JSON", query, args.toArray(), (resultSet, i) -> {
+            try (Reader reader = resultSet.getCharacterStream(1)) {
+                return toSchemaModel(c, read(reader));
+            } catch (IOException e) {
+                throw new OBridgeException("Cannot parse the schema model document", e);
+            }
+        }).get(0);
+    }
+
+    /**
+     * The statement of the configured object filter, its bind values are appended to args in order. With
+     * referencedTypesOnly every object type of the selected owners is exported, the closure is computed after parsing.
+     */
+    static String getQuery(OBridgeConfiguration c, List<Object> args) {
+        ObjectFilter filter = new ObjectFilter(c.getDbObjects());
+
+        String packages   = filter.toPredicate("owner", "object_name", args);
+        String procedures = filter.toPredicate("t.owner", "t.object_name", args);
+        String types      = Boolean.TRUE.equals(c.getReferencedTypesOnly()) ? toOwnerPredicate(filter, args)
+                                                                            : filter.toPredicate("owner", "type_name", args);
+        String arguments  = filter.toPredicate("t.owner", "nvl(t.package_name, t.object_name)", args);
+        String status     = toOwnerPredicate(filter, args);
+
+        return String.format(ResourceUtils.load("queries/GET_SCHEMA_MODEL_JSON.sql"), packages, procedures, types, arguments, status);
+    }
+
+    private static String toOwnerPredicate(ObjectFilter filter, List<Object> args) {
+        List<String> owners = filter.getOwners();
+        if (owners.isEmpty()) {
+            return "owner = user";
+        }
+        args.addAll(owners);
+        return "owner In (" + String.join(", ", Collections.nCopies(owners.size(), "?")) + ")";
+    }
+
+    /**
+     * Reads the document into its arrays of flat rows, keyed by array name.
+     */
+    static Map<String, List<JsonRow>> read(Reader reader) throws IOException {
+        Map<String, List<JsonRow>> ret = new HashMap<>();
+
+        try (JsonParser parser = JSON_FACTORY.createParser(reader)) {
+            expect(parser, parser.nextToken(), JsonToken.START_OBJECT);
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String        name = parser.getCurrentName();
+                List<JsonRow> rows = new ArrayList<>();
+
+                if (parser.nextToken() != JsonToken.VALUE_NULL) {
+                    expect(parser, parser.currentToken(), JsonToken.START_ARRAY);
+                    while (parser.nextToken() == JsonToken.START_OBJECT) {
+                        Map<String, String> values = new HashMap<>();
+                        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                            String field = parser.getCurrentName();
+                            values.put(field, parser.nextToken() == JsonToken.VALUE_NULL ? null : parser.getValueAsString());
+                        }
+                        rows.add(new JsonRow(values));
+                    }
+                }
+
+                ret.put(name, rows);
+            }
+        }
+
+        return ret;
+    }
+
+    private static void expect(JsonParser parser, JsonToken actual, JsonToken expected) throws IOException {
+        if (actual != expected) {
+            throw new IOException("Expected " + expected + " but found " + actual + " at " + parser.getCurrentLocation());
+        }
+    }
+
+    static SchemaModel toSchemaModel(OBridgeConfiguration c, Map<String, List<JsonRow>> document) {
+        Map<String, ObjectStatusDto> objectStatus = rows(document, "object_status")
+                .stream()
+                .map(r -> new ObjectStatusDto(r.get("owner"), r.get("object_name"), r.get("object_type"), r.get("last_ddl_time"), r.get("status")))
+                .collect(Collectors.toMap(ObjectStatusDto::getKey, Function.identity()));
+
+        List<OraclePackage> packages   = toPackages(document);
+        List<Procedure>     procedures = packages.stream().flatMap(p -> p.getProcedureList().stream()).collect(Collectors.toList());
+
+        Map<TypeIdDto, List<TypeAttribute>> embeddedTypes = TypeDao.toEmbeddedTypeAttributes(
+                rows(document, "nested_arguments").stream()
+                                                  .map(r -> new ArgumentDto(r.get("owner"),
+                                                                            r.getLong("object_id"),
+                                                                            r.getLong("subprogram_id"),
+                                                                            r.getInteger("data_level"),
+                                                                            r.get("argument_name"),
+                                                                            r.get("data_type"),
+                                                                            r.getInteger("data_scale"),
+                                                                            r.get("type_owner"),
+                                                                            r.get("type_name"),
+                                                                            r.get("type_subname")))
+                                                  .collect(Collectors.toList()));
+
+        Map<TypeIdDto, List<TypeAttribute>> typeAttributes = rows(document, "type_attributes")
+                .stream()
+                .collect(Collectors.groupingBy(r -> new TypeIdDto(r.get("owner"), r.get("type_name")),
+                                               LinkedHashMap::new,
+                                               Collectors.mapping(r -> new TypeAttribute(r.get("attr_name"),
+                                                                                         r.get("attr_type_name"),
+                                                                                         r.getInteger("attr_no"),
+                                                                                         r.getInteger("scale") == null ? -1 : r.getInteger("scale"),
+                                                                                         r.getInteger("multi_type"),
+                                                                                         r.get("typecode"),
+                                                                                         r.get("elem_type_name"),
+                                                                                         r.get("attr_type_owner")),
+                                                                  Collectors.toList())));
+
+        List<TypeIdDto> types = rows(document, "types").stream().map(r -> new TypeIdDto(r.get("owner"), r.get("type_name"))).collect(Collectors.toList());
+
+        if (Boolean.TRUE.equals(c.getReferencedTypesOnly())) {
+            List<TypeIdDto> roots = new ArrayList<>(ObjectDependencies.argumentTypeIds(procedures));
+            roots.addAll(ObjectDependencies.attributeTypeIds(embeddedTypes));
+
+            Set<TypeIdDto> referenced = getReferencedTypes(roots, typeAttributes);
+            types = types.stream()
+                         .filter(referenced::contains)
+                         .sorted(Comparator.comparing(TypeIdDto::getOwner).thenComparing(TypeIdDto::getTypeName))
+                         .collect(Collectors.toList());
+            typeAttributes.keySet().retainAll(referenced);
+        }
+
+        types = new ArrayList<>(types);
+        types.addAll(embeddedTypes.keySet());
+        typeAttributes.putAll(embeddedTypes);
+
+        return new SchemaModel(types, typeAttributes, packages, objectStatus);
+    }
+
+    private static List<OraclePackage> toPackages(Map<String, List<JsonRow>> document) {
+        Map<String, Map<String, List<ProcedureArgument>>> argumentsByOwner = new HashMap<>();
+        for (JsonRow r : rows(document, "arguments")) {
+            argumentsByOwner.computeIfAbsent(r.get("owner"), owner -> new HashMap<>())
+                            .computeIfAbsent(ProcedureDao.argumentKey(r.get("package_name"), r.get("object_name"), r.get("overload")),
+                                             key -> new ArrayList<>())
+                            .add(new ProcedureArgument(r.get("argument_name"),
+                                                       r.get("data_type"),
+                                                       r.get("type_name"),
+                                                       r.get("in_out").contains("IN"),
+                                                       r.get("in_out").contains("OUT"),
+                                                       r.get("orig_type_name"),
+                                                       r.get("type_owner")));
+        }
+
+        Map<String, List<ProcedureDao.ProcedureRow>> rowsByPackage = new HashMap<>();
+        for (JsonRow r : rows(document, "procedures")) {
+            String owner       = r.get("owner");
+            String packageName = r.get("package_name");
+            boolean function = argumentsByOwner.getOrDefault(owner, Collections.emptyMap())
+                                               .getOrDefault(ProcedureDao.argumentKey(packageName, r.get("object_name"), r.get("overload")),
+                                                             Collections.emptyList())
+                                               .stream()
+                                               .anyMatch(a -> a.getArgumentName() == null);
+
+            rowsByPackage.computeIfAbsent(owner + "." + (packageName == null ? "" : packageName), key -> new ArrayList<>())
+                         .add(new ProcedureDao.ProcedureRow(owner, packageName == null ? "" : packageName, r.get("object_name"),
+                                                            r.get("overload"), function ? 1 : 0));
+        }
+
+        List<OraclePackage> ret = new ArrayList<>();
+        for (JsonRow r : rows(document, "packages")) {
+            OraclePackage p = new OraclePackage();
+            p.setOwner(r.get("owner"));
+            p.setName(r.get("object_name"));
+            p.setProcedureList(ProcedureDao.assemble(rowsByPackage.getOrDefault(p.getOwner() + "." + p.getName(), Collections.emptyList()),
+                                                     argumentsByOwner));
+            ret.add(p);
+        }
+
+        List<ProcedureDao.ProcedureRow> standalone = rowsByPackage.entrySet()
+                                                                  .stream()
+                                                                  .filter(e -> e.getKey().endsWith("."))
+                                                                  .flatMap(e -> e.getValue().stream())
+                                                                  .collect(Collectors.toList());
+        if (!standalone.isEmpty()) {
+            OraclePackage p = new OraclePackage();
+            p.setName("PROCEDURES_AND_FUNCTIONS");
+            p.setProcedureList(ProcedureDao.assemble(standalone, argumentsByOwner));
+            ret.add(p);
+        }
+
+        return ret;
+    }
+
+    private static Set<TypeIdDto> getReferencedTypes(List<TypeIdDto> roots, Map<TypeIdDto, List<TypeAttribute>> typeAttributes) {
+        Set<TypeIdDto>  ret   = new HashSet<>();
+        List<TypeIdDto> level = roots;
+
+        while (!level.isEmpty()) {
+            ret.addAll(level);
+
+            Map<TypeIdDto, List<TypeAttribute>> levelAttributes = new HashMap<>();
+            level.stream().filter(typeAttributes::containsKey).forEach(t -> levelAttributes.put(t, typeAttributes.get(t)));
+
+            level = ObjectDependencies.attributeTypeIds(levelAttributes).stream().filter(t -> !ret.contains(t)).collect(Collectors.toList());
+        }
+
+        return ret;
+    }
+
+    private static List<JsonRow> rows(Map<String, List<JsonRow>> document, String name) {
+        return document.getOrDefault(name, Collections.emptyList());
+    }
+
+    /**
+     * One object of a document array, every value kept as text.
+     */
+    static final class JsonRow {
+        private final Map<String, String> values;
+
+        private JsonRow(Map<String, String> values) {
+            this.values = values;
+        }
+
+        String get(String name) {
+            return values.get(name);
+        }
+
+        Integer getInteger(String name) {
+            String value = values.get(name);
+            return value == null ? null : Integer.valueOf(value);
+        }
+
+        long getLong(String name) {
+            return Long.parseLong(values.get(name));
+        }
+    }
+}
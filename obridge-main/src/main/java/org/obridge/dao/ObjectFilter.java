@@ -0,0 +1,118 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Ferenc Karsany
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+
+
+package org.obridge.dao;
+
+import org.obridge.context.DbObject;
+import org.obridge.util.OBridgeException;
+import org.obridge.util.jdbc.SqlArray;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Turns the configured {@link DbObject} list into a dictionary query predicate with bind variables. The exactly named
+ * objects are bound as collections, every pattern adds one small predicate, so the statement text does not grow with
+ * the number of listed objects. Without included objects the objects of the connected user are selected.
+ * <p>
+ * Like patterns use the backslash as escape character, so {@code HR\_%} matches the names starting with {@code HR_}.
+ */
+public final class ObjectFilter {
+
+    private final List<DbObject> included;
+    private final List<DbObject> excluded;
+
+    public ObjectFilter(List<DbObject> dbObjects) {
+        List<DbObject> objects = dbObjects == null ? Collections.emptyList() : dbObjects;
+
+        objects.stream()
+               .filter(o -> !DbObject.MATCH_EXACT.equals(o.getMatch()) && !DbObject.MATCH_LIKE.equals(o.getMatch())
+                       && !DbObject.MATCH_REGEX.equals(o.getMatch()))
+               .findFirst()
+               .ifPresent(o -> {
+                   throw new OBridgeException("Unknown dbObject match '" + o.getMatch() + "' for " + o.toConcatenated()
+                                                      + ", use exact, like or regex");
+               });
+
+        this.included = objects.stream().filter(o -> !o.isExclude()).collect(Collectors.toList());
+        this.excluded = objects.stream().filter(DbObject::isExclude).collect(Collectors.toList());
+    }
+
+    /**
+     * The owners of the included objects, empty when the objects of the connected user are selected.
+     */
+    public List<String> getOwners() {
+        return included.stream().map(DbObject::getOwner).distinct().collect(Collectors.toList());
+    }
+
+    /**
+     * The predicate on the given owner and object name columns, its bind values are appended to args in order.
+     */
+    public String toPredicate(String ownerColumn, String nameColumn, List<Object> args) {
+        String predicate = included.isEmpty() ? ownerColumn + " = user" : matchAny(included, ownerColumn, nameColumn, args);
+
+        if (!excluded.isEmpty()) {
+            predicate += " And Not " + matchAny(excluded, ownerColumn, nameColumn, args);
+        }
+
+        return predicate;
+    }
+
+    private static String matchAny(List<DbObject> objects, String ownerColumn, String nameColumn, List<Object> args) {
+        List<String> predicates = new ArrayList<>();
+
+        List<DbObject> exact = objects.stream()
+                                      .filter(o -> o.getName() != null && DbObject.MATCH_EXACT.equals(o.getMatch()))
+                                      .collect(Collectors.toList());
+        if (!exact.isEmpty()) {
+            // the owner and name lists can use the dictionary indexes, the pairs keep the match exact
+            predicates.add("(" + ownerColumn + " In (Select column_value From Table(?))"
+                                   + " And " + nameColumn + " In (Select column_value From Table(?))"
+                                   + " And " + ownerColumn + " || '.' || " + nameColumn + " In (Select column_value From Table(?)))");
+            args.add(SqlArray.varchar2List(exact.stream().map(DbObject::getOwner).distinct().collect(Collectors.toList())));
+            args.add(SqlArray.varchar2List(exact.stream().map(DbObject::getName).distinct().collect(Collectors.toList())));
+            args.add(SqlArray.varchar2List(exact.stream().map(DbObject::toConcatenated).distinct().collect(Collectors.toList())));
+        }
+
+        for (DbObject o : objects) {
+            if (o.getName() == null) {
+                predicates.add(ownerColumn + " = ?");
+                args.add(o.getOwner());
+            } else if (DbObject.MATCH_LIKE.equals(o.getMatch())) {
+                predicates.add("(" + ownerColumn + " = ? And " + nameColumn + " Like ? Escape '\\')");
+                args.add(o.getOwner());
+                args.add(o.getName());
+            } else if (DbObject.MATCH_REGEX.equals(o.getMatch())) {
+                predicates.add("(" + ownerColumn + " = ? And regexp_like(" + nameColumn + ", ?))");
+                args.add(o.getOwner());
+                args.add(o.getName());
+            }
+        }
+
+        return "(" + String.join(" Or ", predicates) + ")";
+    }
+}
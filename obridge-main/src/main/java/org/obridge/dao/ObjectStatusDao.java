@@ -0,0 +1,85 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Ferenc Karsany
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+
+package org.obridge.dao;
+
+import org.obridge.context.DbObject;
+import org.obridge.context.OBridgeConfiguration;
+import org.obridge.model.dto.ObjectStatusDto;
+import org.obridge.util.ResourceUtils;
+import org.obridge.util.jdbc.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Reads the last DDL time and the status of the packages, standalone procedures and types of the selected owners with
+ * one query. This is the cheap check that decides whether cached metadata is still up to date.
+ */
+public class ObjectStatusDao {
+
+    private JdbcTemplate jdbcTemplate;
+
+    public ObjectStatusDao(DataSource dataSource) {
+        this(new JdbcTemplate(dataSource));
+    }
+
+    public ObjectStatusDao(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Object status of the selected owners, or an empty map if neither the metadata cache nor incremental generation is
+     * enabled.
+     */
+    public Map<String, ObjectStatusDto> getObjectStatus(OBridgeConfiguration c) {
+        if (!Boolean.TRUE.equals(c.getUseMetadataCache()) && !Boolean.TRUE.equals(c.getIncremental())) {
+            return Collections.emptyMap();
+        }
+        return getObjectStatus(c.getDbObjects());
+    }
+
+    public Map<String, ObjectStatusDto> getObjectStatus(List<DbObject> dbObjects) {
+        String   qry    = ResourceUtils.load("queries/GET_OBJECT_STATUS.sql");
+        Object[] owners = new ObjectFilter(dbObjects).getOwners().toArray();
+
+        if (owners.length > 0) {
+            qry += " and owner in (" + String.join(", ", Collections.nCopies(owners.length, "?")) + ")";
+        } else {
+            qry += " and owner = user";
+        }
+
+        return jdbcTemplate.query("GET_OBJECT_STATUS", qry, owners, (resultSet, i) -> new ObjectStatusDto(resultSet.getString("owner"),
+                                                                                                      resultSet.getString("object_name"),
+                                                                                                      resultSet.getString("object_type"),
+                                                                                                      resultSet.getString("last_ddl_time"),
+                                                                                                      resultSet.getString("status")))
+                           .stream()
+                           .collect(Collectors.toMap(ObjectStatusDto::getKey, Function.identity()));
+    }
+}
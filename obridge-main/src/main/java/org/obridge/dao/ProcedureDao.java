@@ -24,114 +24,298 @@
 
 package org.obridge.dao;
 
+import lombok.extern.log4j.Log4j2;
+import org.obridge.cache.MetadataCache;
+import org.obridge.cache.ObjectDependencies;
 import org.obridge.context.DbObject;
 import org.obridge.model.data.OraclePackage;
 import org.obridge.model.data.Procedure;
 import org.obridge.model.data.ProcedureArgument;
+import org.obridge.model.dto.ObjectStatusDto;
+import org.obridge.util.BoundedExecutor;
 import org.obridge.util.ResourceUtils;
 import org.obridge.util.jdbc.JdbcTemplate;
+import org.obridge.util.jdbc.SqlArray;
 
 import javax.sql.DataSource;
+import java.util.AbstractMap;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 /**
  * User: fkarsany Date: 2013.11.18.
  */
+@Log4j2
 public class ProcedureDao {
 
-    private static final String GET_PROCEDURE_ARGUMENTS = "  select argument_name," + "data_type," + "nvl( (select " + "max" +
-            "(elem_type_name) " + "from all_coll_types w where owner = ? " + "and w" + ".TYPE_NAME = p.type_name) , p.type_name || case " + "when p.type_subname is not null " + "then '_' || p" + ".type_subname end)" + " type_name," + "defaulted," + "in_out," + "rownum " + "sequen, p.type_name orig_type_name " + "from (Select " + "argument_name, data_type, type_name, type_subname, defaulted, " + "in_out\n" + "        From all_arguments t\n" + " " + "      Where owner = ? and nvl(t.package_name, '###') = nvl((?), '###')" + "\n" + "         And t.object_name = (?)\n" + "        " + " And nvl(t.overload, '###') = nvl(?, '###')\n" + "         And t" + ".data_level = 0\n" + "         And not" + "(pls_type is null and " + "argument_name is null and data_type is null)" + "     " + "  Order By t.sequence) p\n";
-
-    private JdbcTemplate jdbcTemplate;
+    private JdbcTemplate  jdbcTemplate;
+    private int           extractionThreads;
+    private MetadataCache metadataCache;
 
     public ProcedureDao(DataSource dataSource) {
-        jdbcTemplate = new JdbcTemplate(dataSource);
+        this(dataSource, 1);
+    }
+
+    public ProcedureDao(DataSource dataSource, int extractionThreads) {
+        this(new JdbcTemplate(dataSource), extractionThreads, MetadataCache.disabled());
+    }
+
+    public ProcedureDao(JdbcTemplate jdbcTemplate, int extractionThreads, MetadataCache metadataCache) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.extractionThreads = extractionThreads;
+        this.metadataCache = metadataCache;
     }
 
     public List<Procedure> getAllSimpleFunctionAndProcedure(List<DbObject> objs) {
+        return getAllSimpleFunctionAndProcedure(objs, new HashMap<>());
+    }
 
-        String qry = ResourceUtils.load("queries/GET_ALL_PROCEDURES_OUTSIDE_PACKAGE.sql");
+    private List<Procedure> getAllSimpleFunctionAndProcedure(List<DbObject> objs,
+                                                             Map<String, Map<String, List<ProcedureArgument>>> argumentsByOwner) {
 
-        if (objs != null && objs.size() > 0) {
-            String s = objs.stream().map(dbObject -> dbObject.toSQL()).collect(Collectors.joining(" UNION ALL "));
-            qry += " AND (owner, object_name) IN (" + s + ")";
-        } else {
-            qry += " and owner = user";
+        List<Object> args = new ArrayList<>();
+        String       qry  = ResourceUtils.load("queries/GET_ALL_PROCEDURES_OUTSIDE_PACKAGE.sql") +
+                " And " + new ObjectFilter(objs).toPredicate("owner", "object_name", args);
+
+        List<ProcedureRow> rows = jdbcTemplate.query("GET_ALL_PROCEDURES_OUTSIDE_PACKAGE", qry, args.toArray(),
+                                                     (resultSet, i) -> new ProcedureRow(resultSet.getString("owner"),
+                                                                                        "",
+                                                                                        resultSet.getString("object_name"),
+                                                                                        resultSet.getString("overload"),
+                                                                                        resultSet.getInt("proc_or_func")));
+
+        List<Procedure> ret = new ArrayList<>(rows.size());
+
+        for (ProcedureRow row : rows) {
+            String    key       = ObjectStatusDto.key(row.getMethodType(), row.owner, row.procedureName);
+            Procedure procedure = metadataCache.get(key);
+
+            if (procedure == null) {
+                argumentsByOwner.computeIfAbsent(row.owner, this::getStandaloneArguments);
+                procedure = assemble(Collections.singletonList(row), argumentsByOwner).get(0);
+                metadataCache.put(key, procedure, ObjectDependencies.argumentTypes(Collections.singletonList(procedure)));
+            }
+
+            ret.add(procedure);
         }
 
-        return jdbcTemplate.query(qry, (resultSet, i) -> new Procedure.Builder()
-                .objectName("")
-                .owner(resultSet.getString("owner"))
-                .procedureName(resultSet.getString("object_name"))
-                .overload(resultSet.getString("overload") == null ? "" : resultSet.getString("overload"))
-                .methodType(resultSet.getInt("proc_or_func") == 0 ? "PROCEDURE" : "FUNCTION")
-                .argumentList(getProcedureArguments("", resultSet.getString("object_name"), resultSet.getString("overload"),
-                                                    resultSet.getString("owner")))
-                .build());
+        return ret;
 
     }
 
     public List<Procedure> getAllProcedure(String owner, String packageName) {
+        return getAllProcedure(owner, packageName, getPackageArguments(owner, packageName));
+    }
 
-        return jdbcTemplate.query(ResourceUtils.load("queries/GET_ALL_PROCEDURES_IN_PACKAGE.sql"), (resultSet, i) -> new Procedure.Builder()
-                .owner(resultSet.getString("owner"))
-                .objectName(resultSet.getString("object_name"))
-                .procedureName(resultSet.getString("procedure_name"))
-                .overload(resultSet.getString("overload") == null ? "" : resultSet.getString("overload"))
-                .methodType(resultSet.getInt("proc_or_func") == 0 ? "PROCEDURE" : "FUNCTION")
-                .argumentList(getProcedureArguments(resultSet.getString("object_name"), resultSet.getString("procedure_name"),
-                                                    resultSet.getString("overload"), owner))
-                .build(), owner, packageName);
+    private List<Procedure> getAllProcedure(String owner, String packageName, Map<String, List<ProcedureArgument>> arguments) {
+
+        List<ProcedureRow> rows = jdbcTemplate.query("GET_ALL_PROCEDURES_IN_PACKAGE", ResourceUtils.load("queries/GET_ALL_PROCEDURES_IN_PACKAGE.sql"),
+                                                     new Object[]{owner, packageName},
+                                                     (resultSet, i) -> new ProcedureRow(resultSet.getString("owner"),
+                                                                                        resultSet.getString("object_name"),
+                                                                                        resultSet.getString("procedure_name"),
+                                                                                        resultSet.getString("overload"),
+                                                                                        resultSet.getInt("proc_or_func")));
+
+        return assemble(rows, Collections.singletonMap(owner, arguments));
+
+    }
 
+    /**
+     * Every top level argument of an owner, of its packages and of its standalone procedures and functions.
+     */
+    private Map<String, List<ProcedureArgument>> getOwnerArguments(String owner) {
+        return getArguments("GET_ALL_PROCEDURE_ARGUMENTS", "t.owner = ?", owner);
     }
 
-    public List<ProcedureArgument> getProcedureArguments(String packageName, String procedureName, String overLoadNo, String owner) {
-        return jdbcTemplate.query(GET_PROCEDURE_ARGUMENTS, new Object[]{owner, owner, packageName, procedureName, overLoadNo},
-                                  (resultSet, i) -> new ProcedureArgument(resultSet.getString("argument_name"),
-                                                                          resultSet.getString("data_type"),
-                                                                          resultSet.getString("type_name"),
-                                                                          resultSet.getString("in_out").contains("IN"),
-                                                                          resultSet.getString("in_out").contains("OUT"),
-                                                                          resultSet.getString("orig_type_name")));
+    private Map<String, List<ProcedureArgument>> getPackageArguments(String owner, String packageName) {
+        return getArguments("GET_PACKAGE_PROCEDURE_ARGUMENTS", "t.owner = ? And t.package_name = ?", owner, packageName);
+    }
+
+    private Map<String, List<ProcedureArgument>> getPackageArguments(String owner, List<String> packageNames) {
+        return getArguments("GET_PACKAGES_PROCEDURE_ARGUMENTS", "t.owner = ? And t.package_name In (Select column_value From Table(?))",
+                            owner, SqlArray.varchar2List(packageNames));
+    }
+
+    private Map<String, List<ProcedureArgument>> getStandaloneArguments(String owner) {
+        return getArguments("GET_STANDALONE_PROCEDURE_ARGUMENTS", "t.owner = ? And t.package_name Is Null", owner);
+    }
+
+    /**
+     * Loads the top level arguments matching the predicate with a single query, grouped by package, object and overload
+     * in the original argument order.
+     */
+    private Map<String, List<ProcedureArgument>> getArguments(String queryName, String predicate, Object... args) {
+
+        String qry = ResourceUtils.load("queries/GET_ALL_PROCEDURE_ARGUMENTS.sql") +
+                " And " + predicate + " Order By t.package_name, t.object_name, t.overload, t.sequence";
+
+        List<Map.Entry<String, ProcedureArgument>> arguments = jdbcTemplate.query(
+                queryName, qry, args,
+                (resultSet, i) -> new AbstractMap.SimpleImmutableEntry<>(argumentKey(resultSet.getString("package_name"),
+                                                                                     resultSet.getString("object_name"),
+                                                                                     resultSet.getString("overload")),
+                                                                         new ProcedureArgument(resultSet.getString("argument_name"),
+                                                                                               resultSet.getString("data_type"),
+                                                                                               resultSet.getString("type_name"),
+                                                                                               resultSet.getString("in_out").contains("IN"),
+                                                                                               resultSet.getString("in_out").contains("OUT"),
+                                                                                               resultSet.getString("orig_type_name"),
+                                                                                               resultSet.getString("type_owner"))));
+
+        return arguments.stream()
+                        .collect(Collectors.groupingBy(Map.Entry::getKey, Collectors.mapping(Map.Entry::getValue, Collectors.toList())));
+    }
+
+    static List<Procedure> assemble(List<ProcedureRow> rows, Map<String, Map<String, List<ProcedureArgument>>> argumentsByOwner) {
+        List<Procedure> ret = new ArrayList<>(rows.size());
+
+        for (ProcedureRow row : rows) {
+            List<ProcedureArgument> arguments = argumentsByOwner.get(row.owner)
+                                                                .getOrDefault(argumentKey(row.packageName, row.procedureName, row.overload),
+                                                                              new ArrayList<>());
+
+            ret.add(new Procedure.Builder()
+                            .owner(row.owner)
+                            .objectName(row.packageName)
+                            .procedureName(row.procedureName)
+                            .overload(row.overload == null ? "" : row.overload)
+                            .methodType(row.getMethodType())
+                            .argumentList(arguments)
+                            .build());
+        }
+
+        return ret;
+    }
 
+    static String argumentKey(String packageName, String procedureName, String overload) {
+        return (packageName == null ? "" : packageName) + "." + procedureName + "." + (overload == null ? "" : overload);
     }
 
-    private OraclePackage getAllStandaloneProcedureAndFunction(List<DbObject> objects) {
+    private OraclePackage getAllStandaloneProcedureAndFunction(List<DbObject> objects,
+                                                               Map<String, Map<String, List<ProcedureArgument>>> argumentsByOwner) {
         OraclePackage oraclePackage = new OraclePackage();
         oraclePackage.setName("PROCEDURES_AND_FUNCTIONS");
-        oraclePackage.setProcedureList(getAllSimpleFunctionAndProcedure(objects));
+        oraclePackage.setProcedureList(getAllSimpleFunctionAndProcedure(objects, argumentsByOwner));
         return oraclePackage;
     }
 
     public List<OraclePackage> getAllPackages(List<DbObject> objs) {
 
-        String qry = ResourceUtils.load("queries/GET_ALL_PACKAGES.sql");
+        List<OraclePackage> realPackages = getPackageList(objs);
 
-        if (objs != null && objs.size() > 0) {
-            String s = objs.stream().map(dbObject -> dbObject.toSQL()).collect(Collectors.joining(" UNION ALL "));
-            qry += " AND (owner, object_name) IN (" + s + ")";
+        List<OraclePackage>       changedPackages        = new ArrayList<>();
+        Map<String, List<String>> changedPackagesByOwner = new TreeMap<>();
+        Set<String>               partiallyCachedOwners  = new HashSet<>();
+        for (OraclePackage p : realPackages) {
+            List<Procedure> cached = metadataCache.get(ObjectStatusDto.key("PACKAGE", p.getOwner(), p.getName()));
+            if (cached != null) {
+                p.setProcedureList(cached);
+                partiallyCachedOwners.add(p.getOwner());
+            } else {
+                changedPackages.add(p);
+                changedPackagesByOwner.computeIfAbsent(p.getOwner(), owner -> new ArrayList<>()).add(p.getName());
+            }
+        }
+
+        // the arguments of every package of an owner, reused for its standalone procedures
+        Map<String, Map<String, List<ProcedureArgument>>> argumentsByOwner = new HashMap<>();
+        Map<String, Map<String, List<ProcedureArgument>>> packageArguments = new HashMap<>();
+
+        try (BoundedExecutor executor = new BoundedExecutor("obridge-procedure-dao", extractionThreads, jdbcTemplate::release)) {
+            List<String> owners = new ArrayList<>(changedPackagesByOwner.keySet());
+
+            // one statement per owner: for every package of the owner, or only for its changed ones when the others are cached
+            List<Map<String, List<ProcedureArgument>>> arguments = executor.map(owners, owner -> partiallyCachedOwners.contains(owner)
+                                                                                                 ? getPackageArguments(owner, changedPackagesByOwner.get(owner))
+                                                                                                 : getOwnerArguments(owner));
+            for (int i = 0; i < owners.size(); i++) {
+                packageArguments.put(owners.get(i), arguments.get(i));
+                if (!partiallyCachedOwners.contains(owners.get(i))) {
+                    argumentsByOwner.put(owners.get(i), arguments.get(i));
+                }
+            }
+
+            List<List<Procedure>> procedures = executor.map(changedPackages, p -> getAllProcedure(p.getOwner(), p.getName(),
+                                                                                                   packageArguments.get(p.getOwner())));
+            for (int i = 0; i < changedPackages.size(); i++) {
+                OraclePackage p = changedPackages.get(i);
+                p.setProcedureList(procedures.get(i));
+                metadataCache.put(ObjectStatusDto.key("PACKAGE", p.getOwner(), p.getName()), p.getProcedureList(),
+                                  ObjectDependencies.argumentTypes(p.getProcedureList()));
+            }
+        }
+
+        OraclePackage standalone = getAllStandaloneProcedureAndFunction(objs, argumentsByOwner);
+        if (standalone.getProcedureList().size() > 0) {
+            realPackages.add(standalone);
+        }
+
+        return realPackages;
+    }
+
+    /**
+     * Extracts the packages one at a time and hands each one to the consumer before the next ones are read, the
+     * standalone procedures and functions last. Unlike {@link #getAllPackages(List)} the arguments are read per package,
+     * so at most one package per extraction thread is held in memory (plus the metadata cache, if it is enabled).
+     */
+    public void forEachPackage(List<DbObject> objs, Consumer<OraclePackage> consumer) {
+
+        List<OraclePackage> packages = getPackageList(objs);
+
+        try (BoundedExecutor executor = new BoundedExecutor("obridge-procedure-dao", extractionThreads, jdbcTemplate::release)) {
+            for (int from = 0; from < packages.size(); from += extractionThreads) {
+                List<OraclePackage> window = executor.map(packages.subList(from, Math.min(from + extractionThreads, packages.size())),
+                                                          this::getPackage);
+                for (OraclePackage p : window) {
+                    consumer.accept(p);
+                    p.setProcedureList(null);
+                }
+            }
+        }
+
+        OraclePackage standalone = getAllStandaloneProcedureAndFunction(objs, new HashMap<>());
+        if (standalone.getProcedureList().size() > 0) {
+            consumer.accept(standalone);
+        }
+    }
+
+    private OraclePackage getPackage(OraclePackage p) {
+        String          key    = ObjectStatusDto.key("PACKAGE", p.getOwner(), p.getName());
+        List<Procedure> cached = metadataCache.get(key);
+
+        if (cached != null) {
+            p.setProcedureList(cached);
         } else {
-            qry += " and owner = user";
+            p.setProcedureList(getAllProcedure(p.getOwner(), p.getName()));
+            metadataCache.put(key, p.getProcedureList(), ObjectDependencies.argumentTypes(p.getProcedureList()));
         }
 
-        System.out.println(qry);
+        return p;
+    }
+
+    private List<OraclePackage> getPackageList(List<DbObject> objs) {
 
-        List<OraclePackage> realPackages = jdbcTemplate.query(qry, (resultSet, i) -> {
+        List<Object> args = new ArrayList<>();
+        String       qry  = ResourceUtils.load("queries/GET_ALL_PACKAGES.sql") +
+                " And " + new ObjectFilter(objs).toPredicate("owner", "object_name", args);
+
+        log.debug(qry);
+
+        return jdbcTemplate.query("GET_ALL_PACKAGES", qry, args.toArray(), (resultSet, i) -> {
             OraclePackage p = new OraclePackage();
             p.setOwner(resultSet.getString("owner"));
             p.setName(resultSet.getString("object_name"));
-            p.setProcedureList(getAllProcedure(resultSet.getString("owner"), resultSet.getString("object_name")));
             return p;
         });
-
-        OraclePackage aaa = getAllStandaloneProcedureAndFunction(objs);
-        if (aaa.getProcedureList().size() > 0) {
-            realPackages.add(aaa);
-        }
-
-        return realPackages;
     }
 
     public List<Procedure> getAllProcedure(List<DbObject> dbObjects) {
@@ -145,4 +329,24 @@ public class ProcedureDao {
 
         return ret;
     }
+
+    static final class ProcedureRow {
+        private final String owner;
+        private final String packageName;
+        private final String procedureName;
+        private final String overload;
+        private final int    procOrFunc;
+
+        ProcedureRow(String owner, String packageName, String procedureName, String overload, int procOrFunc) {
+            this.owner = owner;
+            this.packageName = packageName;
+            this.procedureName = procedureName;
+            this.overload = overload;
+            this.procOrFunc = procOrFunc;
+        }
+
+        private String getMethodType() {
+            return procOrFunc == 0 ? "PROCEDURE" : "FUNCTION";
+        }
+    }
 }
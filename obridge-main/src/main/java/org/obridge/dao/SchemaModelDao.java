@@ -0,0 +1,217 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Ferenc Karsany
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+
+package org.obridge.dao;
+
+import org.obridge.cache.MetadataCache;
+import org.obridge.cache.ObjectDependencies;
+import org.obridge.context.OBridgeConfiguration;
+import org.obridge.model.data.OraclePackage;
+import org.obridge.model.data.SchemaModel;
+import org.obridge.model.data.TypeAttribute;
+import org.obridge.model.dto.ObjectStatusDto;
+import org.obridge.model.dto.TypeIdDto;
+import org.obridge.util.OBridgeException;
+import org.obridge.util.Profiler;
+import org.obridge.util.jdbc.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Extracts the complete {@link SchemaModel} of the configured objects.
+ */
+public class SchemaModelDao {
+
+    private DataSource dataSource;
+    private int        extractionThreads;
+
+    public SchemaModelDao(DataSource dataSource, int extractionThreads) {
+        this.dataSource = dataSource;
+        this.extractionThreads = extractionThreads;
+    }
+
+    /**
+     * Extracts the complete model, including the object status even if neither the metadata cache nor incremental
+     * generation is enabled, so a snapshot of it can be used for incremental generation later.
+     */
+    public SchemaModel getSchemaModel(OBridgeConfiguration c) {
+        return extract(c, true, true, true);
+    }
+
+    /**
+     * Extracts everything the generators need at once: the types, the packages and the object status for the metadata
+     * cache and incremental generation.
+     */
+    public SchemaModel getGenerationModel(OBridgeConfiguration c) {
+        return extract(c, true, true, false);
+    }
+
+    /**
+     * Extracts the object types and their attributes only, including the record types declared in the selected
+     * packages. With referencedTypesOnly the packages are read as well, to follow the types their procedures refer to.
+     */
+    public SchemaModel getTypeModel(OBridgeConfiguration c) {
+        return extract(c, true, false, false);
+    }
+
+    /**
+     * Extracts the packages and standalone procedures. Type attributes are extracted only for incremental generation,
+     * which follows the types referenced by the procedures.
+     */
+    public SchemaModel getPackageModel(OBridgeConfiguration c) {
+        return extract(c, Boolean.TRUE.equals(c.getIncremental()), true, false);
+    }
+
+    /**
+     * Extracts the types referenced by the given types (transitively) and the record types declared in the selected
+     * packages, without reading the packages again. This completes a streaming generation with referencedTypesOnly.
+     */
+    public SchemaModel getTypeModel(OBridgeConfiguration c, List<TypeIdDto> referencedTypes) {
+        return extract(c, true, false, false, referencedTypes);
+    }
+
+    /**
+     * The object status used by the metadata cache and by incremental generation, empty if neither is enabled.
+     */
+    public Map<String, ObjectStatusDto> getObjectStatus(OBridgeConfiguration c) {
+        return Profiler.measure(Profiler.Phase.EXTRACTION, () -> {
+            try (JdbcTemplate session = JdbcTemplate.session(dataSource, c.getFetchSize())) {
+                return new ObjectStatusDao(session).getObjectStatus(c);
+            }
+        });
+    }
+
+    /**
+     * Extracts the packages (and the standalone procedures) one at a time and hands each one to the consumer before
+     * the next ones are read, and returns the types their procedures refer to directly. The json extraction strategy
+     * reads the whole model at once, its packages are handed over one by one.
+     */
+    public List<TypeIdDto> forEachPackage(OBridgeConfiguration c, Map<String, ObjectStatusDto> objectStatus, Consumer<OraclePackage> consumer) {
+        Set<TypeIdDto> referencedTypes = new LinkedHashSet<>();
+        Consumer<OraclePackage> collecting = p -> {
+            referencedTypes.addAll(ObjectDependencies.argumentTypeIds(p.getProcedureList()));
+            consumer.accept(p);
+        };
+
+        if (OBridgeConfiguration.EXTRACTION_JSON.equals(c.getExtractionStrategy())) {
+            extract(c, false, true, false, null).getPackages().forEach(collecting);
+            return new ArrayList<>(referencedTypes);
+        }
+
+        // the consumer runs inside, its own phases are not counted as extraction
+        Profiler.measure(Profiler.Phase.EXTRACTION, () -> {
+            try (JdbcTemplate session = JdbcTemplate.session(dataSource, c.getFetchSize())) {
+                MetadataCache metadataCache = MetadataCache.open(c, objectStatus);
+                new ProcedureDao(session, extractionThreads, metadataCache).forEachPackage(c.getDbObjects(), collecting);
+                metadataCache.save();
+            }
+            return null;
+        });
+
+        return new ArrayList<>(referencedTypes);
+    }
+
+    private SchemaModel extract(OBridgeConfiguration c, boolean types, boolean packages, boolean objectStatus) {
+        return extract(c, types, packages, objectStatus, null);
+    }
+
+    /**
+     * Extracts in one database session, with one pinned connection per extraction thread. The json extraction strategy
+     * reads the whole model with one statement, without the metadata cache.
+     */
+    private SchemaModel extract(OBridgeConfiguration c, boolean types, boolean packages, boolean objectStatus, List<TypeIdDto> referencedTypeIds) {
+        if (!OBridgeConfiguration.EXTRACTION_DICTIONARY.equals(c.getExtractionStrategy())
+                && !OBridgeConfiguration.EXTRACTION_JSON.equals(c.getExtractionStrategy())) {
+            throw new OBridgeException("Unknown extractionStrategy '" + c.getExtractionStrategy() + "', use dictionary or json");
+        }
+
+        return Profiler.measure(Profiler.Phase.EXTRACTION, () -> read(c, types, packages, objectStatus, referencedTypeIds));
+    }
+
+    private SchemaModel read(OBridgeConfiguration c, boolean types, boolean packages, boolean objectStatus, List<TypeIdDto> referencedTypeIds) {
+        try (JdbcTemplate session = JdbcTemplate.session(dataSource, c.getFetchSize())) {
+            if (OBridgeConfiguration.EXTRACTION_JSON.equals(c.getExtractionStrategy())) {
+                SchemaModel model = new JsonSchemaModelDao(session).getSchemaModel(c);
+                return new SchemaModel(types ? model.getTypes() : Collections.emptyList(),
+                                       types ? model.getTypeAttributes() : Collections.emptyMap(),
+                                       packages ? model.getPackages() : Collections.emptyList(),
+                                       model.getObjectStatus());
+            }
+
+            ObjectStatusDao              objectStatusDao = new ObjectStatusDao(session);
+            Map<String, ObjectStatusDto> status          = objectStatus ? objectStatusDao.getObjectStatus(c.getDbObjects())
+                                                                        : objectStatusDao.getObjectStatus(c);
+            MetadataCache                metadataCache   = MetadataCache.open(c, status);
+            TypeDao                      typeDao         = new TypeDao(session, extractionThreads, metadataCache);
+            boolean                      referencedTypes = types && Boolean.TRUE.equals(c.getReferencedTypesOnly());
+
+            List<OraclePackage> packageList = packages || referencedTypes && referencedTypeIds == null
+                                              ? new ProcedureDao(session, extractionThreads, metadataCache).getAllPackages(c.getDbObjects())
+                                              : Collections.emptyList();
+
+            List<TypeIdDto>                     typeList       = new ArrayList<>();
+            Map<TypeIdDto, List<TypeAttribute>> typeAttributes = new HashMap<>();
+            if (types) {
+                Map<TypeIdDto, List<TypeAttribute>> embeddedTypes = typeDao.getEmbeddedTypeAttributes(c.getDbObjects());
+
+                if (referencedTypes) {
+                    List<TypeIdDto> referenced = new ArrayList<>(referencedTypeIds != null
+                                                                 ? referencedTypeIds
+                                                                 : ObjectDependencies.argumentTypeIds(packageList.stream()
+                                                                                                                 .flatMap(p -> p.getProcedureList().stream())
+                                                                                                                 .collect(Collectors.toList())));
+                    referenced.addAll(ObjectDependencies.attributeTypeIds(embeddedTypes));
+
+                    typeAttributes.putAll(typeDao.getReferencedTypeAttributes(referenced));
+                    typeAttributes.keySet()
+                                  .stream()
+                                  .sorted(Comparator.comparing(TypeIdDto::getOwner).thenComparing(TypeIdDto::getTypeName))
+                                  .forEach(typeList::add);
+                } else {
+                    typeList.addAll(typeDao.getTypeList(c));
+                    typeAttributes.putAll(typeDao.getTypeAttributes(c));
+                }
+
+                typeList.addAll(embeddedTypes.keySet());
+                typeAttributes.putAll(embeddedTypes);
+            }
+
+            SchemaModel model = new SchemaModel(typeList, typeAttributes, packages ? packageList : Collections.emptyList(), status);
+
+            metadataCache.save();
+
+            return model;
+        }
+    }
+}
@@ -24,65 +24,441 @@
 
 package org.obridge.dao;
 
+import lombok.extern.log4j.Log4j2;
+import org.apache.commons.lang3.StringUtils;
+import org.obridge.cache.MetadataCache;
+import org.obridge.cache.ObjectDependencies;
+import org.obridge.context.DbObject;
 import org.obridge.context.OBridgeConfiguration;
+import org.obridge.model.data.Procedure;
 import org.obridge.model.data.TypeAttribute;
+import org.obridge.model.dto.ArgumentDto;
+import org.obridge.model.dto.CollectionTypeDto;
+import org.obridge.model.dto.ObjectStatusDto;
 import org.obridge.model.dto.TypeIdDto;
+import org.obridge.util.BoundedExecutor;
+import org.obridge.util.ResourceUtils;
+import org.obridge.util.TypeMapper;
 import org.obridge.util.jdbc.JdbcTemplate;
+import org.obridge.util.jdbc.SqlArray;
 
 import javax.sql.DataSource;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
 
 /**
  * User: fkarsany
  * Date: 2013.11.14.
  */
+@Log4j2
 public class TypeDao {
 
     private static final String GET_TYPE_ATTRIBUTES = "Select attr_name,\n" +//
             "       attr_type_name,\n" + //
+            "       attr_type_owner,\n" + //
             "       attr_no,\n" +//
-     "       nvl(nvl(scale, (Select scale From all_coll_types t Where t.type_name = aa.attr_type_name and t.owner=aa.owner)), -1) data_scale,\n" +//
+     "       nvl(nvl(scale, (Select scale From all_coll_types t Where t.type_name = aa.attr_type_name and t.owner=nvl(aa.attr_type_owner, aa.owner))), -1) data_scale,\n" +//
             "       Case\n" + "         When attr_type_owner Is Not Null Then\n" +
             "          1\n" +
             "         Else\n" +
             "          0\n" +
-            "       End multi_type,\n" + "       bb.typecode,\n" + "       (Select elem_type_name From all_coll_types t Where t.type_name = aa.attr_type_name and t.owner=aa.owner) collection_base_type\n" + "  From all_type_attrs aa, all_types bb\n" + " Where upper(aa.type_name) = ?\n" + " and aa.owner = bb.owner(+) and aa.owner = ?\n" + "   And aa.attr_type_name = bb.type_name(+)\n" + " Order By attr_no Asc";
+            "       End multi_type,\n" + "       bb.typecode,\n" + "       (Select elem_type_name From all_coll_types t Where t.type_name = aa.attr_type_name and t.owner=nvl(aa.attr_type_owner, aa.owner)) collection_base_type\n" + "  From all_type_attrs aa, all_types bb\n" + " Where upper(aa.type_name) = ?\n" + " and aa.attr_type_owner = bb.owner(+) and aa.owner = ?\n" + "   And aa.attr_type_name = bb.type_name(+)\n" + " Order By attr_no Asc";
 
-    private static final String GET_EMBEDDED_TYPE_ATTRIBUTES = "Select *\n" + "  From (Select Distinct d.argument_name attr_name,\n" + "                        d.data_type attr_type_name,\n" + "                        d.position attr_no,\n" + "                        nvl(d.data_scale, -1) data_scale,\n" + "                        0 multi_type,\n" + "                        bb.typecode typecode,\n" + "                        Null collection_base_type\n" + "          From (Select t.*\n" + "                  From all_arguments t\n" + "                 Where t.type_name || '_' || t.type_subname = ?\n" + "                   AND t.owner = ?\n" + "                   And rownum < 2) m\n" + "          Left Join (Select * From all_arguments t Where data_level = 1 and t.owner=?) d\n" + "            On m.object_name = d.object_name\n" + "           And m.package_name = d.package_name\n" + "           And nvl(m.overload, -1) = nvl(d.overload, -1)\n" + "          Left Join all_types bb\n" + "            On d.data_type = bb.type_name)\n" + "          where bb.owner=?\n" + " Order By attr_no";
+    private static final String GET_ALL_TYPE_ATTRIBUTES = "Select aa.owner,\n" +//
+            "       aa.type_name,\n" +//
+            "       aa.attr_name,\n" +//
+            "       aa.attr_type_name,\n" +//
+            "       aa.attr_type_owner,\n" +//
+            "       aa.attr_no,\n" +//
+            "       aa.scale,\n" +//
+            "       Case When aa.attr_type_owner Is Not Null Then 1 Else 0 End multi_type,\n" +//
+            "       bb.typecode\n" +//
+            "  From all_type_attrs aa, all_types bb\n" +//
+            " Where aa.attr_type_owner = bb.owner(+)\n" +//
+            "   And aa.attr_type_name = bb.type_name(+)\n" +//
+            "   And aa.owner = ?\n" +//
+            "   And (aa.owner, aa.type_name) In (%s)\n" +//
+            " Order By aa.type_name, aa.attr_no";
 
-    private JdbcTemplate jdbcTemplate;
+    private static final String GET_EMBEDDED_TYPE_SOURCES = "Select owner, object_name, object_type\n" +//
+            "  From all_objects\n" +//
+            " Where object_type In ('PACKAGE', 'PROCEDURE', 'FUNCTION')";
+
+    private static final String EMBEDDED_TYPES = "EMBEDDED_TYPES/";
+
+    private static final String GET_COLLECTION_TYPES = "Select owner, type_name, elem_type_name, scale\n" +//
+            "  From all_coll_types\n" +//
+            " Where owner In (Select ? From dual Union Select attr_type_owner From all_type_attrs Where owner = ?)";
+
+    private JdbcTemplate  jdbcTemplate;
+    private int           extractionThreads;
+    private MetadataCache metadataCache;
 
     public TypeDao(DataSource dataSource) {
-        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this(dataSource, 1);
+    }
+
+    public TypeDao(DataSource dataSource, int extractionThreads) {
+        this(new JdbcTemplate(dataSource), extractionThreads, MetadataCache.disabled());
+    }
+
+    public TypeDao(JdbcTemplate jdbcTemplate, int extractionThreads, MetadataCache metadataCache) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.extractionThreads = extractionThreads;
+        this.metadataCache = metadataCache;
     }
 
     public List<TypeIdDto> getTypeList(OBridgeConfiguration c) {
         assert c != null;
 
-        String query = "SELECT owner, type_name FROM all_types WHERE typecode = 'OBJECT'";
+        List<Object> args  = new ArrayList<>();
+        String       query = getTypeListQuery(c.getDbObjects(), args);
 
-        if (c.getDbObjects() != null) {
-            query += " and (owner, type_name) IN (" + c.toFilterString() + ")";
-        } else {
-            query += "and owner = user";
+        log.debug(query);
+
+        return jdbcTemplate.query("GET_TYPE_LIST", query, args.toArray(), (resultSet, i) -> new TypeIdDto(resultSet.getString("owner"), resultSet.getString("type_name")));
+    }
+
+    /**
+     * Loads the attributes of every type selected by the configuration with one statement per owner, keyed by owner and
+     * type name. The owners are queried in parallel when more than one extraction thread is configured. Types found
+     * up to date in the metadata cache are not queried again.
+     */
+    public Map<TypeIdDto, List<TypeAttribute>> getTypeAttributes(OBridgeConfiguration c) {
+        assert c != null;
+
+        return getTypeAttributes(c.getDbObjects());
+    }
+
+    /**
+     * Loads the attributes of the object types the procedure arguments refer to, and of the types those refer to
+     * through attributes and collection elements, transitively. Every level of the type graph is loaded with the same
+     * statements as {@link #getTypeAttributes(OBridgeConfiguration)}, the new types of the level bound as one
+     * collection.
+     */
+    public Map<TypeIdDto, List<TypeAttribute>> getReferencedTypeAttributes(Collection<Procedure> procedures) {
+        return getReferencedTypeAttributes(ObjectDependencies.argumentTypeIds(procedures));
+    }
+
+    /**
+     * Loads the attributes of the given object types and of the types they refer to, transitively.
+     */
+    public Map<TypeIdDto, List<TypeAttribute>> getReferencedTypeAttributes(List<TypeIdDto> types) {
+        Map<TypeIdDto, List<TypeAttribute>> ret     = new HashMap<>();
+        Set<TypeIdDto>                      visited = new HashSet<>();
+        List<TypeIdDto>                     level   = types;
+
+        while (!level.isEmpty()) {
+            visited.addAll(level);
+
+            Map<TypeIdDto, List<TypeAttribute>> levelAttributes = getTypeAttributes(level.stream()
+                                                                                         .map(t -> new DbObject(t.getOwner(), t.getTypeName()))
+                                                                                         .collect(Collectors.toList()));
+            ret.putAll(levelAttributes);
+
+            level = ObjectDependencies.attributeTypeIds(levelAttributes)
+                                      .stream()
+                                      .filter(t -> !visited.contains(t))
+                                      .collect(Collectors.toList());
         }
 
-        System.out.println(query);
+        return ret;
+    }
+
+    private Map<TypeIdDto, List<TypeAttribute>> getTypeAttributes(List<DbObject> dbObjects) {
+        List<Object> typeListArgs  = new ArrayList<>();
+        String       typeListQuery = getTypeListQuery(dbObjects, typeListArgs);
+
+        List<TypeIdDto> types = jdbcTemplate.query("GET_TYPE_LIST", typeListQuery, typeListArgs.toArray(), (resultSet, i) -> new TypeIdDto(resultSet.getString("owner"),
+                                                                                                                        resultSet.getString("type_name")));
+
+        Map<TypeIdDto, List<TypeAttribute>> ret                   = new HashMap<>();
+        Map<String, List<String>>           changedTypesByOwner   = new TreeMap<>();
+        Set<String>                         partiallyCachedOwners = new HashSet<>();
+
+        for (TypeIdDto type : types) {
+            List<TypeAttribute> cached = metadataCache.get(getCacheKey(type));
+            if (cached != null) {
+                ret.put(type, cached);
+                partiallyCachedOwners.add(type.getOwner());
+            } else {
+                changedTypesByOwner.computeIfAbsent(type.getOwner(), owner -> new ArrayList<>()).add(type.getTypeName());
+            }
+        }
+
+        try (BoundedExecutor executor = new BoundedExecutor("obridge-type-dao", extractionThreads, jdbcTemplate::release)) {
+            List<Map.Entry<String, List<String>>> changedTypes = new ArrayList<>(changedTypesByOwner.entrySet());
+
+            executor.map(changedTypes, e -> getTypeAttributes(typeListQuery, typeListArgs, e.getKey(),
+                                                              partiallyCachedOwners.contains(e.getKey()) ? e.getValue() : null))
+                    .forEach(ret::putAll);
+        }
+
+        for (Map.Entry<String, List<String>> changedTypes : changedTypesByOwner.entrySet()) {
+            for (String typeName : changedTypes.getValue()) {
+                TypeIdDto           type           = new TypeIdDto(changedTypes.getKey(), typeName);
+                List<TypeAttribute> typeAttributes = ret.get(type);
+                if (typeAttributes != null) {
+                    metadataCache.put(getCacheKey(type), typeAttributes, ObjectDependencies.attributeTypeIds(Collections.singletonMap(type, typeAttributes))
+                                                                                           .stream()
+                                                                                           .map(TypeDao::getCacheKey)
+                                                                                           .collect(Collectors.toList()));
+                }
+            }
+        }
+
+        return ret;
+    }
+
+    /**
+     * Loads the attributes of the selected types of one owner, restricted to the given type names when not null.
+     */
+    private Map<TypeIdDto, List<TypeAttribute>> getTypeAttributes(String typeListQuery, List<Object> typeListArgs, String owner,
+                                                                  List<String> typeNames) {
+
+        Map<String, CollectionTypeDto> collectionTypes = getCollectionTypes(owner);
+
+        List<Object> args = new ArrayList<>();
+        args.add(owner);
+        args.addAll(typeListArgs);
+
+        if (typeNames != null) {
+            // bound as one collection, an In list is limited to 1000 elements
+            typeListQuery = "Select owner, type_name From (" + typeListQuery + ") Where type_name In (Select column_value From Table(?))";
+            args.add(SqlArray.varchar2List(typeNames));
+        }
+
+        List<Map.Entry<TypeIdDto, TypeAttribute>> typeAttributes = jdbcTemplate.query("GET_ALL_TYPE_ATTRIBUTES", String.format(GET_ALL_TYPE_ATTRIBUTES, typeListQuery), args.toArray(), (resultSet, i) -> {
+            String            attrTypeName   = resultSet.getString("attr_type_name");
+            Integer           scale          = resultSet.getObject("scale", Integer.class);
+            CollectionTypeDto collectionType = collectionTypes.get(collectionTypeKey(StringUtils.defaultString(resultSet.getString("attr_type_owner"), owner),
+                                                                                     attrTypeName));
+
+            if (scale == null && collectionType != null) {
+                scale = collectionType.getScale();
+            }
+
+            return new AbstractMap.SimpleImmutableEntry<>(new TypeIdDto(owner, resultSet.getString("type_name")),
+                                                          new TypeAttribute(resultSet.getString("attr_name"),
+                                                                            attrTypeName,
+                                                                            resultSet.getInt("attr_no"),
+                                                                            scale == null ? -1 : scale,
+                                                                            resultSet.getInt("multi_type"),
+                                                                            resultSet.getString("typecode"),
+                                                                            collectionType == null ? null : collectionType.getElemTypeName(),
+                                                                            resultSet.getString("attr_type_owner")));
+        });
 
-        return jdbcTemplate.query(query, (resultSet, i) -> new TypeIdDto(resultSet.getString("owner"), resultSet.getString("type_name")));
+        return typeAttributes.stream()
+                             .collect(Collectors.groupingBy(Map.Entry::getKey, Collectors.mapping(Map.Entry::getValue, Collectors.toList())));
+    }
+
+    /**
+     * The collection types of the owner and of the owners of its attribute types, by owner and name.
+     */
+    private Map<String, CollectionTypeDto> getCollectionTypes(String owner) {
+        List<CollectionTypeDto> collectionTypes = jdbcTemplate.query("GET_COLLECTION_TYPES", GET_COLLECTION_TYPES, new Object[]{owner, owner},
+                                                                     (resultSet, i) -> new CollectionTypeDto(resultSet.getString("owner"),
+                                                                                                             resultSet.getString("type_name"),
+                                                                                                             resultSet.getString("elem_type_name"),
+                                                                                                             resultSet.getObject("scale", Integer.class)));
+
+        return collectionTypes.stream().collect(Collectors.toMap(t -> collectionTypeKey(t.getOwner(), t.getTypeName()), t -> t));
+    }
+
+    private static String collectionTypeKey(String owner, String typeName) {
+        return owner + "." + typeName;
+    }
+
+    private static String getCacheKey(TypeIdDto type) {
+        return ObjectStatusDto.key("TYPE", type.getOwner(), type.getTypeName());
+    }
+
+    private String getTypeListQuery(List<DbObject> dbObjects, List<Object> args) {
+        return "SELECT owner, type_name FROM all_types WHERE typecode = 'OBJECT' and " +
+                new ObjectFilter(dbObjects).toPredicate("owner", "type_name", args);
     }
 
     public List<TypeAttribute> getTypeAttributes(TypeIdDto t) {
 
-        return jdbcTemplate.query(GET_TYPE_ATTRIBUTES, new Object[]{t.getTypeName(), t.getOwner()}, (resultSet, i) -> new TypeAttribute(resultSet.getString("attr_name"), resultSet.getString("attr_type_name"), resultSet.getInt("attr_no"), resultSet.getInt("data_scale"), resultSet.getInt("multi_type"), resultSet.getString("typecode"), resultSet.getString("collection_base_type")));
+        return jdbcTemplate.query("GET_TYPE_ATTRIBUTES", GET_TYPE_ATTRIBUTES, new Object[]{t.getTypeName(), t.getOwner()}, (resultSet, i) -> new TypeAttribute(resultSet.getString("attr_name"), resultSet.getString("attr_type_name"), resultSet.getInt("attr_no"), resultSet.getInt("data_scale"), resultSet.getInt("multi_type"), resultSet.getString("typecode"), resultSet.getString("collection_base_type"), resultSet.getString("attr_type_owner")));
     }
 
-    public List<String> getEmbeddedTypeList(String owner) {
-        return jdbcTemplate.queryForList("Select Distinct type_name || '_' || type_subname\n" + "  From all_arguments t\n" + " Where type_subname Is Not Null and owner = '" + owner + "'");
+    /**
+     * Loads the record types declared in package specifications (or in other packages) and used by the arguments of the
+     * selected packages and standalone procedures. The nested argument rows are read with one query and the types are
+     * assembled in memory, keyed by owner and "PACKAGE.TYPE" name. With the metadata cache the types are cached per
+     * package and standalone procedure, and only the nested arguments of the changed ones are read.
+     */
+    public Map<TypeIdDto, List<TypeAttribute>> getEmbeddedTypeAttributes(List<DbObject> dbObjects) {
+        Map<String, Map<TypeIdDto, List<TypeAttribute>>> bySource = new TreeMap<>();
+
+        if (!metadataCache.isEnabled()) {
+            getEmbeddedTypeArguments(dbObjects).forEach((source, arguments) -> bySource.put(source, toEmbeddedTypeAttributes(arguments)));
+            return merge(bySource);
+        }
+
+        Map<String, ObjectStatusDto> changed = new TreeMap<>();
+        for (ObjectStatusDto source : getEmbeddedTypeSources(dbObjects)) {
+            Map<TypeIdDto, List<TypeAttribute>> cached = metadataCache.get(EMBEDDED_TYPES + source.getKey());
+            if (cached != null) {
+                bySource.put(source.getOwner() + "." + source.getObjectName(), cached);
+            } else {
+                changed.put(source.getOwner() + "." + source.getObjectName(), source);
+            }
+        }
+
+        if (!changed.isEmpty()) {
+            Map<String, List<ArgumentDto>> arguments = getEmbeddedTypeArguments(changed.values()
+                                                                                       .stream()
+                                                                                       .map(o -> new DbObject(o.getOwner(), o.getObjectName()))
+                                                                                       .collect(Collectors.toList()));
+
+            changed.forEach((source, status) -> {
+                List<ArgumentDto>                   sourceArguments = arguments.getOrDefault(source, Collections.emptyList());
+                Map<TypeIdDto, List<TypeAttribute>> types           = toEmbeddedTypeAttributes(sourceArguments);
+
+                bySource.put(source, types);
+                metadataCache.put(EMBEDDED_TYPES + status.getKey(), status.getKey(), types, embeddedTypeDependencies(sourceArguments));
+            });
+        }
+
+        return merge(bySource);
+    }
+
+    /**
+     * The selected packages and standalone procedures and functions.
+     */
+    private List<ObjectStatusDto> getEmbeddedTypeSources(List<DbObject> dbObjects) {
+        List<Object> args  = new ArrayList<>();
+        String       query = GET_EMBEDDED_TYPE_SOURCES + " And " + new ObjectFilter(dbObjects).toPredicate("owner", "object_name", args);
+
+        return jdbcTemplate.query("GET_EMBEDDED_TYPE_SOURCES", query, args.toArray(),
+                                  (resultSet, i) -> new ObjectStatusDto(resultSet.getString("owner"),
+                                                                        resultSet.getString("object_name"),
+                                                                        resultSet.getString("object_type"),
+                                                                        null,
+                                                                        null));
     }
 
-    public List<TypeAttribute> getEmbeddedTypeAttributes(String typeName, String owner) {
+    /**
+     * The nested argument rows of the selected packages and standalone procedures, by owner and package (or procedure)
+     * name.
+     */
+    private Map<String, List<ArgumentDto>> getEmbeddedTypeArguments(List<DbObject> dbObjects) {
+        List<Object> args  = new ArrayList<>();
+        String       query = ResourceUtils.load("queries/GET_EMBEDDED_TYPE_ARGUMENTS.sql") +
+                " And " + new ObjectFilter(dbObjects).toPredicate("t.owner", "nvl(t.package_name, t.object_name)", args) +
+                " Order By t.owner, source_name, t.object_id, t.subprogram_id, t.sequence";
 
-        return jdbcTemplate.query(GET_EMBEDDED_TYPE_ATTRIBUTES, new Object[]{typeName.toUpperCase(), owner, owner, owner}, (resultSet, i) -> new TypeAttribute(resultSet.getString("attr_name"), resultSet.getString("attr_type_name"), resultSet.getInt("attr_no"), resultSet.getInt("data_scale"), resultSet.getInt("multi_type"), resultSet.getString("typecode"), resultSet.getString("collection_base_type")));
+        List<Map.Entry<String, ArgumentDto>> arguments = jdbcTemplate.query(
+                "GET_EMBEDDED_TYPE_ARGUMENTS", query, args.toArray(),
+                (resultSet, i) -> new AbstractMap.SimpleImmutableEntry<>(resultSet.getString("owner") + "." + resultSet.getString("source_name"),
+                                                                         new ArgumentDto(resultSet.getString("owner"),
+                                                                                         resultSet.getLong("object_id"),
+                                                                                         resultSet.getLong("subprogram_id"),
+                                                                                         resultSet.getInt("data_level"),
+                                                                                         resultSet.getString("argument_name"),
+                                                                                         resultSet.getString("data_type"),
+                                                                                         resultSet.getObject("data_scale", Integer.class),
+                                                                                         resultSet.getString("type_owner"),
+                                                                                         resultSet.getString("type_name"),
+                                                                                         resultSet.getString("type_subname"))));
+
+        return arguments.stream()
+                        .collect(Collectors.groupingBy(Map.Entry::getKey, LinkedHashMap::new,
+                                                       Collectors.mapping(Map.Entry::getValue, Collectors.toList())));
+    }
+
+    /**
+     * The packages declaring the record types and the object and collection types the nested arguments refer to.
+     */
+    private static Set<String> embeddedTypeDependencies(List<ArgumentDto> arguments) {
+        Set<String> ret = new LinkedHashSet<>();
+        for (ArgumentDto argument : arguments) {
+            if (argument.getTypeName() != null) {
+                String owner = argument.getTypeOwner() == null ? argument.getOwner() : argument.getTypeOwner();
+                ret.add(ObjectStatusDto.key(argument.getTypeSubname() == null ? "TYPE" : "PACKAGE", owner, argument.getTypeName()));
+            }
+        }
+        return ret;
+    }
+
+    /**
+     * The types of every package and standalone procedure in name order, a type used by several of them once.
+     */
+    private static Map<TypeIdDto, List<TypeAttribute>> merge(Map<String, Map<TypeIdDto, List<TypeAttribute>>> bySource) {
+        Map<TypeIdDto, List<TypeAttribute>> ret = new LinkedHashMap<>();
+        bySource.values().forEach(types -> types.forEach(ret::putIfAbsent));
+        return ret;
+    }
+
+    static Map<TypeIdDto, List<TypeAttribute>> toEmbeddedTypeAttributes(List<ArgumentDto> arguments) {
+        Map<ArgumentDto, List<ArgumentDto>> children = new IdentityHashMap<>();
+        List<ArgumentDto>                   parents  = new ArrayList<>();
+        ArgumentDto                         previous = null;
+
+        for (ArgumentDto argument : arguments) {
+            if (previous == null || previous.getObjectId() != argument.getObjectId() || previous.getSubprogramId() != argument.getSubprogramId()) {
+                parents.clear();
+            }
+            while (parents.size() > argument.getDataLevel()) {
+                parents.remove(parents.size() - 1);
+            }
+            if (argument.getDataLevel() > 0 && parents.size() == argument.getDataLevel()) {
+                children.computeIfAbsent(parents.get(argument.getDataLevel() - 1), p -> new ArrayList<>()).add(argument);
+            }
+            parents.add(argument);
+            previous = argument;
+        }
+
+        Map<TypeIdDto, List<TypeAttribute>> ret = new LinkedHashMap<>();
+
+        for (ArgumentDto argument : arguments) {
+            List<ArgumentDto> fields = children.get(argument);
+            if (argument.getTypeSubname() == null || !argument.isRecord() || fields == null) {
+                continue;
+            }
+
+            TypeIdDto type = new TypeIdDto(argument.getTypeOwner() == null ? argument.getOwner() : argument.getTypeOwner(),
+                                           argument.getQualifiedTypeName());
+            if (ret.containsKey(type)) {
+                continue;
+            }
+
+            List<TypeAttribute> attributes = new ArrayList<>(fields.size());
+            for (ArgumentDto field : fields) {
+                attributes.add(toTypeAttribute(field, attributes.size() + 1, children.get(field)));
+            }
+            ret.put(type, attributes);
+        }
+
+        return ret;
+    }
+
+    private static TypeAttribute toTypeAttribute(ArgumentDto field, int attrNo, List<ArgumentDto> elements) {
+        if (field.isRecord()) {
+            return new TypeAttribute(field.getArgumentName(), field.getQualifiedTypeName(), attrNo, -1, 1, TypeMapper.ORACLE_OBJECT, null, field.getTypeOwner());
+        } else if (field.isCollection()) {
+            ArgumentDto element = elements == null || elements.isEmpty() ? null : elements.get(0);
+            String elemTypeName = element == null ? null : element.getTypeName() == null ? element.getDataType() : element.getQualifiedTypeName();
+            int    scale        = element == null || element.getDataScale() == null ? -1 : element.getDataScale();
+            return new TypeAttribute(field.getArgumentName(), field.getQualifiedTypeName(), attrNo, scale, 1, TypeMapper.ORACLE_COLLECTION, elemTypeName,
+                                     field.getTypeOwner());
+        } else {
+            return new TypeAttribute(field.getArgumentName(), field.getDataType(), attrNo, field.getDataScale() == null ? -1 : field.getDataScale(), 0, null, null);
+        }
     }
 }
@@ -24,22 +24,26 @@
 
 package org.obridge.generators;
 
-import org.apache.commons.io.FileUtils;
+import org.obridge.cache.GenerationManifest;
+import org.obridge.cache.ObjectDependencies;
 import org.obridge.context.OBridgeConfiguration;
-import org.obridge.dao.TypeDao;
+import org.obridge.dao.SchemaModelDao;
+import org.obridge.model.data.SchemaModel;
 import org.obridge.model.data.Type;
 import org.obridge.model.data.TypeAttribute;
 import org.obridge.model.dto.TypeIdDto;
 import org.obridge.model.generator.Pojo;
-import org.obridge.util.CodeFormatter;
+import org.obridge.util.BoundedExecutor;
 import org.obridge.util.DataSourceProvider;
-import org.obridge.util.MustacheRunner;
 import org.obridge.util.OBridgeException;
+import org.obridge.util.Profiler;
 
 import java.beans.PropertyVetoException;
-import java.io.File;
 import java.io.IOException;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Created by fkarsany on 2015.01.28..
@@ -49,47 +53,64 @@ public final class ConverterObjectGenerator {
     private ConverterObjectGenerator() {
     }
 
-    public static void generate(OBridgeConfiguration c) {
+    public static void generate(GenerationContext context) {
+        OBridgeConfiguration c = context.getConfiguration();
         try {
-            String packageName   = c.getRootPackageName() + "." + c.getPackages().getConverterObjects();
-            String objectPackage = c.getRootPackageName() + "." + c.getPackages().getEntityObjects();
-            String outputDir     = c.getSourceRoot() + "/" + packageName.replace(".", "/") + "/";
+            generate(context, new SchemaModelDao(DataSourceProvider.getDataSource(c), c.getExtractionThreads()).getTypeModel(c));
+        } catch (PropertyVetoException e) {
+            throw new OBridgeException(e);
+        }
+    }
+
+    public static void generate(GenerationContext context, SchemaModel model) {
+        OBridgeConfiguration c = context.getConfiguration();
+        String packageName   = c.getRootPackageName() + "." + c.getPackages().getConverterObjects();
+        String objectPackage = c.getRootPackageName() + "." + c.getPackages().getEntityObjects();
+        String outputDir     = c.getSourceRoot() + "/" + packageName.replace(".", "/") + "/";
 
-            TypeDao typeDao = new TypeDao(DataSourceProvider.getDataSource(c));
+        GenerationManifest                  manifest       = GenerationManifest.open(context, model.getObjectStatus());
+        List<TypeIdDto>                     types          = model.getTypes();
+        Map<TypeIdDto, List<TypeAttribute>> typeAttributes = model.getTypeAttributes();
 
-            List<TypeIdDto> types = typeDao.getTypeList(c);
-            for (TypeIdDto t : types) {
-                generateType(packageName, objectPackage, outputDir, t, typeDao.getTypeAttributes(t), c.getUseSchemaName());
-            }
+        ObjectDependencies dependencies = new ObjectDependencies(typeAttributes);
+        try (BoundedExecutor executor = new BoundedExecutor("obridge-render", c.getRenderThreads())) {
+            executor.forEach(types, t -> Profiler.unit("ConverterObjectGenerator", t.getOwner() + "." + t.getTypeName(),
+                                                       () -> generateType(context, manifest, dependencies.ofType(t), packageName, objectPackage, outputDir, t,
+                                                                          typeAttributes.getOrDefault(t, Collections.emptyList()), c.getUseSchemaName())));
+        }
 
-            /*if (OBridgeConfiguration.GENERATE_SOURCE_FOR_PLSQL_TYPES) {
-                List<String> embeddedTypes = typeDao.getEmbeddedTypeList(c.getSourceOwner());
-                for (String typeName : embeddedTypes) {
-                    generateType(packageName, objectPackage, outputDir, typeName,
-                                 typeDao.getEmbeddedTypeAttributes(typeName, c.getSourceOwner()));
-                }
-            }*/
+        generatePrimitiveTypeConverter(context, manifest, packageName, outputDir);
 
-            generatePrimitiveTypeConverter(packageName, outputDir);
+        manifest.save();
+    }
 
-        } catch (PropertyVetoException | IOException e) {
-            throw new OBridgeException(e);
+    private static void generatePrimitiveTypeConverter(GenerationContext context, GenerationManifest manifest, String packageName, String outputDir) {
+        String fileName = outputDir + "PrimitiveTypeConverter.java";
+        if (manifest.isUpToDate(fileName, Collections.emptySet())) {
+            context.getSourceWriter().unchanged(fileName);
+            return;
         }
-    }
 
-    private static void generatePrimitiveTypeConverter(String packageName, String outputDir) throws IOException {
         Pojo pojo = new Pojo();
         pojo.setPackageName(packageName);
-        String javaSource = MustacheRunner.build("PrimitiveTypeConverter.java.mustache", pojo);
-        FileUtils.writeStringToFile(new File(outputDir + "PrimitiveTypeConverter.java"), CodeFormatter.format(javaSource), "utf-8");
+        try {
+            String javaSource = context.getTemplates().render("PrimitiveTypeConverter.java.mustache", pojo);
+            context.getSourceWriter().write(fileName, context.getFormatter().formatSource(javaSource));
+            manifest.record(fileName, Collections.emptySet());
+        } catch (IOException e) {
+            throw new OBridgeException(e);
+        }
     }
 
-    private static void generateType(String packageName,
+    private static void generateType(GenerationContext context,
+                                     GenerationManifest manifest,
+                                     Set<String> sources,
+                                     String packageName,
                                      String objectPackage,
                                      String outputDir,
                                      TypeIdDto type,
                                      List<TypeAttribute> typeAttributes,
-                                     Boolean useSchemaName) throws IOException {
+                                     Boolean useSchemaName) {
         Type t = new Type();
         t.setUseSchemaName(Boolean.TRUE.equals(useSchemaName));
         t.setOwner(type.getOwner());
@@ -97,9 +118,19 @@ public final class ConverterObjectGenerator {
         t.setAttributeList(typeAttributes);
         t.setConverterPackageName(packageName);
         t.setObjectPackage(objectPackage);
-        String javaSource = MustacheRunner.build("converter.mustache", t);
-        FileUtils.writeStringToFile(new File(outputDir + t.getJavaClassName() + "Converter.java"), CodeFormatter.format(javaSource),
-                                    "utf-8");
+        String fileName = outputDir + t.getJavaClassName() + "Converter.java";
+        if (manifest.isUpToDate(fileName, sources)) {
+            context.getSourceWriter().unchanged(fileName);
+            return;
+        }
+
+        try {
+            String javaSource = context.getTemplates().render("converter.mustache", t);
+            context.getSourceWriter().write(fileName, context.getFormatter().formatSource(javaSource));
+            manifest.record(fileName, sources);
+        } catch (IOException e) {
+            throw new OBridgeException(e);
+        }
     }
 
 }
@@ -24,23 +24,27 @@
 
 package org.obridge.generators;
 
-import org.apache.commons.io.FileUtils;
+import org.obridge.cache.GenerationManifest;
+import org.obridge.cache.ObjectDependencies;
 import org.obridge.context.OBridgeConfiguration;
-import org.obridge.dao.TypeDao;
+import org.obridge.dao.SchemaModelDao;
 import org.obridge.mappers.PojoMapper;
+import org.obridge.model.data.SchemaModel;
 import org.obridge.model.data.TypeAttribute;
 import org.obridge.model.dto.TypeIdDto;
 import org.obridge.model.generator.Pojo;
-import org.obridge.util.CodeFormatter;
+import org.obridge.util.BoundedExecutor;
 import org.obridge.util.DataSourceProvider;
-import org.obridge.util.MustacheRunner;
 import org.obridge.util.OBridgeException;
+import org.obridge.util.Profiler;
 
 import java.beans.PropertyVetoException;
-import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Created by fkarsany on 2015.01.28..
@@ -50,40 +54,47 @@ public final class EntityObjectGenerator {
     private EntityObjectGenerator() {
     }
 
-    public static void generate(OBridgeConfiguration c) {
+    public static void generate(GenerationContext context) {
+        OBridgeConfiguration c = context.getConfiguration();
         try {
-            String packageName = c.getRootPackageName() + "." + c.getPackages().getEntityObjects();
-            String outputDir   = c.getSourceRoot() + "/" + packageName.replace(".", "/") + "/";
-            boolean useLombok = Boolean.TRUE.equals(c.getUseLombokAccessors());
-
-            TypeDao typeDao = new TypeDao(DataSourceProvider.getDataSource(c));
-
-            List<TypeIdDto> types = typeDao.getTypeList(c);
-            for (TypeIdDto type : types) {
-                generateEntityObject(useLombok, packageName, outputDir, type.getTypeName(), typeDao.getTypeAttributes(type));
-            }
-
-            if (types.size() == 0) {
-                generateEntityObject(useLombok, packageName, outputDir, "Dummy", new ArrayList<>());
-            }
+            generate(context, new SchemaModelDao(DataSourceProvider.getDataSource(c), c.getExtractionThreads()).getTypeModel(c));
+        } catch (PropertyVetoException e) {
+            throw new OBridgeException(e);
+        }
+    }
 
-            /*if (OBridgeConfiguration.GENERATE_SOURCE_FOR_PLSQL_TYPES) {
-                List<String> embeddedTypes = typeDao.getEmbeddedTypeList(c.getSourceOwner());
-                for (String typeName : embeddedTypes) {
-                    generateEntityObject(packageName, outputDir, typeName, typeDao.getEmbeddedTypeAttributes(typeName, c.getSourceOwner()));
-                }
-            }*/
+    public static void generate(GenerationContext context, SchemaModel model) {
+        OBridgeConfiguration c = context.getConfiguration();
+        String packageName = c.getRootPackageName() + "." + c.getPackages().getEntityObjects();
+        String outputDir   = c.getSourceRoot() + "/" + packageName.replace(".", "/") + "/";
+        boolean useLombok = Boolean.TRUE.equals(c.getUseLombokAccessors());
+
+        GenerationManifest                  manifest       = GenerationManifest.open(context, model.getObjectStatus());
+        List<TypeIdDto>                     types          = model.getTypes();
+        Map<TypeIdDto, List<TypeAttribute>> typeAttributes = model.getTypeAttributes();
+
+        ObjectDependencies dependencies = new ObjectDependencies(typeAttributes);
+        try (BoundedExecutor executor = new BoundedExecutor("obridge-render", c.getRenderThreads())) {
+            executor.forEach(types, type -> Profiler.unit("EntityObjectGenerator", type.getOwner() + "." + type.getTypeName(),
+                                                          () -> generateEntityObject(context, manifest, dependencies.ofType(type), useLombok, packageName, outputDir,
+                                                                                     type.getTypeName(), typeAttributes.getOrDefault(type, Collections.emptyList()))));
+        }
 
-        } catch (PropertyVetoException | IOException e) {
-            throw new OBridgeException(e);
+        if (types.size() == 0) {
+            generateEntityObject(context, manifest, Collections.emptySet(), useLombok, packageName, outputDir, "Dummy", new ArrayList<>());
         }
+
+        manifest.save();
     }
 
-    private static void generateEntityObject(boolean lombok,
+    private static void generateEntityObject(GenerationContext context,
+                                             GenerationManifest manifest,
+                                             Set<String> sources,
+                                             boolean lombok,
                                              String packageName,
                                              String outputDir,
                                              String typeName,
-                                             List<TypeAttribute> typeAttributes) throws IOException {
+                                             List<TypeAttribute> typeAttributes) {
         Pojo pojo = PojoMapper.typeToPojo(lombok,typeName, typeAttributes);
 
         pojo.setPackageName(packageName);
@@ -92,8 +103,19 @@ public final class EntityObjectGenerator {
         List<String> imports = pojo.getImports();
         imports.add("jakarta.annotation.Generated");
 
-        String javaSource = MustacheRunner.build("pojo.mustache", pojo);
-        FileUtils.writeStringToFile(new File(outputDir + pojo.getClassName() + ".java"), CodeFormatter.format(javaSource), "utf-8");
+        String fileName = outputDir + pojo.getClassName() + ".java";
+        if (manifest.isUpToDate(fileName, sources)) {
+            context.getSourceWriter().unchanged(fileName);
+            return;
+        }
+
+        try {
+            String javaSource = context.getTemplates().render("pojo.mustache", pojo);
+            context.getSourceWriter().write(fileName, context.getFormatter().formatSource(javaSource));
+            manifest.record(fileName, sources);
+        } catch (IOException e) {
+            throw new OBridgeException(e);
+        }
     }
 
 }
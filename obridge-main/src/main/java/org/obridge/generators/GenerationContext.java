@@ -0,0 +1,58 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Ferenc Karsany
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+
+package org.obridge.generators;
+
+import lombok.Getter;
+import org.obridge.context.OBridgeConfiguration;
+import org.obridge.util.CodeFormatter;
+import org.obridge.util.MustacheRunner;
+import org.obridge.util.Profiler;
+import org.obridge.util.SourceWriter;
+import org.obridge.util.jdbc.QueryStatistics;
+
+/**
+ * The state of one generation run, handed to every generator: the configuration, the templates and the formatter it
+ * selects, the writer collecting the files the run generates, the statistics of its metadata queries and its profile.
+ * Nothing of it is shared with other runs in the same JVM.
+ */
+@Getter
+public final class GenerationContext {
+
+    private final OBridgeConfiguration configuration;
+    private final MustacheRunner       templates;
+    private final CodeFormatter        formatter;
+    private final SourceWriter         sourceWriter;
+    private final QueryStatistics      queryStatistics;
+    private final Profiler             profiler;
+
+    public GenerationContext(OBridgeConfiguration configuration) {
+        this.configuration = configuration;
+        this.templates = MustacheRunner.create(configuration);
+        this.formatter = new CodeFormatter(configuration);
+        this.sourceWriter = new SourceWriter();
+        this.queryStatistics = new QueryStatistics();
+        this.profiler = new Profiler();
+    }
+}
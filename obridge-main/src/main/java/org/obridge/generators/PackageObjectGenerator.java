@@ -26,21 +26,23 @@ package org.obridge.generators;
 
 import lombok.extern.log4j.Log4j2;
 import lombok.var;
-import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang3.StringUtils;
+import org.obridge.cache.GenerationManifest;
+import org.obridge.cache.ObjectDependencies;
 import org.obridge.context.Logging;
 import org.obridge.context.OBridgeConfiguration;
-import org.obridge.dao.ProcedureDao;
+import org.obridge.dao.SchemaModelDao;
 import org.obridge.model.data.OraclePackage;
-import org.obridge.util.CodeFormatter;
+import org.obridge.model.data.SchemaModel;
+import org.obridge.util.BoundedExecutor;
 import org.obridge.util.DataSourceProvider;
-import org.obridge.util.MustacheRunner;
 import org.obridge.util.OBridgeException;
+import org.obridge.util.Profiler;
 
 import java.beans.PropertyVetoException;
-import java.io.File;
 import java.io.IOException;
-import java.util.List;
+import java.util.Collections;
+import java.util.Set;
 
 /**
  * Created by fkarsany on 2015.01.28..
@@ -51,16 +53,44 @@ public final class PackageObjectGenerator {
     private PackageObjectGenerator() {
     }
 
-    public static void generate(OBridgeConfiguration c) {
+    public static void generate(GenerationContext context) {
+        OBridgeConfiguration c = context.getConfiguration();
         try {
+            generate(context, new SchemaModelDao(DataSourceProvider.getDataSource(c), c.getExtractionThreads()).getPackageModel(c));
+        } catch (PropertyVetoException e) {
+            throw new OBridgeException(e);
+        }
+    }
+
+    public static void generate(GenerationContext context, SchemaModel model) {
+        log.info("Package Object Generator");
+
+        OBridgeConfiguration c            = context.getConfiguration();
+        GenerationManifest   manifest     = GenerationManifest.open(context, model.getObjectStatus());
+        ObjectDependencies   dependencies = new ObjectDependencies(model.getTypeAttributes());
+
+        try (BoundedExecutor executor = new BoundedExecutor("obridge-render", c.getRenderThreads())) {
+            executor.forEach(model.getPackages(), oraclePackage -> Profiler.unit("PackageObjectGenerator", oraclePackage.getOwner() + "." + oraclePackage.getName(),
+                                                                                 () -> generate(context, manifest, dependencies, oraclePackage)));
+        }
 
-            log.info("Package Object Generator");
+        generateStoredProcedureCallException(context, manifest);
+
+        manifest.save();
+    }
+
+    /**
+     * Generates the class of one package, recording it in the given manifest. The package of the shared model is not
+     * modified, the Java package and logging settings are set on a copy.
+     */
+    public static void generate(GenerationContext context, GenerationManifest manifest, ObjectDependencies dependencies, OraclePackage oraclePackage) {
+        OBridgeConfiguration c = context.getConfiguration();
+        try {
 
             String packageName             = c.getRootPackageName() + "." + c.getPackages().getPackageObjects();
             String contextPackage          = c.getRootPackageName() + "." + c.getPackages().getProcedureContextObjects();
             String converterPackage        = c.getRootPackageName() + "." + c.getPackages().getConverterObjects();
             String objectPackage           = c.getRootPackageName() + "." + c.getPackages().getEntityObjects();
-            String outputDir               = c.getSourceRoot() + "/" + packageName.replace(".", "/") + "/";
             String loggingClassInitializer = "";
             String loggingAnnotationInit   = "";
             String loggingMethod           = "";
@@ -84,48 +114,77 @@ public final class PackageObjectGenerator {
                 }
             }
 
-            List<OraclePackage> allPackages = new ProcedureDao(DataSourceProvider.getDataSource(c)).getAllPackages(c.getDbObjects());
-
-            for (OraclePackage oraclePackage : allPackages) {
-                oraclePackage.setJavaPackageName(packageName);
-                oraclePackage.setContextPackage(contextPackage);
-                oraclePackage.setConverterPackage(converterPackage);
-                oraclePackage.setObjectPackage(objectPackage);
-                oraclePackage.setExtraImportClasses(c.getPackageExtraClassImports());
-
-                if (StringUtils.isNotBlank(loggingMethod)) {
-                    if(StringUtils.isNotBlank(loggingClassInitializer)) {
-                        oraclePackage.setLoggingInitializer(String.format(loggingClassInitializer, oraclePackage.getJavaClassName()));
-                    } else if(StringUtils.isNotBlank(loggingAnnotationInit)) {
-                        oraclePackage.setAnnotationBasedLoggingInitializer(loggingAnnotationInit);
-                    }
-
-                    oraclePackage.setLoggingMethod(loggingMethod);
+            OraclePackage rendered = new OraclePackage();
+            rendered.setOwner(oraclePackage.getOwner());
+            rendered.setName(oraclePackage.getName());
+            rendered.setProcedureList(oraclePackage.getProcedureList());
+            rendered.setJavaPackageName(packageName);
+            rendered.setContextPackage(contextPackage);
+            rendered.setConverterPackage(converterPackage);
+            rendered.setObjectPackage(objectPackage);
+            rendered.setExtraImportClasses(c.getPackageExtraClassImports());
+
+            if (StringUtils.isNotBlank(loggingMethod)) {
+                if(StringUtils.isNotBlank(loggingClassInitializer)) {
+                    rendered.setLoggingInitializer(String.format(loggingClassInitializer, oraclePackage.getJavaClassName()));
+                } else if(StringUtils.isNotBlank(loggingAnnotationInit)) {
+                    rendered.setAnnotationBasedLoggingInitializer(loggingAnnotationInit);
                 }
 
-                generatePackageObject(outputDir, oraclePackage);
+                rendered.setLoggingMethod(loggingMethod);
             }
 
-            generateStoredProcedureCallExceptionClass(packageName, outputDir);
+            generatePackageObject(context, manifest, dependencies.ofProcedures(oraclePackage.getProcedureList()), getOutputDir(c), rendered);
+
+        } catch (IOException e) {
+            throw new OBridgeException(e);
+        }
+    }
 
-        } catch (PropertyVetoException | IOException e) {
+    /**
+     * Generates the exception class thrown by the generated package classes.
+     */
+    public static void generateStoredProcedureCallException(GenerationContext context, GenerationManifest manifest) {
+        OBridgeConfiguration c = context.getConfiguration();
+        try {
+            generateStoredProcedureCallExceptionClass(context, manifest, c.getRootPackageName() + "." + c.getPackages().getPackageObjects(), getOutputDir(c));
+        } catch (IOException e) {
             throw new OBridgeException(e);
         }
     }
 
-    private static void generatePackageObject(String outputDir, OraclePackage oraclePackage) throws IOException {
-        String javaSource = MustacheRunner.build("package.mustache", oraclePackage);
-        String pathname   = outputDir + oraclePackage.getJavaClassName() + ".java";
-        FileUtils.writeStringToFile(new File(pathname), CodeFormatter.format(javaSource), "utf-8");
+    private static String getOutputDir(OBridgeConfiguration c) {
+        return c.getSourceRoot() + "/" + (c.getRootPackageName() + "." + c.getPackages().getPackageObjects()).replace(".", "/") + "/";
+    }
+
+    private static void generatePackageObject(GenerationContext context, GenerationManifest manifest, Set<String> sources, String outputDir,
+                                              OraclePackage oraclePackage) throws IOException {
+        String pathname = outputDir + oraclePackage.getJavaClassName() + ".java";
+        if (manifest.isUpToDate(pathname, sources)) {
+            context.getSourceWriter().unchanged(pathname);
+            log.info(" ... " + oraclePackage.getJavaClassName() + " (unchanged)");
+            return;
+        }
+
+        String javaSource = context.getTemplates().render("package.mustache", oraclePackage);
+        context.getSourceWriter().write(pathname, context.getFormatter().formatSource(javaSource));
+        manifest.record(pathname, sources);
         log.info(" ... " + oraclePackage.getJavaClassName());
     }
 
-    private static void generateStoredProcedureCallExceptionClass(String packageName, String outputDir) throws IOException {
+    private static void generateStoredProcedureCallExceptionClass(GenerationContext context, GenerationManifest manifest, String packageName,
+                                                                  String outputDir) throws IOException {
+        String pathname = outputDir + "StoredProcedureCallException.java";
+        if (manifest.isUpToDate(pathname, Collections.emptySet())) {
+            context.getSourceWriter().unchanged(pathname);
+            return;
+        }
+
         OraclePackage op = new OraclePackage();
         op.setJavaPackageName(packageName);
-        String javaSource = MustacheRunner.build("StoredProcedureCallException.java.mustache", op);
-        String pathname   = outputDir + "StoredProcedureCallException.java";
-        FileUtils.writeStringToFile(new File(pathname), CodeFormatter.format(javaSource), "utf-8");
+        String javaSource = context.getTemplates().render("StoredProcedureCallException.java.mustache", op);
+        context.getSourceWriter().write(pathname, context.getFormatter().formatSource(javaSource));
+        manifest.record(pathname, Collections.emptySet());
         log.info(" ... StoredProcedureCallException");
     }
 }
@@ -24,22 +24,25 @@
 
 package org.obridge.generators;
 
-import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.obridge.cache.GenerationManifest;
+import org.obridge.cache.ObjectDependencies;
 import org.obridge.context.OBridgeConfiguration;
-import org.obridge.dao.ProcedureDao;
+import org.obridge.dao.SchemaModelDao;
 import org.obridge.mappers.PojoMapper;
 import org.obridge.model.data.Procedure;
+import org.obridge.model.data.SchemaModel;
 import org.obridge.model.generator.Pojo;
-import org.obridge.util.CodeFormatter;
+import org.obridge.util.BoundedExecutor;
 import org.obridge.util.DataSourceProvider;
-import org.obridge.util.MustacheRunner;
 import org.obridge.util.OBridgeException;
+import org.obridge.util.Profiler;
 
 import java.beans.PropertyVetoException;
-import java.io.File;
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
+import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Created by fkarsany on 2015.01.28..
@@ -49,31 +52,62 @@ public final class ProcedureContextGenerator {
     private ProcedureContextGenerator() {
     }
 
-    public static void generate(OBridgeConfiguration c) {
-
+    public static void generate(GenerationContext context) {
+        OBridgeConfiguration c = context.getConfiguration();
         try {
-            String packageName = c.getRootPackageName() + "." + c.getPackages().getProcedureContextObjects();
-            String objectPackage = c.getRootPackageName() + "." + c.getPackages().getEntityObjects();
-            String outputDir = c.getSourceRoot() + "/" + packageName.replace(".", "/") + "/";
-
-            ProcedureDao procedureDao = new ProcedureDao(DataSourceProvider.getDataSource(c));
+            generate(context, new SchemaModelDao(DataSourceProvider.getDataSource(c), c.getExtractionThreads()).getPackageModel(c));
+        } catch (PropertyVetoException e) {
+            throw new OBridgeException(e);
+        }
+    }
 
-            List<Procedure> allProcedures = procedureDao.getAllProcedure(c.getDbObjects());
+    public static void generate(GenerationContext context, SchemaModel model) {
+        OBridgeConfiguration c        = context.getConfiguration();
+        GenerationManifest   manifest = GenerationManifest.open(context, model.getObjectStatus());
 
-            for (Procedure p : allProcedures) {
-                generateProcedureContext(Boolean.TRUE.equals(c.getUseLombokAccessors()), packageName, objectPackage, outputDir, p);
-            }
-        } catch (PropertyVetoException | IOException e) {
-            throw new OBridgeException(e);
+        try (BoundedExecutor executor = new BoundedExecutor("obridge-render", c.getRenderThreads())) {
+            generate(context, manifest, new ObjectDependencies(model.getTypeAttributes()), model.getAllProcedures(), executor);
         }
+
+        manifest.save();
+    }
+
+    /**
+     * Generates the context classes of the procedures on the executor, recording them in the given manifest.
+     */
+    public static void generate(GenerationContext context, GenerationManifest manifest, ObjectDependencies dependencies, List<Procedure> procedures,
+                                BoundedExecutor executor) {
+        OBridgeConfiguration c = context.getConfiguration();
+        String packageName = c.getRootPackageName() + "." + c.getPackages().getProcedureContextObjects();
+        String objectPackage = c.getRootPackageName() + "." + c.getPackages().getEntityObjects();
+        String outputDir = c.getSourceRoot() + "/" + packageName.replace(".", "/") + "/";
+
+        // profiled per package rather than per procedure
+        executor.forEach(procedures, p -> Profiler.unit("ProcedureContextGenerator", p.getOwner() + "." + StringUtils.defaultIfBlank(p.getObjectName(), p.getProcedureName()),
+                                                        () -> generateProcedureContext(context, manifest, dependencies.ofProcedures(Collections.singletonList(p)),
+                                                                                       Boolean.TRUE.equals(c.getUseLombokAccessors()), packageName, objectPackage,
+                                                                                       outputDir, p)));
     }
 
-    private static void generateProcedureContext(boolean lombok, String packageName, String objectPackage, String outputDir, Procedure p) throws IOException {
+    private static void generateProcedureContext(GenerationContext context, GenerationManifest manifest, Set<String> sources,
+                                                 boolean lombok, String packageName, String objectPackage, String outputDir, Procedure p) {
         Pojo pojo = PojoMapper.procedureToPojo(lombok, p);
+
+        String fileName = outputDir + pojo.getClassName() + ".java";
+        if (manifest.isUpToDate(fileName, sources)) {
+            context.getSourceWriter().unchanged(fileName);
+            return;
+        }
+
         pojo.setPackageName(packageName);
         pojo.setGeneratorName("org.obridge.generators.ProcedureContextGenerator");
         pojo.getImports().add(objectPackage + ".*");
-        String javaSource = MustacheRunner.build("pojo.mustache", pojo);
-        FileUtils.writeStringToFile(new File(outputDir + pojo.getClassName() + ".java"), CodeFormatter.format(javaSource), StandardCharsets.UTF_8);
+        try {
+            String javaSource = context.getTemplates().render("pojo.mustache", pojo);
+            context.getSourceWriter().write(fileName, context.getFormatter().formatSource(javaSource));
+            manifest.record(fileName, sources);
+        } catch (IOException e) {
+            throw new OBridgeException(e);
+        }
     }
 }
@@ -0,0 +1,101 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Ferenc Karsany
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+
+
+package org.obridge.generators;
+
+import lombok.extern.log4j.Log4j2;
+import org.obridge.cache.GenerationManifest;
+import org.obridge.cache.ObjectDependencies;
+import org.obridge.context.OBridgeConfiguration;
+import org.obridge.dao.SchemaModelDao;
+import org.obridge.model.data.SchemaModel;
+import org.obridge.model.dto.ObjectStatusDto;
+import org.obridge.model.dto.TypeIdDto;
+import org.obridge.util.BoundedExecutor;
+import org.obridge.util.DataSourceProvider;
+import org.obridge.util.OBridgeException;
+import org.obridge.util.Profiler;
+
+import java.beans.PropertyVetoException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Generates every source with the packages extracted, rendered and written one at a time, so the memory needed is
+ * bounded by the largest package instead of the whole schema.
+ * <p>
+ * The object types are generated first from the type model. With referencedTypesOnly they are generated last instead,
+ * from the types the streamed procedures referred to; the package classes then depend on their argument types only
+ * for incremental generation.
+ */
+@Log4j2
+public final class StreamingGenerator {
+
+    private StreamingGenerator() {
+    }
+
+    public static void generate(GenerationContext context) {
+        OBridgeConfiguration c = context.getConfiguration();
+        try {
+            SchemaModelDao schemaModelDao      = new SchemaModelDao(DataSourceProvider.getDataSource(c), c.getExtractionThreads());
+            boolean        referencedTypesOnly = Boolean.TRUE.equals(c.getReferencedTypesOnly());
+
+            SchemaModel typeModel = referencedTypesOnly ? null : schemaModelDao.getTypeModel(c);
+            if (typeModel != null) {
+                EntityObjectGenerator.generate(context, typeModel);
+                ConverterObjectGenerator.generate(context, typeModel);
+            }
+
+            log.info("Package Object Generator (streaming)");
+
+            Map<String, ObjectStatusDto> objectStatus = typeModel != null ? typeModel.getObjectStatus() : schemaModelDao.getObjectStatus(c);
+            GenerationManifest           manifest     = GenerationManifest.open(context, objectStatus);
+            ObjectDependencies           dependencies = new ObjectDependencies(typeModel != null ? typeModel.getTypeAttributes()
+                                                                                                 : Collections.emptyMap());
+
+            List<TypeIdDto> referencedTypes;
+            try (BoundedExecutor executor = new BoundedExecutor("obridge-render", c.getRenderThreads())) {
+                referencedTypes = schemaModelDao.forEachPackage(c, objectStatus, oraclePackage -> {
+                    ProcedureContextGenerator.generate(context, manifest, dependencies, oraclePackage.getProcedureList(), executor);
+                    Profiler.unit("PackageObjectGenerator", oraclePackage.getOwner() + "." + oraclePackage.getName(),
+                                  () -> PackageObjectGenerator.generate(context, manifest, dependencies, oraclePackage));
+                });
+            }
+
+            PackageObjectGenerator.generateStoredProcedureCallException(context, manifest);
+
+            manifest.save();
+
+            if (referencedTypesOnly) {
+                typeModel = schemaModelDao.getTypeModel(c, referencedTypes);
+                EntityObjectGenerator.generate(context, typeModel);
+                ConverterObjectGenerator.generate(context, typeModel);
+            }
+        } catch (PropertyVetoException e) {
+            throw new OBridgeException(e);
+        }
+    }
+}
@@ -27,9 +27,11 @@ package org.obridge.model.data;
 import lombok.Getter;
 import lombok.Setter;
 import org.obridge.mappers.builders.CallStringBuilder;
+import org.obridge.util.Profiler;
 import org.obridge.util.StringHelper;
 import org.obridge.util.TypeMapper;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -46,14 +48,33 @@ public class Procedure {
     private String overload;
     private String methodType;
     private List<ProcedureArgument> argumentList;
-    private List<BindParam> bindParams = null;
-    private String callString;
-    private String completeDbName;
-    private boolean needReturn;
+    private transient List<BindParam> bindParams = null;
+    private transient String callString;
+    private transient String completeDbName;
+    private transient boolean needReturn;
 
     private Procedure() {
     }
 
+    private void initBindParams() {
+        Profiler.measure(Profiler.Phase.MODEL, () -> {
+            CallStringBuilder callStringBuilder = new CallStringBuilder(this);
+            this.callString = callStringBuilder.build();
+            this.bindParams = callStringBuilder.getBindParams();
+            this.completeDbName = callStringBuilder.getCompleteDbName();
+            this.needReturn = this.bindParams.stream().anyMatch(BindParam::isOutParam);
+            return null;
+        });
+    }
+
+    /**
+     * The call string and the bind parameters are derived data, they are rebuilt when a persisted procedure is read back.
+     */
+    private Object readResolve() {
+        initBindParams();
+        return this;
+    }
+
     public String getJavaProcedureName() {
         String r = StringHelper.toCamelCaseSmallBegin(this.procedureName + "_" + this.overload);
         return StringHelper.unJavaKeyword(r);
@@ -125,21 +146,13 @@ public class Procedure {
         }
 
         public Builder argumentList(List<ProcedureArgument> argumentList) {
-            this.p.setArgumentList(argumentList);
+            this.p.setArgumentList(new ArrayList<>(argumentList));
             return this;
         }
 
         public Procedure build() {
-            initBindParams();
+            p.initBindParams();
             return p;
         }
-
-        private void initBindParams() {
-            CallStringBuilder callStringBuilder = new CallStringBuilder(p);
-            p.callString = callStringBuilder.build();
-            p.bindParams = callStringBuilder.getBindParams();
-            p.completeDbName = callStringBuilder.getCompleteDbName();
-            p.needReturn = p.bindParams.stream().anyMatch(BindParam::isOutParam);
-        }
     }
 }
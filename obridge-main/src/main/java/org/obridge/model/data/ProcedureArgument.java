@@ -41,15 +41,22 @@ public class ProcedureArgument {
     private boolean inParam;
     private boolean outParam;
     private String origTypeName;
+    private String typeOwner;
     private int sequenceNumber;
 
     public ProcedureArgument(String argumentName, String dataType, String typeName, boolean inParam, boolean outParam, String origTypeName) {
+        this(argumentName, dataType, typeName, inParam, outParam, origTypeName, null);
+    }
+
+    public ProcedureArgument(String argumentName, String dataType, String typeName, boolean inParam, boolean outParam, String origTypeName,
+                             String typeOwner) {
         this.argumentName = argumentName;
         this.dataType = dataType;
         this.typeName = typeName;
         this.inParam = inParam;
         this.outParam = outParam;
         this.origTypeName = origTypeName;
+        this.typeOwner = typeOwner;
     }
 
 
@@ -205,9 +212,6 @@ public class ProcedureArgument {
     public String getParamGet() {
         String callGet = "call.get(\"" + (argumentName == null || argumentName.isEmpty() ? "FUNCTION_RESULT" : argumentName) + "\")";
 
-        System.out.println(callGet);
-        System.out.println(this.toString());
-
         if ("OBJECT".equals(dataType)) {
             return String.format("ctx.set%s(%sConverter.getObject((Struct)%s));", getJavaPropertyNameBig(), getJavaDataType(), callGet);
         } else if (TABLE_DATATYPE_NAME.equals(dataType)) {
@@ -234,10 +238,18 @@ public class ProcedureArgument {
         this.sequenceNumber = sequenceNumber;
     }
 
+    public String getTypeName() {
+        return typeName;
+    }
+
     public String getOrigTypeName() {
         return origTypeName;
     }
 
+    public String getTypeOwner() {
+        return typeOwner;
+    }
+
 
     public boolean isOutputBooleanArgument() {
         return getArgumentName() != null && isJDBCTypeBoolean() && isOutParam();
@@ -253,6 +265,7 @@ public class ProcedureArgument {
                 ", inParam=" + inParam +
                 ", outParam=" + outParam +
                 ", origTypeName='" + origTypeName + '\'' +
+                ", typeOwner='" + typeOwner + '\'' +
                 ", sequenceNumber=" + sequenceNumber +
                 '}';
     }
@@ -0,0 +1,78 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Ferenc Karsany
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+
+package org.obridge.model.data;
+
+import org.obridge.model.dto.ObjectStatusDto;
+import org.obridge.model.dto.TypeIdDto;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Everything the generators need from the database: the object types with their attributes, the packages (standalone
+ * procedures and functions are in the PROCEDURES_AND_FUNCTIONS pseudo package) and the status of the source objects
+ * for incremental generation.
+ * <p>
+ * The model is extracted once and shared by every generator, its collections cannot be modified.
+ */
+public class SchemaModel {
+
+    private final List<TypeIdDto>                     types;
+    private final Map<TypeIdDto, List<TypeAttribute>> typeAttributes;
+    private final List<OraclePackage>                 packages;
+    private final Map<String, ObjectStatusDto>        objectStatus;
+
+    public SchemaModel(List<TypeIdDto> types, Map<TypeIdDto, List<TypeAttribute>> typeAttributes, List<OraclePackage> packages,
+                       Map<String, ObjectStatusDto> objectStatus) {
+        this.types = new ArrayList<>(types);
+        this.typeAttributes = new LinkedHashMap<>(typeAttributes);
+        this.packages = new ArrayList<>(packages);
+        this.objectStatus = new LinkedHashMap<>(objectStatus);
+    }
+
+    public List<TypeIdDto> getTypes() {
+        return Collections.unmodifiableList(types);
+    }
+
+    public Map<TypeIdDto, List<TypeAttribute>> getTypeAttributes() {
+        return Collections.unmodifiableMap(typeAttributes);
+    }
+
+    public List<OraclePackage> getPackages() {
+        return Collections.unmodifiableList(packages);
+    }
+
+    public Map<String, ObjectStatusDto> getObjectStatus() {
+        return Collections.unmodifiableMap(objectStatus);
+    }
+
+    public List<Procedure> getAllProcedures() {
+        return packages.stream().flatMap(p -> p.getProcedureList().stream()).collect(Collectors.toList());
+    }
+}
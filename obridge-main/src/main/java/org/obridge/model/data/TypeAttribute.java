@@ -37,8 +37,14 @@ public class TypeAttribute {
     private int multiType;
     private String typeCode;
     private String collectionBaseType;
+    private String attrTypeOwner;
 
     public TypeAttribute(String attrName, String attrTypeName, int attrNo, int dataScale, int multiType, String typeCode, String collectionBaseType) {
+        this(attrName, attrTypeName, attrNo, dataScale, multiType, typeCode, collectionBaseType, null);
+    }
+
+    public TypeAttribute(String attrName, String attrTypeName, int attrNo, int dataScale, int multiType, String typeCode, String collectionBaseType,
+                         String attrTypeOwner) {
         this.attrName = attrName;
         this.attrTypeName = attrTypeName;
         this.attrNo = attrNo;
@@ -46,8 +52,7 @@ public class TypeAttribute {
         this.multiType = multiType;
         this.typeCode = typeCode;
         this.collectionBaseType = collectionBaseType;
-
-
+        this.attrTypeOwner = attrTypeOwner;
     }
 
     public String getAttrName() {
@@ -58,6 +63,26 @@ public class TypeAttribute {
         return attrTypeName;
     }
 
+    public String getCollectionBaseType() {
+        return collectionBaseType;
+    }
+
+    /**
+     * The owner of a user defined attribute type, null for the built-in types and when it is not known (the type is
+     * then looked up under the owner of the containing type).
+     */
+    public String getAttrTypeOwner() {
+        return attrTypeOwner;
+    }
+
+    /**
+     * Whether the attribute type is a user defined type (object, collection or record) instead of a built-in one like
+     * VARCHAR2 or NUMBER.
+     */
+    public boolean isUserDefinedType() {
+        return multiType == 1;
+    }
+
     public String getJavaDataType() {
         if (multiType == 1) {
             if (TypeMapper.ORACLE_COLLECTION.equals(typeCode)) {
@@ -0,0 +1,40 @@
+package org.obridge.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One row of ALL_ARGUMENTS, at any data level.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ArgumentDto {
+
+    private String  owner;
+    private long    objectId;
+    private long    subprogramId;
+    private int     dataLevel;
+    private String  argumentName;
+    private String  dataType;
+    private Integer dataScale;
+    private String  typeOwner;
+    private String  typeName;
+    private String  typeSubname;
+
+    public boolean isRecord() {
+        return "PL/SQL RECORD".equals(dataType) || "OBJECT".equals(dataType);
+    }
+
+    public boolean isCollection() {
+        return "TABLE".equals(dataType) || "VARRAY".equals(dataType) || "PL/SQL TABLE".equals(dataType);
+    }
+
+    /**
+     * The type name as JDBC knows it, package types are qualified by the package name.
+     */
+    public String getQualifiedTypeName() {
+        return typeSubname == null ? typeName : typeName + "." + typeSubname;
+    }
+}
@@ -0,0 +1,17 @@
+package org.obridge.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CollectionTypeDto {
+
+    private String  owner;
+    private String  typeName;
+    private String  elemTypeName;
+    private Integer scale;
+
+}
@@ -0,0 +1,32 @@
+package org.obridge.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ObjectStatusDto {
+
+    public static final String VALID = "VALID";
+
+    private String owner;
+    private String objectName;
+    private String objectType;
+    private String lastDdlTime;
+    private String status;
+
+    public static String key(String objectType, String owner, String objectName) {
+        return objectType + ":" + owner + "." + objectName;
+    }
+
+    public String getKey() {
+        return key(objectType, owner, objectName);
+    }
+
+    public boolean isValid() {
+        return VALID.equals(status);
+    }
+
+}
@@ -0,0 +1,152 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Ferenc Karsany
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+
+package org.obridge.util;
+
+import lombok.extern.log4j.Log4j2;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Runs independent tasks on a fixed number of threads and returns their results in submission order, so callers get
+ * the same result as a serial run. With one thread the tasks are executed inline on the calling thread.
+ * <p>
+ * A thread exit action runs on every worker thread when the executor is closed, for example to return the connection
+ * the thread pinned in a {@link org.obridge.util.jdbc.JdbcTemplate} session. {@link #close()} waits for it.
+ */
+@Log4j2
+public final class BoundedExecutor implements AutoCloseable {
+
+    private final ExecutorService executorService;
+
+    public BoundedExecutor(String name, int threads) {
+        this(name, threads, null);
+    }
+
+    public BoundedExecutor(String name, int threads, Runnable threadExit) {
+        if (threads > 1) {
+            this.executorService = Executors.newFixedThreadPool(threads, new NamedThreadFactory(name, threadExit));
+        } else {
+            this.executorService = null;
+        }
+    }
+
+    public <T, R> List<R> map(List<T> items, Function<T, R> task) {
+        List<R> ret = new ArrayList<>(items.size());
+
+        if (executorService == null) {
+            for (T item : items) {
+                ret.add(task.apply(item));
+            }
+            return ret;
+        }
+
+        List<Future<R>> futures = new ArrayList<>(items.size());
+        for (T item : items) {
+            futures.add(executorService.submit(() -> task.apply(item)));
+        }
+
+        try {
+            for (Future<R> future : futures) {
+                ret.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new OBridgeException("Interrupted while waiting for parallel tasks", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new OBridgeException(e.getCause());
+        } finally {
+            futures.forEach(f -> f.cancel(true));
+        }
+
+        return ret;
+    }
+
+    public <T> void forEach(List<T> items, Consumer<T> task) {
+        map(items, item -> {
+            task.accept(item);
+            return item;
+        });
+    }
+
+    /**
+     * Stops the worker threads and waits until they have run their exit action. Running tasks were cancelled by
+     * {@link #map(List, Function)} already.
+     */
+    @Override
+    public void close() {
+        if (executorService == null) {
+            return;
+        }
+
+        executorService.shutdown();
+        try {
+            while (!executorService.awaitTermination(1, TimeUnit.SECONDS)) {
+                log.debug("Waiting for the worker threads to finish");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            executorService.shutdownNow();
+        }
+    }
+
+    private static final class NamedThreadFactory implements ThreadFactory {
+
+        private final String        name;
+        private final Runnable      threadExit;
+        private final AtomicInteger counter = new AtomicInteger();
+
+        private NamedThreadFactory(String name, Runnable threadExit) {
+            this.name = name;
+            this.threadExit = threadExit;
+        }
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Runnable task = threadExit == null ? r : () -> {
+                try {
+                    r.run();
+                } finally {
+                    threadExit.run();
+                }
+            };
+            Thread t = new Thread(task, name + "-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        }
+    }
+}
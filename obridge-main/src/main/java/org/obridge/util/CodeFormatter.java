@@ -24,24 +24,66 @@
 
 package org.obridge.util;
 
-import com.github.abrarsyed.jastyle.ASFormatter;
-import com.github.abrarsyed.jastyle.FormatterHelper;
-import com.github.abrarsyed.jastyle.constants.EnumFormatStyle;
-
-import java.io.StringReader;
+import org.obridge.context.OBridgeConfiguration;
+import org.obridge.util.format.IndentingFormatter;
+import org.obridge.util.format.JAstyleFormatter;
+import org.obridge.util.format.SourceFormatter;
 
 /**
+ * Formats the generated sources with the configured {@link SourceFormatter}, jAstyle by default. One instance is
+ * created per generation run.
+ *
  * Created by fkarsany on 2015.03.11..
  */
 public final class CodeFormatter {
 
-    private CodeFormatter() {
+    private static final CodeFormatter DEFAULT = new CodeFormatter(new JAstyleFormatter());
+
+    private final SourceFormatter formatter;
+
+    /**
+     * Applies the formatter setting.
+     */
+    public CodeFormatter(OBridgeConfiguration c) {
+        this(create(c.getFormatter()));
+    }
+
+    private CodeFormatter(SourceFormatter formatter) {
+        this.formatter = formatter;
     }
 
+    /**
+     * Formats with jAstyle, as before the formatter became configurable.
+     *
+     * @deprecated use {@link #formatSource(String)} of the run's formatter, which applies the formatter setting
+     */
+    @Deprecated
     public static String format(String javaSource) {
-        ASFormatter formatter = new ASFormatter();
-        formatter.setFormattingStyle(EnumFormatStyle.JAVA);
-        formatter.setDeleteEmptyLinesMode(true);
-        return FormatterHelper.format(new StringReader(javaSource), formatter);
+        return DEFAULT.formatSource(javaSource);
+    }
+
+    /**
+     * The formatter with the given name: jastyle, indent, none, or the class name of a {@link SourceFormatter}
+     * implementation.
+     */
+    public static SourceFormatter create(String name) {
+        switch (name) {
+            case OBridgeConfiguration.FORMATTER_JASTYLE:
+                return new JAstyleFormatter();
+            case OBridgeConfiguration.FORMATTER_INDENT:
+                return new IndentingFormatter();
+            case OBridgeConfiguration.FORMATTER_NONE:
+                return SourceFormatter.NONE;
+            default:
+                try {
+                    return (SourceFormatter) Class.forName(name).getDeclaredConstructor().newInstance();
+                } catch (ReflectiveOperationException | ClassCastException e) {
+                    throw new OBridgeException("Unknown formatter '" + name + "', use jastyle, indent, none or a SourceFormatter class name", e);
+                }
+        }
+    }
+
+    public String formatSource(String javaSource) {
+        return Profiler.measure(Profiler.Phase.FORMAT, () -> formatter.format(javaSource));
     }
 }
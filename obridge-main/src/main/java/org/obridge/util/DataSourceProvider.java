@@ -25,40 +25,103 @@
 package org.obridge.util;
 
 import com.mchange.v2.c3p0.ComboPooledDataSource;
+import org.obridge.context.ConnectionPool;
 import org.obridge.context.OBridgeConfiguration;
 
 import javax.sql.DataSource;
 import java.beans.PropertyVetoException;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
  * @author fkarsany
+ * <p>
+ * Pools are shared by configurations with the same URL and credentials. A pool lives while a generation run holds it
+ * ({@link #retain(OBridgeConfiguration)} / {@link #release(OBridgeConfiguration)}), so several runs in one JVM (for
+ * example Maven plugin executions) do not leak connections.
  */
 public final class DataSourceProvider {
 
-    private static Map<String, ComboPooledDataSource> dataSourcePool = null;
+    public static final int DEFAULT_CHECKOUT_TIMEOUT = 60;
+
+    private static final Map<List<String>, Pool> dataSourcePool = new HashMap<>();
 
     private DataSourceProvider() {
     }
 
-    public static DataSource getDataSource(OBridgeConfiguration c) throws PropertyVetoException {
-        if (dataSourcePool == null) {
-            dataSourcePool = new HashMap<>();
+    public static synchronized DataSource getDataSource(OBridgeConfiguration c) throws PropertyVetoException {
+        return getPool(c).dataSource;
+    }
+
+    /**
+     * Marks the pool of the configuration as used by a generation run until {@link #release(OBridgeConfiguration)}.
+     */
+    public static synchronized void retain(OBridgeConfiguration c) throws PropertyVetoException {
+        getPool(c).users++;
+    }
+
+    /**
+     * Closes the pool of the configuration when the last generation run using it has finished.
+     */
+    public static synchronized void release(OBridgeConfiguration c) {
+        List<String> key  = getKey(c);
+        Pool         pool = dataSourcePool.get(key);
+
+        if (pool != null && --pool.users <= 0) {
+            dataSourcePool.remove(key);
+            pool.dataSource.close();
         }
+    }
 
-        String jdbcUrl = c.getJdbcUrl();
+    private static Pool getPool(OBridgeConfiguration c) throws PropertyVetoException {
+        List<String> key  = getKey(c);
+        Pool         pool = dataSourcePool.get(key);
 
-        if (!dataSourcePool.containsKey(jdbcUrl)) {
-            ComboPooledDataSource dataSource = new ComboPooledDataSource();
-            dataSource.setDriverClass("oracle.jdbc.OracleDriver");
-            dataSource.setJdbcUrl(jdbcUrl);
-            dataSource.setUser(c.getUsername());
-            dataSource.setPassword(c.getPassword());
+        if (pool == null) {
+            pool = new Pool(createDataSource(c));
+            dataSourcePool.put(key, pool);
+        }
+
+        return pool;
+    }
 
-            dataSourcePool.put(jdbcUrl, dataSource);
+    private static List<String> getKey(OBridgeConfiguration c) {
+        return Arrays.asList(c.getJdbcUrl(), c.getUsername(), c.getPassword());
+    }
+
+    private static ComboPooledDataSource createDataSource(OBridgeConfiguration c) throws PropertyVetoException {
+        ConnectionPool connectionPool = c.getConnectionPool() == null ? new ConnectionPool() : c.getConnectionPool();
+
+        // the extraction threads pin one connection each while they live, the thread coordinating them one more
+        int maxPoolSize = connectionPool.getMaxPoolSize() == null ? c.getExtractionThreads() + 1 : connectionPool.getMaxPoolSize();
+        int minPoolSize = connectionPool.getMinPoolSize() == null ? 1 : Math.min(connectionPool.getMinPoolSize(), maxPoolSize);
+        int checkoutTimeout = connectionPool.getCheckoutTimeout() == null ? DEFAULT_CHECKOUT_TIMEOUT : connectionPool.getCheckoutTimeout();
+
+        ComboPooledDataSource dataSource = new ComboPooledDataSource();
+        dataSource.setDriverClass("oracle.jdbc.OracleDriver");
+        dataSource.setJdbcUrl(c.getJdbcUrl());
+        dataSource.setUser(c.getUsername());
+        dataSource.setPassword(c.getPassword());
+        dataSource.setMinPoolSize(minPoolSize);
+        dataSource.setInitialPoolSize(minPoolSize);
+        dataSource.setMaxPoolSize(maxPoolSize);
+        dataSource.setCheckoutTimeout(checkoutTimeout * 1000);
+        if (connectionPool.getStatementCacheSize() != null) {
+            dataSource.setMaxStatementsPerConnection(connectionPool.getStatementCacheSize());
         }
 
-        return dataSourcePool.get(jdbcUrl);
+        return dataSource;
+    }
+
+    private static final class Pool {
+
+        private final ComboPooledDataSource dataSource;
+        private       int                   users;
+
+        private Pool(ComboPooledDataSource dataSource) {
+            this.dataSource = dataSource;
+        }
     }
 }
@@ -26,25 +26,164 @@ package org.obridge.util;
 
 import com.github.mustachejava.DefaultMustacheFactory;
 import com.github.mustachejava.Mustache;
-import com.github.mustachejava.MustacheFactory;
+import lombok.extern.log4j.Log4j2;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.obridge.context.OBridgeConfiguration;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
 import java.io.StringWriter;
 import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
+ * Renders the Mustache templates.
+ * <p>
+ * There is one runner per template directory for the life of the process, so the templates are compiled once and
+ * cached by name across the generation runs of a watcher or a build running OBridge several times. A template found
+ * in the configured template directory overrides the one shipped with OBridge, and is compiled again whenever its
+ * modification time changes.
+ * <p>
+ * The snippets rendered from inside a template (the parameter getters) go through the static {@link #build}, which
+ * uses the runner currently rendering on the thread, or the built-in templates outside of a render.
+ *
  * Created by fkarsany on 2015.01.03..
  */
+@Log4j2
 public final class MustacheRunner {
 
-    private MustacheRunner() {
+    /**
+     * The templates shipped with OBridge.
+     */
+    public static final List<String> TEMPLATES = Arrays.asList("pojo.mustache",
+                                                               "converter.mustache",
+                                                               "package.mustache",
+                                                               "PrimitiveTypeConverter.java.mustache",
+                                                               "StoredProcedureCallException.java.mustache",
+                                                               "sniplets/BOOLEAN-GET.mustache",
+                                                               "sniplets/DEFAULT-GET.mustache",
+                                                               "sniplets/LIST-GET.mustache",
+                                                               "sniplets/LIST-PRIMITIVE-GET.mustache",
+                                                               "sniplets/OBJECT-GET.mustache");
+
+    private static final MustacheRunner              BUILT_IN = new MustacheRunner(null);
+    private static final ThreadLocal<MustacheRunner> ACTIVE   = new ThreadLocal<>();
+    private static final Map<File, MustacheRunner>   RUNNERS  = new ConcurrentHashMap<>();
+
+    private final DefaultMustacheFactory        factory       = new DefaultMustacheFactory();
+    private final Map<String, CompiledTemplate> templateCache = new ConcurrentHashMap<>();
+    private final File                          templateDirectory;
+
+    /**
+     * @param templateDirectory directory of the user templates overriding the built-in ones, null to use the built-in
+     *                          templates only
+     */
+    public MustacheRunner(File templateDirectory) {
+        this.templateDirectory = templateDirectory;
+    }
+
+    /**
+     * The shared runner of the configured template directory, precompiled if precompileTemplates is set.
+     */
+    public static MustacheRunner create(OBridgeConfiguration c) {
+        MustacheRunner runner = StringUtils.isBlank(c.getTemplateDirectory())
+                                ? BUILT_IN
+                                : RUNNERS.computeIfAbsent(new File(c.getTemplateDirectory()).getAbsoluteFile().toPath().normalize().toFile(), MustacheRunner::new);
 
+        if (Boolean.TRUE.equals(c.getPrecompileTemplates())) {
+            runner.precompile();
+        }
+        return runner;
     }
 
+    /**
+     * Renders a template with the runner currently rendering on this thread, or with the built-in templates.
+     */
     public static String build(String templateName, Object backingObject) {
-        MustacheFactory mf = new DefaultMustacheFactory();
-        Mustache mustache = mf.compile(templateName);
-        Writer execute = mustache.execute(new StringWriter(), backingObject);
-        return execute.toString();
+        MustacheRunner active = ACTIVE.get();
+        return (active == null ? BUILT_IN : active).render(templateName, backingObject);
+    }
+
+    /**
+     * Compiles every built-in template (or its override) up front, so a broken template fails before anything is
+     * generated.
+     */
+    public void precompile() {
+        TEMPLATES.forEach(this::getTemplate);
+    }
+
+    /**
+     * The source of a template: its override in the template directory, or the built-in template.
+     */
+    public String getTemplateSource(String templateName) {
+        File override = templateDirectory == null ? null : new File(templateDirectory, templateName);
+
+        try (Reader reader = override != null && override.isFile() ? Files.newBufferedReader(override.toPath(), StandardCharsets.UTF_8)
+                                                                   : factory.getReader(templateName)) {
+            return IOUtils.toString(reader);
+        } catch (IOException e) {
+            throw new OBridgeException("Cannot read template " + templateName, e);
+        }
     }
 
+    public String render(String templateName, Object backingObject) {
+        return Profiler.measure(Profiler.Phase.RENDER, () -> {
+            MustacheRunner previous = ACTIVE.get();
+            ACTIVE.set(this);
+            try {
+                Writer execute = getTemplate(templateName).execute(new StringWriter(), backingObject);
+                return execute.toString();
+            } finally {
+                if (previous == null) {
+                    ACTIVE.remove();
+                } else {
+                    ACTIVE.set(previous);
+                }
+            }
+        });
+    }
+
+    Mustache getTemplate(String templateName) {
+        File override = templateDirectory == null ? null : new File(templateDirectory, templateName);
+        long modified = override != null && override.isFile() ? override.lastModified() : 0L;
+
+        CompiledTemplate template = templateCache.get(templateName);
+        if (template == null || template.modified != modified) {
+            template = templateCache.compute(templateName, (name, cached) -> cached != null && cached.modified == modified
+                                                                             ? cached
+                                                                             : new CompiledTemplate(compile(name, modified == 0L ? null : override), modified));
+        }
+        return template.mustache;
+    }
+
+    private Mustache compile(String templateName, File override) {
+        if (override == null) {
+            return factory.compile(factory.getReader(templateName), templateName);
+        }
+
+        log.info("Using template " + override);
+        try (Reader reader = Files.newBufferedReader(override.toPath(), StandardCharsets.UTF_8)) {
+            return factory.compile(reader, templateName);
+        } catch (IOException e) {
+            throw new OBridgeException("Cannot read template " + override, e);
+        }
+    }
+
+    private static final class CompiledTemplate {
+
+        private final Mustache mustache;
+        private final long     modified;
+
+        private CompiledTemplate(Mustache mustache, long modified) {
+            this.mustache = mustache;
+            this.modified = modified;
+        }
+    }
 }
@@ -0,0 +1,297 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Ferenc Karsany
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+
+
+package org.obridge.util;
+
+import com.thoughtworks.xstream.XStream;
+import com.thoughtworks.xstream.io.HierarchicalStreamWriter;
+import com.thoughtworks.xstream.io.json.JsonHierarchicalStreamDriver;
+import com.thoughtworks.xstream.io.json.JsonWriter;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Wall and CPU time of the phases of a generation run, per generator and per generated unit (package or type).
+ * <p>
+ * The time of a phase measured inside another one is subtracted from the outer phase on the same thread, so the phases
+ * do not overlap. Phases running on several threads are summed over the threads, so their total can exceed the wall
+ * time of the run. Every run has its own profiler: the times are recorded by the profiler activated on the thread
+ * measuring them (inherited by the worker threads of the run), work outside of an activation is not measured.
+ */
+public final class Profiler {
+
+    public enum Phase {
+        EXTRACTION, MODEL, GENERATION, RENDER, FORMAT, WRITE
+    }
+
+    @FunctionalInterface
+    public interface Work<T, E extends Exception> {
+        T run() throws E;
+    }
+
+    public static final int SLOWEST_UNITS = 10;
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    private static final RunLocal<Profiler>        ACTIVE = new RunLocal<>();
+    private static final ThreadLocal<Deque<Frame>> FRAMES = ThreadLocal.withInitial(ArrayDeque::new);
+
+    private final Map<Phase, Collector>   phases     = new EnumMap<>(Phase.class);
+    private final Map<String, Collector>  generators = new ConcurrentHashMap<>();
+    private final Map<UnitKey, Collector> units      = new ConcurrentHashMap<>();
+    private final long                    started    = System.nanoTime();
+
+    public Profiler() {
+        for (Phase phase : Phase.values()) {
+            phases.put(phase, new Collector());
+        }
+    }
+
+    /**
+     * Measures the work of the current thread, and of the threads it starts, until the binding is closed.
+     */
+    public RunLocal.Binding activate() {
+        return ACTIVE.bind(this);
+    }
+
+    /**
+     * Runs the work as the given phase.
+     */
+    public static <T, E extends Exception> T measure(Phase phase, Work<T, E> work) throws E {
+        Profiler active = ACTIVE.get();
+        if (active == null) {
+            return work.run();
+        }
+
+        Deque<Frame> frames = FRAMES.get();
+        Frame        frame  = new Frame(System.nanoTime(), cpuTime());
+
+        frames.push(frame);
+        try {
+            return work.run();
+        } finally {
+            frames.pop();
+
+            long wall = System.nanoTime() - frame.wallStart;
+            long cpu  = cpuTime() - frame.cpuStart;
+            active.phases.get(phase).add(wall - frame.childWall, cpu - frame.childCpu);
+
+            Frame parent = frames.peek();
+            if (parent != null) {
+                parent.childWall += wall;
+                parent.childCpu += cpu;
+            }
+        }
+    }
+
+    /**
+     * Generates one unit (the class of a package, a type or a procedure) with the given generator. The time spent
+     * outside rendering, formatting and writing is accounted as {@link Phase#GENERATION}.
+     */
+    public static void unit(String generator, String unit, Runnable work) {
+        Profiler active = ACTIVE.get();
+        if (active == null) {
+            work.run();
+            return;
+        }
+
+        long wallStart = System.nanoTime();
+        long cpuStart  = cpuTime();
+
+        try {
+            measure(Phase.GENERATION, () -> {
+                work.run();
+                return null;
+            });
+        } finally {
+            long wall = System.nanoTime() - wallStart;
+            long cpu  = cpuTime() - cpuStart;
+            active.generators.computeIfAbsent(generator, g -> new Collector()).add(wall, cpu);
+            active.units.computeIfAbsent(new UnitKey(generator, unit), u -> new Collector()).add(wall, cpu);
+        }
+    }
+
+    private static long cpuTime() {
+        return THREADS.isCurrentThreadCpuTimeSupported() ? THREADS.getCurrentThreadCpuTime() : 0;
+    }
+
+    /**
+     * The wall time since the profiler was created.
+     */
+    public long getElapsedMillis() {
+        return (System.nanoTime() - started) / 1_000_000;
+    }
+
+    public List<Entry> getPhases() {
+        List<Entry> ret = new ArrayList<>();
+        phases.forEach((phase, collector) -> ret.add(collector.toEntry(phase.name().toLowerCase(), null)));
+        return ret;
+    }
+
+    /**
+     * The generators, the slowest first.
+     */
+    public List<Entry> getGenerators() {
+        return generators.entrySet()
+                         .stream()
+                         .map(e -> e.getValue().toEntry(e.getKey(), null))
+                         .sorted(Comparator.comparingLong(Entry::getWallMillis).reversed().thenComparing(Entry::getName))
+                         .collect(Collectors.toList());
+    }
+
+    /**
+     * The {@value #SLOWEST_UNITS} slowest units, the slowest first.
+     */
+    public List<Entry> getSlowestUnits() {
+        return units.entrySet()
+                    .stream()
+                    .sorted(Comparator.comparingLong((Map.Entry<UnitKey, Collector> e) -> e.getValue().wallNanos.sum())
+                                      .reversed()
+                                      .thenComparing(e -> e.getKey().unit))
+                    .limit(SLOWEST_UNITS)
+                    .map(e -> e.getValue().toEntry(e.getKey().unit, e.getKey().generator))
+                    .collect(Collectors.toList());
+    }
+
+    /**
+     * The profile as fixed width text tables for the log.
+     */
+    public String formatTable() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("Total wall time: %d ms%n", getElapsedMillis()));
+        appendTable(sb, "Phase", getPhases(), false);
+        appendTable(sb, "Generator", getGenerators(), false);
+        appendTable(sb, "Slowest units", getSlowestUnits(), true);
+        return sb.toString();
+    }
+
+    private static void appendTable(StringBuilder sb, String title, List<Entry> entries, boolean withGenerator) {
+        int    width  = Math.max(title.length(), entries.stream().mapToInt(e -> e.getName().length()).max().orElse(0));
+        String format = "%-" + width + "s %12s %12s %8s%s%n";
+
+        sb.append(String.format(format, title, "Wall (ms)", "CPU (ms)", "Count", withGenerator ? "  Generator" : ""));
+        for (Entry e : entries) {
+            sb.append(String.format(format, e.getName(), e.getWallMillis(), e.getCpuMillis(), e.getCount(),
+                                    withGenerator ? "  " + e.getGenerator() : ""));
+        }
+    }
+
+    /**
+     * Writes the profile as a JSON object.
+     */
+    public void writeJson(File file) {
+        XStream xStream = new XStream(new JsonHierarchicalStreamDriver() {
+            @Override
+            public HierarchicalStreamWriter createWriter(Writer out) {
+                return new JsonWriter(out, JsonWriter.DROP_ROOT_MODE);
+            }
+        });
+        xStream.alias("profile", Report.class);
+        xStream.alias("entry", Entry.class);
+
+        try {
+            Files.createDirectories(file.getAbsoluteFile().getParentFile().toPath());
+            try (Writer writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+                xStream.toXML(new Report(getElapsedMillis(), getPhases(), getGenerators(), getSlowestUnits()), writer);
+            }
+        } catch (IOException e) {
+            throw new OBridgeException("Cannot write profile " + file, e);
+        }
+    }
+
+    private static final class Frame {
+        private final long wallStart;
+        private final long cpuStart;
+        private       long childWall;
+        private       long childCpu;
+
+        private Frame(long wallStart, long cpuStart) {
+            this.wallStart = wallStart;
+            this.cpuStart = cpuStart;
+        }
+    }
+
+    private static final class Collector {
+        private final LongAdder count     = new LongAdder();
+        private final LongAdder wallNanos = new LongAdder();
+        private final LongAdder cpuNanos  = new LongAdder();
+
+        private void add(long wall, long cpu) {
+            count.increment();
+            wallNanos.add(wall);
+            cpuNanos.add(cpu);
+        }
+
+        private Entry toEntry(String name, String generator) {
+            return new Entry(name, generator, count.sum(), wallNanos.sum() / 1_000_000, cpuNanos.sum() / 1_000_000);
+        }
+    }
+
+    @EqualsAndHashCode
+    @AllArgsConstructor
+    private static final class UnitKey {
+        private final String generator;
+        private final String unit;
+    }
+
+    @Getter
+    @AllArgsConstructor(access = AccessLevel.PRIVATE)
+    public static final class Entry {
+        private final String name;
+        private final String generator;
+        private final long   count;
+        private final long   wallMillis;
+        private final long   cpuMillis;
+    }
+
+    @Getter
+    @AllArgsConstructor(access = AccessLevel.PRIVATE)
+    private static final class Report {
+        private final long        wallMillis;
+        private final List<Entry> phases;
+        private final List<Entry> generators;
+        private final List<Entry> slowestUnits;
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Ferenc Karsany
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+
+
+package org.obridge.util;
+
+/**
+ * A value owned by one run (a generation or an export): bound on the thread starting the run and inherited by the
+ * worker threads started during the run, so concurrent runs in one JVM never see each other's value.
+ */
+public final class RunLocal<T> {
+
+    private final ThreadLocal<T> value = new InheritableThreadLocal<>();
+
+    /**
+     * The value bound on the current thread, or null outside of any run.
+     */
+    public T get() {
+        return value.get();
+    }
+
+    /**
+     * Binds the value to the current thread until the returned binding is closed, then restores the previous one.
+     */
+    public Binding bind(T runValue) {
+        T previous = value.get();
+        value.set(runValue);
+        return () -> {
+            if (previous == null) {
+                value.remove();
+            } else {
+                value.set(previous);
+            }
+        };
+    }
+
+    public interface Binding extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
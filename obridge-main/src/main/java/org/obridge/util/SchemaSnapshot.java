@@ -0,0 +1,64 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Ferenc Karsany
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+
+package org.obridge.util;
+
+import com.thoughtworks.xstream.XStreamException;
+import org.obridge.model.data.SchemaModel;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+
+/**
+ * Reads and writes a {@link SchemaModel} as a portable XML snapshot, so sources can be generated without a database
+ * connection.
+ */
+public final class SchemaSnapshot {
+
+    private SchemaSnapshot() {
+    }
+
+    public static void write(SchemaModel model, File file) {
+        try {
+            File parent = file.getAbsoluteFile().getParentFile();
+            Files.createDirectories(parent.toPath());
+            try (OutputStream os = Files.newOutputStream(file.toPath())) {
+                XStreamFactory.createMetadataXStream().toXML(model, os);
+            }
+        } catch (IOException | XStreamException e) {
+            throw new OBridgeException("Cannot write snapshot " + file, e);
+        }
+    }
+
+    public static SchemaModel read(File file) {
+        try (InputStream is = Files.newInputStream(file.toPath())) {
+            return (SchemaModel) XStreamFactory.createMetadataXStream().fromXML(is);
+        } catch (IOException | XStreamException | ClassCastException e) {
+            throw new OBridgeException("Cannot read snapshot " + file, e);
+        }
+    }
+}
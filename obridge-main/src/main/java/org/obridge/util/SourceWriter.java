@@ -0,0 +1,130 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Ferenc Karsany
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+
+
+package org.obridge.util;
+
+import org.apache.commons.io.FileUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Writes the generated sources, leaving a file untouched when its content did not change, so the timestamps stay and
+ * incremental compilers downstream have nothing to recompile.
+ * <p>
+ * One writer is used per generation run. It collects the files generated by the run and the number of created,
+ * updated, unchanged and deleted files, so runs in the same JVM (parallel Maven builds, several plugin executions) do
+ * not see each other's files.
+ */
+public final class SourceWriter {
+
+    public enum Result {
+        CREATED, UPDATED, UNCHANGED, DELETED
+    }
+
+    private final Map<Result, LongAdder> counts = new EnumMap<>(Result.class);
+    private final Set<Path>              files  = ConcurrentHashMap.newKeySet();
+
+    public SourceWriter() {
+        for (Result r : Result.values()) {
+            counts.put(r, new LongAdder());
+        }
+    }
+
+    /**
+     * Writes the file unless it already has exactly this content.
+     */
+    public Result write(String fileName, String content) throws IOException {
+        return Profiler.measure(Profiler.Phase.WRITE, () -> writeFile(fileName, content));
+    }
+
+    private Result writeFile(String fileName, String content) throws IOException {
+        File   file  = new File(fileName);
+        byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        Result result;
+
+        if (!file.isFile()) {
+            result = Result.CREATED;
+        } else if (file.length() == bytes.length && Arrays.equals(Files.readAllBytes(file.toPath()), bytes)) {
+            result = Result.UNCHANGED;
+        } else {
+            result = Result.UPDATED;
+        }
+
+        if (result != Result.UNCHANGED) {
+            FileUtils.writeByteArrayToFile(file, bytes);
+        }
+
+        files.add(path(file));
+        counts.get(result).increment();
+        return result;
+    }
+
+    /**
+     * Counts a file that was not generated again, because incremental generation found it up to date.
+     */
+    public void unchanged(String fileName) {
+        files.add(path(new File(fileName)));
+        counts.get(Result.UNCHANGED).increment();
+    }
+
+    /**
+     * Deletes a previously generated file that is not generated any more.
+     */
+    public void delete(File file) throws IOException {
+        Files.delete(file.toPath());
+        counts.get(Result.DELETED).increment();
+    }
+
+    /**
+     * The files written or left unchanged by this writer, as absolute paths.
+     */
+    public Set<Path> getFiles() {
+        return Collections.unmodifiableSet(files);
+    }
+
+    public long getCount(Result result) {
+        return counts.get(result).sum();
+    }
+
+    private static Path path(File file) {
+        return file.toPath().toAbsolutePath().normalize();
+    }
+
+    public String formatSummary() {
+        return String.format("Generated files: %d created, %d updated, %d unchanged, %d deleted",
+                             getCount(Result.CREATED), getCount(Result.UPDATED), getCount(Result.UNCHANGED), getCount(Result.DELETED));
+    }
+}
@@ -49,7 +49,7 @@ public final class StringHelper {
         if (s == null) {
             return "";
         }
-        return WordUtils.capitalizeFully(s, ' ', '_').replaceAll(" ", "").replaceAll("_", "");
+        return WordUtils.capitalizeFully(s, ' ', '_', '.').replaceAll("[ _.]", "");
     }
 
     public static String toCamelCaseSmallBegin(String s) {
@@ -70,20 +70,16 @@ public class TypeMapper {
     public static final String JDBC_VARBINARY = "VARBINARY";
 
 
-    private static Map<String, String> oracleToJavaMapping = null;
-    private static Map<String, String> oracleToJDBCMapping = null;
+    private static final Map<String, String> oracleToJavaMapping = new HashMap<>();
+    private static final Map<String, String> oracleToJDBCMapping = new HashMap<>();
 
-    public TypeMapper() {
-        if (oracleToJavaMapping == null) {
-            initOracleToJavaMapping();
-        }
-        if (oracleToJDBCMapping == null) {
-            initOracleToJDBCMapping();
-        }
+    static {
+        // initialized eagerly, the mappings are read concurrently by the parallel extraction
+        initOracleToJavaMapping();
+        initOracleToJDBCMapping();
     }
 
     private static void initOracleToJDBCMapping() {
-        oracleToJDBCMapping = new HashMap<>();
         oracleToJDBCMapping.put(ORACLE_VARCHAR2, JDBC_VARCHAR);
         oracleToJDBCMapping.put(ORACLE_NVARCHAR2, JDBC_NVARCHAR);
         oracleToJDBCMapping.put(ORACLE_REF_CURSOR, JDBC_CURSOR);
@@ -97,7 +93,6 @@ public class TypeMapper {
     }
 
     private static void initOracleToJavaMapping() {
-        oracleToJavaMapping = new HashMap<>();
         oracleToJavaMapping.put(ORACLE_CHAR, JAVA_STRING);
         oracleToJavaMapping.put(ORACLE_VARCHAR2, JAVA_STRING);
         oracleToJavaMapping.put(ORACLE_NCHAR, JAVA_STRING);
@@ -0,0 +1,138 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Ferenc Karsany
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+
+package org.obridge.util;
+
+import lombok.extern.log4j.Log4j2;
+import org.obridge.model.dto.ObjectStatusDto;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Supplier;
+
+/**
+ * Regenerates the sources whenever a watched database object changes.
+ * <p>
+ * The object status (last DDL time and status of the packages, standalone procedures and types) is polled at a fixed
+ * interval, and a generation runs after each change. The generation itself decides what to extract and write again, so
+ * it should be incremental and use the metadata cache. A failed generation is logged and retried after every poll
+ * until one succeeds, so fixing the cause (a template, say) is enough to get the sources regenerated.
+ */
+@Log4j2
+public class Watcher {
+
+    private final long                                   intervalMillis;
+    private final Supplier<Map<String, ObjectStatusDto>> objectStatus;
+    private final Runnable                               generation;
+
+    private volatile boolean stopped;
+
+    public Watcher(long intervalMillis, Supplier<Map<String, ObjectStatusDto>> objectStatus, Runnable generation) {
+        if (intervalMillis <= 0) {
+            throw new OBridgeException("Watch interval must be positive: " + intervalMillis);
+        }
+        this.intervalMillis = intervalMillis;
+        this.objectStatus = objectStatus;
+        this.generation = generation;
+    }
+
+    /**
+     * Generates once, then polls and regenerates until {@link #stop()} is called or the thread is interrupted. The status
+     * is read before generating, so a change made during a generation is picked up by the next poll.
+     */
+    public void run() {
+        Map<String, ObjectStatusDto> status = objectStatus.get();
+        // the status of the last successful generation, null until one succeeds
+        Map<String, ObjectStatusDto> previous = generate() ? status : null;
+        log.info("Watching " + status.size() + " objects, polling every " + intervalMillis + " ms");
+
+        while (!stopped) {
+            try {
+                Thread.sleep(intervalMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+
+            Map<String, ObjectStatusDto> current;
+            try {
+                current = objectStatus.get();
+            } catch (RuntimeException e) {
+                log.warn("Cannot read the object status, trying again", e);
+                continue;
+            }
+
+            if (stopped) {
+                continue;
+            }
+            if (previous != null) {
+                Set<String> changes = changes(previous, current);
+                if (changes.isEmpty()) {
+                    continue;
+                }
+                log.info("Changed: " + String.join(", ", changes));
+            }
+
+            long start = System.nanoTime();
+            if (generate()) {
+                previous = current;
+                log.info("Regenerated in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+            }
+        }
+    }
+
+    private boolean generate() {
+        try {
+            generation.run();
+            return true;
+        } catch (RuntimeException e) {
+            log.error("Generation failed, trying again after the next poll", e);
+            return false;
+        }
+    }
+
+    public void stop() {
+        stopped = true;
+    }
+
+    /**
+     * Keys of the objects created, dropped, recompiled or whose status changed between two polls, sorted.
+     */
+    public static Set<String> changes(Map<String, ObjectStatusDto> previous, Map<String, ObjectStatusDto> current) {
+        Set<String> ret = new TreeSet<>();
+        for (Map.Entry<String, ObjectStatusDto> entry : current.entrySet()) {
+            if (!Objects.equals(entry.getValue(), previous.get(entry.getKey()))) {
+                ret.add(entry.getKey());
+            }
+        }
+        for (String key : previous.keySet()) {
+            if (!current.containsKey(key)) {
+                ret.add(key);
+            }
+        }
+        return ret;
+    }
+}
@@ -25,8 +25,19 @@
 package org.obridge.util;
 
 import com.thoughtworks.xstream.XStream;
+import org.obridge.cache.GenerationManifest;
+import org.obridge.cache.MetadataCache;
 import org.obridge.context.DbObject;
 import org.obridge.context.OBridgeConfiguration;
+import org.obridge.model.data.OraclePackage;
+import org.obridge.model.data.Procedure;
+import org.obridge.model.data.ProcedureArgument;
+import org.obridge.model.data.SchemaModel;
+import org.obridge.model.data.TypeAttribute;
+import org.obridge.model.dto.ObjectStatusDto;
+import org.obridge.model.dto.TypeIdDto;
+
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * @author fkarsany
@@ -55,4 +66,27 @@ public class XStreamFactory {
         return xStream;
     }
 
+    /**
+     * XStream instance for persisting the extracted metadata model (metadata cache, schema snapshot) and the
+     * generation manifest.
+     */
+    public static XStream createMetadataXStream() {
+        XStream xStream = new XStream();
+
+        xStream.alias("metadataCache", MetadataCache.class);
+        xStream.alias("generationManifest", GenerationManifest.class);
+        xStream.alias("oraclePackage", OraclePackage.class);
+        xStream.alias("procedure", Procedure.class);
+        xStream.alias("procedureArgument", ProcedureArgument.class);
+        xStream.alias("typeAttribute", TypeAttribute.class);
+        xStream.alias("schemaModel", SchemaModel.class);
+        xStream.alias("typeId", TypeIdDto.class);
+        xStream.alias("objectStatus", ObjectStatusDto.class);
+
+        xStream.allowTypesByWildcard(new String[]{"org.obridge.cache.**", "org.obridge.model.**"});
+        xStream.allowTypes(new Class[]{ConcurrentHashMap.class});
+
+        return xStream;
+    }
+
 }
@@ -0,0 +1,119 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Ferenc Karsany
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+
+
+package org.obridge.util.format;
+
+/**
+ * Re-indents the source line by line from the nesting of its braces, in a single pass without parsing.
+ * <p>
+ * Every line is trimmed and indented by four spaces per open brace; braces in string and character literals and in
+ * comments are ignored. Runs of empty lines are collapsed into one, and empty lines right after an opening or before
+ * a closing brace are dropped. Line breaks are kept as the templates rendered them.
+ */
+public class IndentingFormatter implements SourceFormatter {
+
+    private static final String INDENT = "    ";
+
+    @Override
+    public String format(String javaSource) {
+        StringBuilder sb             = new StringBuilder(javaSource.length() + javaSource.length() / 4);
+        int           depth          = 0;
+        boolean       inBlockComment = false;
+        boolean       pendingEmpty   = false;
+        boolean       afterOpening   = true;
+
+        for (String rawLine : javaSource.split("\r?\n")) {
+            String line = rawLine.trim();
+
+            if (line.isEmpty()) {
+                pendingEmpty = !afterOpening;
+                continue;
+            }
+
+            if (inBlockComment) {
+                indent(sb, depth).append(line.startsWith("*") ? " " : "").append(line).append('\n');
+                inBlockComment = !line.contains("*/");
+                afterOpening = false;
+                pendingEmpty = false;
+                continue;
+            }
+
+            int leadingClosing = 0;
+            while (leadingClosing < line.length() && line.charAt(leadingClosing) == '}') {
+                leadingClosing++;
+            }
+
+            if (pendingEmpty && leadingClosing == 0) {
+                sb.append('\n');
+            }
+            pendingEmpty = false;
+
+            indent(sb, Math.max(depth - leadingClosing, 0)).append(line).append('\n');
+
+            int     delta  = 0;
+            char    quote  = 0;
+            boolean escape = false;
+            for (int i = 0; i < line.length(); i++) {
+                char ch = line.charAt(i);
+                if (quote != 0) {
+                    if (escape) {
+                        escape = false;
+                    } else if (ch == '\\') {
+                        escape = true;
+                    } else if (ch == quote) {
+                        quote = 0;
+                    }
+                } else if (ch == '"' || ch == '\'') {
+                    quote = ch;
+                } else if (ch == '/' && i + 1 < line.length() && line.charAt(i + 1) == '/') {
+                    break;
+                } else if (ch == '/' && i + 1 < line.length() && line.charAt(i + 1) == '*') {
+                    int end = line.indexOf("*/", i + 2);
+                    if (end < 0) {
+                        inBlockComment = true;
+                        break;
+                    }
+                    i = end + 1;
+                } else if (ch == '{') {
+                    delta++;
+                } else if (ch == '}') {
+                    delta--;
+                }
+            }
+
+            depth = Math.max(depth + delta, 0);
+            afterOpening = line.endsWith("{");
+        }
+
+        return sb.toString();
+    }
+
+    private static StringBuilder indent(StringBuilder sb, int depth) {
+        for (int i = 0; i < depth; i++) {
+            sb.append(INDENT);
+        }
+        return sb;
+    }
+}
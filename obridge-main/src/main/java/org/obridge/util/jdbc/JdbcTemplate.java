@@ -30,17 +30,46 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Created by fkarsany on 2015.03.04..
+ * <p>
+ * A template created with {@link #session(DataSource, int)} keeps one connection per thread until the thread calls
+ * {@link #release()} or the template is closed, and reuses the prepared statements of that connection by SQL text, so a
+ * query executed many times with different binds is parsed only once.
+ * <p>
+ * Every query is recorded in {@link QueryStatistics} under its name, unnamed queries under the beginning of their text.
  */
-public class JdbcTemplate {
+public class JdbcTemplate implements AutoCloseable {
 
-    private final DataSource dataSource;
+    private static final int STATEMENT_CACHE_SIZE = 32;
+
+    private final DataSource           dataSource;
+    private final int                  fetchSize;
+    private final boolean              pinned;
+    private final Map<Thread, Session> sessions = new ConcurrentHashMap<>();
 
     public JdbcTemplate(DataSource dataSource) {
+        this(dataSource, 0, false);
+    }
+
+    private JdbcTemplate(DataSource dataSource, int fetchSize, boolean pinned) {
         this.dataSource = dataSource;
+        this.fetchSize = fetchSize;
+        this.pinned = pinned;
+    }
+
+    /**
+     * Creates a session-scoped template, the connections it pins are returned to the pool by {@link #close()}.
+     *
+     * @param fetchSize rows fetched per round trip, 0 leaves the driver default
+     */
+    public static JdbcTemplate session(DataSource dataSource, int fetchSize) {
+        return new JdbcTemplate(dataSource, fetchSize, true);
     }
 
     public <T> List<T> queryForList(String sql) {
@@ -56,15 +85,28 @@ public class JdbcTemplate {
     }
 
     public <T> List<T> query(String sql, Object[] args, RowMapper<T> rowMapper) {
+        return query(null, sql, args, rowMapper);
+    }
+
+    public <T> List<T> query(String name, String sql, Object[] args, RowMapper<T> rowMapper) {
+        long     start = System.nanoTime();
+        Fetch<T> fetch = pinned ? querySession(sql, args, rowMapper) : queryConnection(sql, args, rowMapper);
 
-        List<T> ret = null;
+        QueryStatistics.record(name != null ? name : getDefaultName(sql), System.nanoTime() - start, fetch.rows.size(), fetch.mapperNanos);
+
+        return fetch.rows;
+    }
+
+    private <T> Fetch<T> queryConnection(String sql, Object[] args, RowMapper<T> rowMapper) {
+
+        Fetch<T> ret = null;
         Connection connection = null;
         PreparedStatement ps = null;
         ResultSet resultSet = null;
 
         try {
             connection = dataSource.getConnection();
-            ps = connection.prepareStatement(sql);
+            ps = prepareStatement(connection, sql);
 
             bindParameters(args, ps);
 
@@ -82,11 +124,96 @@ public class JdbcTemplate {
 
         } catch (SQLException e) {
             tryCloseConnection(connection, ps, resultSet);
-            System.out.println(sql);
-            throw new JdbcTemplateException(e);
+            throw new JdbcTemplateException("Query failed: " + sql, e);
+        }
+    }
+
+    private <T> Fetch<T> querySession(String sql, Object[] args, RowMapper<T> rowMapper) {
+        Session           s         = getSession();
+        PreparedStatement ps        = null;
+        ResultSet         resultSet = null;
+
+        try {
+            ps = s.checkout(sql);
+
+            bindParameters(args, ps);
+
+            resultSet = ps.executeQuery();
+
+            Fetch<T> ret = fetchData(rowMapper, resultSet);
+
+            resultSet.close();
+            s.release(sql, ps);
+
+            return ret;
+
+        } catch (SQLException e) {
+            tryCloseConnection(null, ps, resultSet);
+            throw new JdbcTemplateException("Query failed: " + sql, e);
+        }
+    }
+
+    private Session getSession() {
+        Session s = sessions.get(Thread.currentThread());
+        if (s == null) {
+            try {
+                s = new Session(dataSource.getConnection());
+            } catch (SQLException e) {
+                throw new JdbcTemplateException(e);
+            }
+            sessions.put(Thread.currentThread(), s);
+        }
+        return s;
+    }
+
+    /**
+     * Closes the cached statements of the calling thread and returns its pinned connection to the pool. A worker thread
+     * calls it when it has finished, so the connections of a session are bounded by its live threads.
+     */
+    public void release() {
+        Session s = sessions.remove(Thread.currentThread());
+        if (s != null) {
+            try {
+                s.close();
+            } catch (SQLException e) {
+                throw new JdbcTemplateException("Cannot close the database", e);
+            }
+        }
+    }
+
+    /**
+     * Closes the cached statements and returns the pinned connections of every thread of a session-scoped template to
+     * the pool.
+     */
+    @Override
+    public void close() {
+        SQLException failure = null;
+
+        for (Thread thread : sessions.keySet()) {
+            Session s = sessions.remove(thread);
+            if (s == null) {
+                continue;
+            }
+            try {
+                s.close();
+            } catch (SQLException e) {
+                failure = e;
+            }
+        }
+
+        if (failure != null) {
+            throw new JdbcTemplateException("Cannot close the database", failure);
         }
     }
 
+    private PreparedStatement prepareStatement(Connection connection, String sql) throws SQLException {
+        PreparedStatement ps = connection.prepareStatement(sql);
+        if (fetchSize > 0) {
+            ps.setFetchSize(fetchSize);
+        }
+        return ps;
+    }
+
     private void tryCloseConnection(Connection connection, PreparedStatement ps, ResultSet resultSet) {
         try {
             if (resultSet != null && !resultSet.isClosed()) {
@@ -104,20 +231,87 @@ public class JdbcTemplate {
         }
     }
 
-    private <T> List<T> fetchData(RowMapper<T> rowMapper, ResultSet resultSet) throws SQLException {
-        List<T> ret = new ArrayList<>();
+    private <T> Fetch<T> fetchData(RowMapper<T> rowMapper, ResultSet resultSet) throws SQLException {
+        Fetch<T> ret = new Fetch<>();
         int i = 0;
         while (resultSet.next()) {
             i++;
-            ret.add(rowMapper.mapRow(resultSet, i));
+            long start = System.nanoTime();
+            ret.rows.add(rowMapper.mapRow(resultSet, i));
+            ret.mapperNanos += System.nanoTime() - start;
         }
         return ret;
     }
 
+    private static String getDefaultName(String sql) {
+        String text = sql.replaceAll("\\s+", " ").trim();
+        return text.length() > 60 ? text.substring(0, 60) + "..." : text;
+    }
+
     private void bindParameters(Object[] args, PreparedStatement ps) throws SQLException {
         if (args != null) {
             for (int i = 0; i < args.length; i++) {
-                ps.setObject(i + 1, args[i]);
+                if (args[i] instanceof SqlArray) {
+                    ps.setArray(i + 1, ((SqlArray) args[i]).toArray(ps.getConnection()));
+                } else {
+                    ps.setObject(i + 1, args[i]);
+                }
+            }
+        }
+    }
+
+    private static final class Fetch<T> {
+        private final List<T> rows        = new ArrayList<>();
+        private       long    mapperNanos = 0;
+    }
+
+    /**
+     * The pinned connection of one thread with its idle statements. A statement is checked out while its result set is
+     * read, so a nested query with the same SQL text (from a RowMapper) gets a statement of its own.
+     */
+    private final class Session {
+
+        private final Connection                     connection;
+        private final Map<String, PreparedStatement> statements;
+
+        private Session(Connection connection) {
+            this.connection = connection;
+            this.statements = new LinkedHashMap<String, PreparedStatement>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+                    if (size() > STATEMENT_CACHE_SIZE) {
+                        closeQuietly(eldest.getValue());
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+
+        private PreparedStatement checkout(String sql) throws SQLException {
+            PreparedStatement ps = statements.remove(sql);
+            return ps != null ? ps : prepareStatement(connection, sql);
+        }
+
+        private void release(String sql, PreparedStatement ps) throws SQLException {
+            if (statements.containsKey(sql)) {
+                ps.close();
+            } else {
+                statements.put(sql, ps);
+            }
+        }
+
+        private void close() throws SQLException {
+            statements.values().forEach(this::closeQuietly);
+            statements.clear();
+            connection.close();
+        }
+
+        private void closeQuietly(PreparedStatement ps) {
+            try {
+                ps.close();
+            } catch (SQLException e) {
+                // the connection is closed anyway
             }
         }
     }
@@ -0,0 +1,156 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Ferenc Karsany
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+
+package org.obridge.util.jdbc;
+
+import com.thoughtworks.xstream.XStream;
+import com.thoughtworks.xstream.io.HierarchicalStreamWriter;
+import com.thoughtworks.xstream.io.json.JsonHierarchicalStreamDriver;
+import com.thoughtworks.xstream.io.json.JsonWriter;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.obridge.util.OBridgeException;
+import org.obridge.util.RunLocal;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Execution statistics of the queries run by {@link JdbcTemplate}, per logical query name.
+ * <p>
+ * Every run collects its own statistics: a query is recorded by the statistics activated on the thread running it
+ * (inherited by the worker threads of the run), a query run outside of an activation is not recorded.
+ */
+public final class QueryStatistics {
+
+    private static final RunLocal<QueryStatistics> ACTIVE = new RunLocal<>();
+
+    private final Map<String, Collector> collectors = new ConcurrentHashMap<>();
+
+    /**
+     * Records the queries of the current thread, and of the threads it starts, until the binding is closed.
+     */
+    public RunLocal.Binding activate() {
+        return ACTIVE.bind(this);
+    }
+
+    static void record(String name, long elapsedNanos, long rows, long mapperNanos) {
+        QueryStatistics active = ACTIVE.get();
+        if (active == null) {
+            return;
+        }
+
+        Collector collector = active.collectors.computeIfAbsent(name, n -> new Collector());
+        collector.executions.increment();
+        collector.totalNanos.add(elapsedNanos);
+        collector.maxNanos.accumulateAndGet(elapsedNanos, Math::max);
+        collector.rows.add(rows);
+        collector.mapperNanos.add(mapperNanos);
+    }
+
+    /**
+     * The statistics collected so far, the most expensive query first.
+     */
+    public List<Entry> getEntries() {
+        return collectors.entrySet()
+                         .stream()
+                         .map(e -> new Entry(e.getKey(),
+                                             e.getValue().executions.sum(),
+                                             e.getValue().totalNanos.sum() / 1_000_000,
+                                             e.getValue().maxNanos.get() / 1_000_000,
+                                             e.getValue().rows.sum(),
+                                             e.getValue().mapperNanos.sum() / 1_000_000))
+                         .sorted(Comparator.comparingLong(Entry::getTotalMillis).reversed().thenComparing(Entry::getName))
+                         .collect(Collectors.toList());
+    }
+
+    /**
+     * The statistics as a fixed width text table for the log.
+     */
+    public String formatTable() {
+        List<Entry>   entries = getEntries();
+        int           width   = entries.stream().mapToInt(e -> e.getName().length()).max().orElse(0);
+        String        format  = "%-" + Math.max(width, 5) + "s %10s %12s %10s %10s %12s%n";
+        StringBuilder sb      = new StringBuilder();
+
+        sb.append(String.format(format, "Query", "Executions", "Total (ms)", "Max (ms)", "Rows", "Mapper (ms)"));
+        for (Entry e : entries) {
+            sb.append(String.format(format, e.getName(), e.getExecutions(), e.getTotalMillis(), e.getMaxMillis(), e.getRows(), e.getMapperMillis()));
+        }
+
+        return sb.toString();
+    }
+
+    /**
+     * Writes the statistics as a JSON array.
+     */
+    public void writeJson(File file) {
+        XStream xStream = new XStream(new JsonHierarchicalStreamDriver() {
+            @Override
+            public HierarchicalStreamWriter createWriter(Writer out) {
+                return new JsonWriter(out, JsonWriter.DROP_ROOT_MODE);
+            }
+        });
+        xStream.alias("query", Entry.class);
+
+        try {
+            Files.createDirectories(file.getAbsoluteFile().getParentFile().toPath());
+            try (Writer writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+                xStream.toXML(getEntries(), writer);
+            }
+        } catch (IOException e) {
+            throw new OBridgeException("Cannot write query statistics " + file, e);
+        }
+    }
+
+    private static final class Collector {
+        private final LongAdder  executions  = new LongAdder();
+        private final LongAdder  totalNanos  = new LongAdder();
+        private final AtomicLong maxNanos    = new AtomicLong();
+        private final LongAdder  rows        = new LongAdder();
+        private final LongAdder  mapperNanos = new LongAdder();
+    }
+
+    @Getter
+    @AllArgsConstructor(access = AccessLevel.PRIVATE)
+    public static final class Entry {
+        private final String name;
+        private final long   executions;
+        private final long   totalMillis;
+        private final long   maxMillis;
+        private final long   rows;
+        private final long   mapperMillis;
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Ferenc Karsany
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+
+
+package org.obridge.util.jdbc;
+
+import lombok.Getter;
+import oracle.jdbc.OracleConnection;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Collection;
+
+/**
+ * Query parameter bound as one Oracle collection, so a list of values of any length keeps the statement text (and its
+ * shared cursor) the same. Select the values with {@code Table(?)}.
+ */
+@Getter
+public final class SqlArray {
+
+    /**
+     * Built-in VARRAY(32767) OF VARCHAR2(4000), available on every Oracle database.
+     */
+    public static final String VARCHAR2_LIST = "SYS.ODCIVARCHAR2LIST";
+
+    private final String   typeName;
+    private final Object[] elements;
+
+    public SqlArray(String typeName, Collection<?> elements) {
+        this.typeName = typeName;
+        this.elements = elements.toArray();
+    }
+
+    public static SqlArray varchar2List(Collection<String> elements) {
+        return new SqlArray(VARCHAR2_LIST, elements);
+    }
+
+    Array toArray(Connection connection) throws SQLException {
+        return connection.unwrap(OracleConnection.class).createOracleArray(typeName, elements);
+    }
+}
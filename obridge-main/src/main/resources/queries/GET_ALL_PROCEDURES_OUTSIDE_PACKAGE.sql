@@ -21,5 +21,4 @@ Select owner,
                  package_name,
                  nvl(overload, -1)
             From all_arguments
-           Where (data_type In ('PL/SQL TABLE') Or (data_type = 'REF CURSOR' And in_out Like '%IN%') Or
-                 (data_type = 'PL/SQL RECORD'))))
+           Where (data_type In ('PL/SQL TABLE') Or (data_type = 'REF CURSOR' And in_out Like '%IN%'))))
@@ -0,0 +1,42 @@
+Select t.package_name,
+       t.object_name,
+       t.overload,
+       t.argument_name,
+       Case
+         When t.data_type = 'PL/SQL RECORD' Then
+          'OBJECT'
+         When t.type_subname Is Not Null And t.data_type = 'VARRAY' Then
+          'TABLE'
+         Else
+          t.data_type
+       End data_type,
+       Case
+         When t.type_subname Is Null Then
+          nvl(w.elem_type_name, t.type_name)
+         When e.type_subname Is Not Null Then
+          e.type_name || '.' || e.type_subname
+         Else
+          nvl(e.type_name, nvl(e.data_type, t.type_name || '.' || t.type_subname))
+       End type_name,
+       t.defaulted,
+       t.in_out,
+       t.type_name || Case
+         When t.type_subname Is Not Null Then
+          '.' || t.type_subname
+       End orig_type_name,
+       t.type_owner
+  From all_arguments t
+  Left Join all_coll_types w
+    On w.owner = nvl(t.type_owner, t.owner)
+   And w.type_name = t.type_name
+   And t.type_subname Is Null
+  Left Join all_arguments e
+    On e.owner = t.owner
+   And e.object_id = t.object_id
+   And e.subprogram_id = t.subprogram_id
+   And e.sequence = t.sequence + 1
+   And e.data_level = 1
+   And t.type_subname Is Not Null
+   And t.data_type In ('TABLE', 'VARRAY', 'PL/SQL TABLE')
+ Where t.data_level = 0
+   And Not (t.pls_type Is Null And t.argument_name Is Null And t.data_type Is Null)
\ No newline at end of file
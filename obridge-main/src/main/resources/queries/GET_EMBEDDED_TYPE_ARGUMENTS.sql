@@ -0,0 +1,14 @@
+Select t.owner,
+       nvl(t.package_name, t.object_name) source_name,
+       t.object_id,
+       t.subprogram_id,
+       t.sequence,
+       t.data_level,
+       t.argument_name,
+       t.data_type,
+       t.data_scale,
+       t.type_owner,
+       t.type_name,
+       t.type_subname
+  From all_arguments t
+ Where (t.data_level > 0 Or t.data_type In ('OBJECT', 'TABLE', 'VARRAY', 'PL/SQL RECORD', 'PL/SQL TABLE'))
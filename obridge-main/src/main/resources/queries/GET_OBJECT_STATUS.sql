@@ -0,0 +1,7 @@
+Select owner,
+       object_name,
+       object_type,
+       to_char(last_ddl_time, 'YYYY-MM-DD HH24:MI:SS') last_ddl_time,
+       status
+  From all_objects
+ Where object_type In ('PACKAGE', 'PROCEDURE', 'FUNCTION', 'TYPE')
\ No newline at end of file
@@ -0,0 +1,156 @@
+With pkg As
+ (Select owner,
+         object_name
+    From all_objects
+   Where object_type = 'PACKAGE'
+     And %s),
+proc As
+ (Select t.owner,
+         t.object_name    package_name,
+         t.procedure_name object_name,
+         t.overload
+    From all_procedures t
+    Join pkg p
+      On p.owner = t.owner
+     And p.object_name = t.object_name
+   Where t.procedure_name Is Not Null
+     And t.object_type = 'PACKAGE'
+  Union All
+  Select t.owner,
+         Null,
+         t.object_name,
+         t.overload
+    From all_procedures t
+   Where t.procedure_name Is Null
+     And t.object_type In ('PROCEDURE', 'FUNCTION')
+     And %s),
+callable As
+ (Select r.*
+    From proc r
+   Where Not Exists (Select 1
+            From all_arguments a
+           Where a.owner = r.owner
+             And nvl(a.package_name, '#') = nvl(r.package_name, '#')
+             And a.object_name = r.object_name
+             And nvl(a.overload, '#') = nvl(r.overload, '#')
+             And (a.data_type = 'PL/SQL TABLE' Or (a.data_type = 'REF CURSOR' And a.in_out Like '%%IN%%')))),
+typ As
+ (Select owner,
+         type_name
+    From all_types
+   Where typecode = 'OBJECT'
+     And %s)
+Select Json_Object(
+         'packages' Value
+         (Select Json_Arrayagg(Json_Object('owner' Value owner, 'object_name' Value object_name)
+                               Order By owner, object_name Returning Clob)
+            From pkg) Format Json,
+         'procedures' Value
+         (Select Json_Arrayagg(Json_Object('owner' Value owner,
+                                           'package_name' Value package_name,
+                                           'object_name' Value object_name,
+                                           'overload' Value overload)
+                               Order By owner, package_name, object_name, overload Returning Clob)
+            From callable) Format Json,
+         'arguments' Value
+         (Select Json_Arrayagg(Json_Object('owner' Value t.owner,
+                                           'package_name' Value t.package_name,
+                                           'object_name' Value t.object_name,
+                                           'overload' Value t.overload,
+                                           'argument_name' Value t.argument_name,
+                                           'data_type' Value Case
+                                                               When t.data_type = 'PL/SQL RECORD' Then
+                                                                'OBJECT'
+                                                               When t.type_subname Is Not Null And t.data_type = 'VARRAY' Then
+                                                                'TABLE'
+                                                               Else
+                                                                t.data_type
+                                                             End,
+                                           'type_name' Value Case
+                                                               When t.type_subname Is Null Then
+                                                                nvl(w.elem_type_name, t.type_name)
+                                                               When e.type_subname Is Not Null Then
+                                                                e.type_name || '.' || e.type_subname
+                                                               Else
+                                                                nvl(e.type_name, nvl(e.data_type, t.type_name || '.' || t.type_subname))
+                                                             End,
+                                           'in_out' Value t.in_out,
+                                           'orig_type_name' Value t.type_name || Case
+                                                                    When t.type_subname Is Not Null Then
+                                                                     '.' || t.type_subname
+                                                                  End,
+                                           'type_owner' Value t.type_owner)
+                               Order By t.owner, t.package_name, t.object_name, t.overload, t.sequence Returning Clob)
+            From all_arguments t
+            Join callable r
+              On r.owner = t.owner
+             And nvl(r.package_name, '#') = nvl(t.package_name, '#')
+             And r.object_name = t.object_name
+             And nvl(r.overload, '#') = nvl(t.overload, '#')
+            Left Join all_coll_types w
+              On w.owner = nvl(t.type_owner, t.owner)
+             And w.type_name = t.type_name
+             And t.type_subname Is Null
+            Left Join all_arguments e
+              On e.owner = t.owner
+             And e.object_id = t.object_id
+             And e.subprogram_id = t.subprogram_id
+             And e.sequence = t.sequence + 1
+             And e.data_level = 1
+             And t.type_subname Is Not Null
+             And t.data_type In ('TABLE', 'VARRAY', 'PL/SQL TABLE')
+           Where t.data_level = 0
+             And Not (t.pls_type Is Null And t.argument_name Is Null And t.data_type Is Null)) Format Json,
+         'nested_arguments' Value
+         (Select Json_Arrayagg(Json_Object('owner' Value t.owner,
+                                           'object_id' Value t.object_id,
+                                           'subprogram_id' Value t.subprogram_id,
+                                           'data_level' Value t.data_level,
+                                           'argument_name' Value t.argument_name,
+                                           'data_type' Value t.data_type,
+                                           'data_scale' Value t.data_scale,
+                                           'type_owner' Value t.type_owner,
+                                           'type_name' Value t.type_name,
+                                           'type_subname' Value t.type_subname)
+                               Order By t.owner, t.object_id, t.subprogram_id, t.sequence Returning Clob)
+            From all_arguments t
+           Where (t.data_level > 0 Or t.data_type In ('OBJECT', 'TABLE', 'VARRAY', 'PL/SQL RECORD', 'PL/SQL TABLE'))
+             And %s) Format Json,
+         'types' Value
+         (Select Json_Arrayagg(Json_Object('owner' Value owner, 'type_name' Value type_name)
+                               Order By owner, type_name Returning Clob)
+            From typ) Format Json,
+         'type_attributes' Value
+         (Select Json_Arrayagg(Json_Object('owner' Value aa.owner,
+                                           'type_name' Value aa.type_name,
+                                           'attr_name' Value aa.attr_name,
+                                           'attr_type_name' Value aa.attr_type_name,
+                                           'attr_type_owner' Value aa.attr_type_owner,
+                                           'attr_no' Value aa.attr_no,
+                                           'scale' Value nvl(aa.scale, c.scale),
+                                           'multi_type' Value Case When aa.attr_type_owner Is Not Null Then 1 Else 0 End,
+                                           'typecode' Value bb.typecode,
+                                           'elem_type_name' Value c.elem_type_name)
+                               Order By aa.owner, aa.type_name, aa.attr_no Returning Clob)
+            From all_type_attrs aa
+            Join typ
+              On typ.owner = aa.owner
+             And typ.type_name = aa.type_name
+            Left Join all_types bb
+              On bb.owner = aa.attr_type_owner
+             And bb.type_name = aa.attr_type_name
+            Left Join all_coll_types c
+              On c.owner = nvl(aa.attr_type_owner, aa.owner)
+             And c.type_name = aa.attr_type_name) Format Json,
+         'object_status' Value
+         (Select Json_Arrayagg(Json_Object('owner' Value owner,
+                                           'object_name' Value object_name,
+                                           'object_type' Value object_type,
+                                           'last_ddl_time' Value to_char(last_ddl_time, 'YYYY-MM-DD HH24:MI:SS'),
+                                           'status' Value status)
+                               Returning Clob)
+            From all_objects
+           Where object_type In ('PACKAGE', 'PROCEDURE', 'FUNCTION', 'TYPE')
+             And %s) Format Json
+         Returning Clob) model
+  From dual
@@ -33,6 +33,23 @@ public class OBridgeTest {
         OBridge.main("-v");
     }
 
+    @Test
+    public void testCopyConfiguration() {
+        OBridgeConfiguration c = new OBridgeConfiguration();
+        c.setJdbcUrl("jdbc:oracle:thin:@localhost:1521:xe");
+        c.setPackages(new Packages());
+        c.setIncremental(false);
+
+        OBridgeConfiguration copy = OBridge.copyConfiguration(c);
+        copy.setIncremental(true);
+        copy.setUseMetadataCache(true);
+
+        Assert.assertEquals(c.getJdbcUrl(), copy.getJdbcUrl());
+        Assert.assertNotSame(c.getPackages(), copy.getPackages());
+        Assert.assertFalse(c.getIncremental());
+        Assert.assertNull(c.getUseMetadataCache());
+    }
+
     @Test
     public void fullTest() throws IOException, InterruptedException {
 
@@ -0,0 +1,82 @@
+package org.obridge.cache;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.obridge.util.SourceWriter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+
+public class GeneratedFilesTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Path sourceRoot;
+
+    @Before
+    public void setUp() throws IOException {
+        sourceRoot = folder.getRoot().toPath().toAbsolutePath().normalize();
+        for (String file : Arrays.asList("objects/Kept.java", "objects/Dropped.java", "objects/HandWritten.java")) {
+            Files.createDirectories(sourceRoot.resolve(file).getParent());
+            Files.write(sourceRoot.resolve(file), "class X {}".getBytes(StandardCharsets.UTF_8));
+        }
+        Files.write(sourceRoot.resolve(GeneratedFiles.FILE_NAME), Arrays.asList("objects/Kept.java", "objects/Dropped.java", "../Outside.java"));
+    }
+
+    @Test
+    public void testPrune() throws IOException {
+        SourceWriter sourceWriter = new SourceWriter();
+        sourceWriter.unchanged(sourceRoot.resolve("objects/Kept.java").toString());
+
+        GeneratedFiles.update(sourceRoot, sourceWriter, true);
+
+        Assert.assertTrue(Files.exists(sourceRoot.resolve("objects/Kept.java")));
+        Assert.assertFalse(Files.exists(sourceRoot.resolve("objects/Dropped.java")));
+        Assert.assertTrue(Files.exists(sourceRoot.resolve("objects/HandWritten.java")));
+        Assert.assertEquals(1, sourceWriter.getCount(SourceWriter.Result.DELETED));
+        Assert.assertEquals(Collections.singletonList("objects/Kept.java"), Files.readAllLines(sourceRoot.resolve(GeneratedFiles.FILE_NAME)));
+    }
+
+    @Test
+    public void testPruneDisabled() throws IOException {
+        SourceWriter sourceWriter = new SourceWriter();
+        sourceWriter.unchanged(sourceRoot.resolve("objects/Kept.java").toString());
+
+        GeneratedFiles.update(sourceRoot, sourceWriter, false);
+
+        Assert.assertTrue(Files.exists(sourceRoot.resolve("objects/Dropped.java")));
+        Assert.assertEquals(Collections.singletonList("objects/Kept.java"), Files.readAllLines(sourceRoot.resolve(GeneratedFiles.FILE_NAME)));
+    }
+
+    @Test
+    public void testInterleavedRuns() throws IOException {
+        Path otherRoot = folder.newFolder("other").toPath().toAbsolutePath().normalize();
+        Files.write(otherRoot.resolve(GeneratedFiles.FILE_NAME), Collections.singletonList("objects/Other.java"));
+        Files.createDirectories(otherRoot.resolve("objects"));
+        Files.write(otherRoot.resolve("objects/Other.java"), "class X {}".getBytes(StandardCharsets.UTF_8));
+
+        SourceWriter first  = new SourceWriter();
+        SourceWriter second = new SourceWriter();
+        first.unchanged(sourceRoot.resolve("objects/Kept.java").toString());
+        second.unchanged(otherRoot.resolve("objects/Other.java").toString());
+        first.unchanged(sourceRoot.resolve("objects/Dropped.java").toString());
+
+        GeneratedFiles.update(otherRoot, second, true);
+        GeneratedFiles.update(sourceRoot, first, true);
+
+        Assert.assertTrue(Files.exists(otherRoot.resolve("objects/Other.java")));
+        Assert.assertTrue(Files.exists(sourceRoot.resolve("objects/Dropped.java")));
+        Assert.assertEquals(0, first.getCount(SourceWriter.Result.DELETED));
+        Assert.assertEquals(0, second.getCount(SourceWriter.Result.DELETED));
+        Assert.assertEquals(Collections.singletonList("objects/Other.java"), Files.readAllLines(otherRoot.resolve(GeneratedFiles.FILE_NAME)));
+        Assert.assertEquals(Arrays.asList("objects/Dropped.java", "objects/Kept.java"), Files.readAllLines(sourceRoot.resolve(GeneratedFiles.FILE_NAME)));
+    }
+}
@@ -0,0 +1,117 @@
+package org.obridge.cache;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.obridge.model.dto.ObjectStatusDto;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+public class GenerationManifestTest {
+
+    private static final String PACKAGE_KEY = ObjectStatusDto.key("PACKAGE", "OBRIDGE", "SIMPLE_PROCEDURES");
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testUnchangedFileIsUpToDate() throws IOException {
+        Path   root      = folder.getRoot().toPath();
+        String generated = folder.newFile("SimpleProcedures.java").getPath();
+        List<String> sources = Collections.singletonList(PACKAGE_KEY);
+
+        GenerationManifest manifest = load(root, "a", "2016-01-01 10:00:00");
+        Assert.assertFalse(manifest.isUpToDate(generated, sources));
+        manifest.record(generated, sources);
+        manifest.save();
+
+        Assert.assertTrue(load(root, "a", "2016-01-01 10:00:00").isUpToDate(generated, sources));
+    }
+
+    @Test
+    public void testChangesAreDetected() throws IOException {
+        Path   root      = folder.getRoot().toPath();
+        String generated = folder.newFile("SimpleProcedures.java").getPath();
+        List<String> sources = Collections.singletonList(PACKAGE_KEY);
+
+        GenerationManifest manifest = load(root, "a", "2016-01-01 10:00:00");
+        manifest.record(generated, sources);
+        manifest.save();
+
+        Assert.assertFalse(load(root, "a", "2016-02-01 10:00:00").isUpToDate(generated, sources));
+        Assert.assertFalse(load(root, "b", "2016-01-01 10:00:00").isUpToDate(generated, sources));
+        Assert.assertFalse(load(root, "a", "2016-01-01 10:00:00").isUpToDate(generated, Collections.emptyList()));
+
+        Assert.assertTrue(new File(generated).delete());
+        Assert.assertFalse(load(root, "a", "2016-01-01 10:00:00").isUpToDate(generated, sources));
+    }
+
+    @Test
+    public void testInvalidSourceIsNeverUpToDate() throws IOException {
+        Path   root      = folder.getRoot().toPath();
+        String generated = folder.newFile("SimpleProcedures.java").getPath();
+        List<String> sources = Collections.singletonList(PACKAGE_KEY);
+
+        GenerationManifest manifest = load(root, "a", "2016-01-01 10:00:00", "INVALID");
+        manifest.record(generated, sources);
+        manifest.save();
+
+        Assert.assertFalse(load(root, "a", "2016-01-01 10:00:00", "INVALID").isUpToDate(generated, sources));
+        Assert.assertFalse(load(root, "a", "2016-01-01 10:00:00").isUpToDate(generated, sources));
+    }
+
+    @Test
+    public void testFilesNotGeneratedAnyMoreAreForgotten() throws IOException {
+        Path   root    = folder.getRoot().toPath();
+        String kept    = folder.newFile("SimpleProcedures.java").getPath();
+        String dropped = folder.newFile("DroppedProcedures.java").getPath();
+        List<String> sources = Collections.singletonList(PACKAGE_KEY);
+
+        GenerationManifest manifest = load(root, "a", "2016-01-01 10:00:00");
+        manifest.record(kept, sources);
+        manifest.record(dropped, sources);
+        manifest.save();
+
+        manifest = load(root, "a", "2016-01-01 10:00:00");
+        Assert.assertTrue(manifest.retain(Collections.singleton(new File(kept).toPath().toAbsolutePath())));
+        Assert.assertFalse(manifest.retain(Collections.singleton(new File(kept).toPath().toAbsolutePath())));
+        manifest.save();
+
+        Assert.assertTrue(load(root, "a", "2016-01-01 10:00:00").isUpToDate(kept, sources));
+        Assert.assertFalse(load(root, "a", "2016-01-01 10:00:00").isUpToDate(dropped, sources));
+    }
+
+    @Test
+    public void testDisabledManifestRecordsNothing() throws IOException {
+        String generated = folder.newFile("SimpleProcedures.java").getPath();
+
+        GenerationManifest manifest = GenerationManifest.disabled();
+        manifest.record(generated, Collections.emptyList());
+        Assert.assertFalse(manifest.isUpToDate(generated, Collections.emptyList()));
+    }
+
+    private static GenerationManifest load(Path root, String fingerprint, String lastDdlTime) {
+        return load(root, fingerprint, lastDdlTime, ObjectStatusDto.VALID);
+    }
+
+    private static GenerationManifest load(Path root, String fingerprint, String lastDdlTime, String objectStatus) {
+        Map<String, ObjectStatusDto> status = Collections.singletonMap(
+                PACKAGE_KEY, new ObjectStatusDto("OBRIDGE", "SIMPLE_PROCEDURES", "PACKAGE", lastDdlTime, objectStatus));
+        return GenerationManifest.load(root.resolve(GenerationManifest.FILE_NAME).toFile(), root, fingerprint, status);
+    }
+
+    @Test
+    public void testCodeVersion() {
+        String codeVersion = GenerationManifest.codeVersion();
+        Assert.assertFalse(codeVersion.startsWith("unknown"));
+        Assert.assertFalse(codeVersion.contains("${"));
+        Assert.assertTrue(codeVersion.matches(".+-[0-9a-f]{64}"));
+        Assert.assertEquals(codeVersion, GenerationManifest.codeVersion());
+    }
+}
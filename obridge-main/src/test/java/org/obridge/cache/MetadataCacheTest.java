@@ -0,0 +1,161 @@
+package org.obridge.cache;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.obridge.model.data.Procedure;
+import org.obridge.model.data.ProcedureArgument;
+import org.obridge.model.data.TypeAttribute;
+import org.obridge.model.dto.ObjectStatusDto;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class MetadataCacheTest {
+
+    private static final String URL  = "jdbc:oracle:thin:@localhost:1521:xe";
+    private static final String USER = "obridge";
+
+    private static final String PACKAGE_KEY = ObjectStatusDto.key("PACKAGE", "OBRIDGE", "SIMPLE_PROCEDURES");
+    private static final String TYPE_KEY    = ObjectStatusDto.key("TYPE", "OBRIDGE", "SAMPLE_TYPE_ONE");
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testRoundTrip() {
+        File file = new File(folder.getRoot(), MetadataCache.FILE_NAME);
+
+        MetadataCache cache = MetadataCache.load(file, URL, USER, status("2016-01-01 10:00:00", "2016-01-01 10:00:00"));
+        cache.put(PACKAGE_KEY, Collections.singletonList(procedure()), Collections.singletonList(TYPE_KEY));
+        cache.put(TYPE_KEY, Collections.singletonList(new TypeAttribute("ATTR_NUMBER", "NUMBER", 1, 0, 0, null, null)), Collections.emptyList());
+        cache.save();
+
+        MetadataCache reloaded = MetadataCache.load(file, URL, USER, status("2016-01-01 10:00:00", "2016-01-01 10:00:00"));
+
+        List<Procedure> procedures = reloaded.get(PACKAGE_KEY);
+        Assert.assertNotNull(procedures);
+        Assert.assertEquals("ADD_NUMBERS", procedures.get(0).getProcedureName());
+        Assert.assertNotNull(procedures.get(0).getCallString());
+        Assert.assertEquals(3, procedures.get(0).getBindParams().size());
+
+        List<TypeAttribute> attributes = reloaded.get(TYPE_KEY);
+        Assert.assertEquals("ATTR_NUMBER", attributes.get(0).getAttrName());
+    }
+
+    @Test
+    public void testChangedDependencyInvalidatesEntry() {
+        File file = new File(folder.getRoot(), MetadataCache.FILE_NAME);
+
+        MetadataCache cache = MetadataCache.load(file, URL, USER, status("2016-01-01 10:00:00", "2016-01-01 10:00:00"));
+        cache.put(PACKAGE_KEY, Collections.singletonList(procedure()), Collections.singletonList(TYPE_KEY));
+        cache.save();
+
+        MetadataCache reloaded = MetadataCache.load(file, URL, USER, status("2016-01-01 10:00:00", "2016-02-01 10:00:00"));
+        Assert.assertNull(reloaded.get(PACKAGE_KEY));
+    }
+
+    @Test
+    public void testOtherDatabaseIsIgnored() {
+        File file = new File(folder.getRoot(), MetadataCache.FILE_NAME);
+
+        MetadataCache cache = MetadataCache.load(file, URL, USER, status("2016-01-01 10:00:00", "2016-01-01 10:00:00"));
+        cache.put(PACKAGE_KEY, Collections.singletonList(procedure()), Collections.emptyList());
+        cache.save();
+
+        MetadataCache reloaded = MetadataCache.load(file, URL, "other", status("2016-01-01 10:00:00", "2016-01-01 10:00:00"));
+        Assert.assertNull(reloaded.get(PACKAGE_KEY));
+    }
+
+    @Test
+    public void testOtherBuildIsIgnored() throws IOException {
+        File file = new File(folder.getRoot(), MetadataCache.FILE_NAME);
+
+        MetadataCache cache = MetadataCache.load(file, URL, USER, status("2016-01-01 10:00:00", "2016-01-01 10:00:00"));
+        cache.put(PACKAGE_KEY, Collections.singletonList(procedure()), Collections.emptyList());
+        cache.save();
+
+        String xml = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+        Assert.assertTrue(xml.contains("<codeVersion>" + GenerationManifest.CODE_VERSION + "</codeVersion>"));
+        Files.write(file.toPath(), xml.replace(GenerationManifest.CODE_VERSION, "0.0.1").getBytes(StandardCharsets.UTF_8));
+
+        MetadataCache reloaded = MetadataCache.load(file, URL, USER, status("2016-01-01 10:00:00", "2016-01-01 10:00:00"));
+        Assert.assertNull(reloaded.get(PACKAGE_KEY));
+    }
+
+    @Test
+    public void testDisabledCacheStoresNothing() {
+        MetadataCache cache = MetadataCache.disabled();
+        cache.put(PACKAGE_KEY, Collections.emptyList(), Collections.emptyList());
+        Assert.assertFalse(cache.isEnabled());
+        Assert.assertNull(cache.get(PACKAGE_KEY));
+    }
+
+    @Test
+    public void testUnchangedCacheIsNotWritten() {
+        File file = new File(folder.getRoot(), MetadataCache.FILE_NAME);
+
+        MetadataCache cache = MetadataCache.load(file, URL, USER, status("2016-01-01 10:00:00", "2016-01-01 10:00:00"));
+        cache.put(PACKAGE_KEY, Collections.singletonList(procedure()), Collections.emptyList());
+        cache.save();
+        Assert.assertTrue(file.setLastModified(1_000_000L));
+
+        MetadataCache.load(file, URL, USER, status("2016-01-01 10:00:00", "2016-01-01 10:00:00")).save();
+        Assert.assertEquals(1_000_000L, file.lastModified());
+
+        MetadataCache.load(file, URL, USER, status("2016-02-01 10:00:00", "2016-01-01 10:00:00")).save();
+        Assert.assertNotEquals(1_000_000L, file.lastModified());
+    }
+
+    @Test
+    public void testKeepInMemory() {
+        File file = new File(folder.getRoot(), MetadataCache.FILE_NAME);
+
+        MetadataCache.keepInMemory(true);
+        try {
+            MetadataCache cache = MetadataCache.load(file, URL, USER, status("2016-01-01 10:00:00", "2016-01-01 10:00:00"));
+            cache.put(PACKAGE_KEY, Collections.singletonList(procedure()), Collections.emptyList());
+            cache.save();
+
+            Object kept = MetadataCache.load(file, URL, USER, status("2016-01-01 10:00:00", "2016-01-01 10:00:00")).get(PACKAGE_KEY);
+            Assert.assertSame(kept, MetadataCache.load(file, URL, USER, status("2016-01-01 10:00:00", "2016-01-01 10:00:00")).get(PACKAGE_KEY));
+            Assert.assertNull(MetadataCache.load(file, URL, "other", status("2016-01-01 10:00:00", "2016-01-01 10:00:00")).get(PACKAGE_KEY));
+
+            // written by someone else, read again
+            Assert.assertTrue(file.setLastModified(file.lastModified() - 10_000L));
+            Object reloaded = MetadataCache.load(file, URL, USER, status("2016-01-01 10:00:00", "2016-01-01 10:00:00")).get(PACKAGE_KEY);
+            Assert.assertNotNull(reloaded);
+            Assert.assertNotSame(kept, reloaded);
+        } finally {
+            MetadataCache.keepInMemory(false);
+        }
+    }
+
+    private static Map<String, ObjectStatusDto> status(String packageDdlTime, String typeDdlTime) {
+        Map<String, ObjectStatusDto> status = new HashMap<>();
+        status.put(PACKAGE_KEY, new ObjectStatusDto("OBRIDGE", "SIMPLE_PROCEDURES", "PACKAGE", packageDdlTime, ObjectStatusDto.VALID));
+        status.put(TYPE_KEY, new ObjectStatusDto("OBRIDGE", "SAMPLE_TYPE_ONE", "TYPE", typeDdlTime, ObjectStatusDto.VALID));
+        return status;
+    }
+
+    private static Procedure procedure() {
+        return new Procedure.Builder()
+                .owner("OBRIDGE")
+                .objectName("SIMPLE_PROCEDURES")
+                .procedureName("ADD_NUMBERS")
+                .overload("")
+                .methodType("FUNCTION")
+                .argumentList(Arrays.asList(new ProcedureArgument(null, "NUMBER", null, false, true, null),
+                                            new ProcedureArgument("P_A", "NUMBER", null, true, false, null),
+                                            new ProcedureArgument("P_B", "NUMBER", null, true, false, null)))
+                .build();
+    }
+}
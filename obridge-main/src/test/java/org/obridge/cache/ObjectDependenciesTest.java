@@ -0,0 +1,93 @@
+package org.obridge.cache;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.obridge.model.data.Procedure;
+import org.obridge.model.data.ProcedureArgument;
+import org.obridge.model.data.TypeAttribute;
+import org.obridge.model.dto.ObjectStatusDto;
+import org.obridge.model.dto.TypeIdDto;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+public class ObjectDependenciesTest {
+
+    @Test
+    public void testTypeClosure() {
+        Map<TypeIdDto, List<TypeAttribute>> typeAttributes = new HashMap<>();
+        typeAttributes.put(new TypeIdDto("OBRIDGE", "SAMPLE_TYPE_ONE"),
+                           Collections.singletonList(new TypeAttribute("INNER", "SAMPLE_TYPE_TWO", 1, 0, 1, "OBJECT", null)));
+        typeAttributes.put(new TypeIdDto("OBRIDGE", "SAMPLE_TYPE_TWO"),
+                           Collections.singletonList(new TypeAttribute("ITEMS", "SAMPLE_TYPE_ONE_LIST", 1, 0, 1, "COLLECTION", "SAMPLE_TYPE_ONE")));
+
+        ObjectDependencies dependencies = new ObjectDependencies(typeAttributes);
+
+        Assert.assertEquals(new HashSet<>(Arrays.asList(type("SAMPLE_TYPE_ONE"), type("SAMPLE_TYPE_TWO"), type("SAMPLE_TYPE_ONE_LIST"))),
+                            dependencies.ofType(new TypeIdDto("OBRIDGE", "SAMPLE_TYPE_ONE")));
+    }
+
+    @Test
+    public void testProcedureSources() {
+        Map<TypeIdDto, List<TypeAttribute>> typeAttributes = Collections.singletonMap(
+                new TypeIdDto("OBRIDGE", "SAMPLE_TYPE_ONE"),
+                Collections.singletonList(new TypeAttribute("INNER", "SAMPLE_TYPE_TWO", 1, 0, 1, "OBJECT", null)));
+
+        Procedure procedure = new Procedure.Builder()
+                .owner("OBRIDGE")
+                .objectName("SIMPLE_PROCEDURES")
+                .procedureName("TYPE_IN")
+                .overload("")
+                .methodType("PROCEDURE")
+                .argumentList(Collections.singletonList(new ProcedureArgument("P_TYPE", "OBJECT", "SAMPLE_TYPE_ONE", true, false, "SAMPLE_TYPE_ONE")))
+                .build();
+
+        Assert.assertEquals(new HashSet<>(Arrays.asList(ObjectStatusDto.key("PACKAGE", "OBRIDGE", "SIMPLE_PROCEDURES"),
+                                                        type("SAMPLE_TYPE_ONE"), type("SAMPLE_TYPE_TWO"))),
+                            new ObjectDependencies(typeAttributes).ofProcedures(Collections.singletonList(procedure)));
+    }
+
+    @Test
+    public void testArgumentTypeIds() {
+        Procedure procedure = new Procedure.Builder()
+                .owner("OBRIDGE")
+                .objectName("")
+                .procedureName("LIST_IN")
+                .overload("")
+                .methodType("PROCEDURE")
+                .argumentList(Arrays.asList(new ProcedureArgument("P_NAME", "VARCHAR2", null, true, false, null),
+                                            new ProcedureArgument("P_LIST", "TABLE", "SAMPLE_TYPE_ONE", true, false, "SAMPLE_TYPE_ONE_LIST", "SHARED")))
+                .build();
+
+        Assert.assertEquals(Arrays.asList(new TypeIdDto("SHARED", "SAMPLE_TYPE_ONE_LIST"), new TypeIdDto("SHARED", "SAMPLE_TYPE_ONE")),
+                            ObjectDependencies.argumentTypeIds(Collections.singletonList(procedure)));
+    }
+
+    @Test
+    public void testAttributeTypeIds() {
+        Map<TypeIdDto, List<TypeAttribute>> typeAttributes = Collections.singletonMap(
+                new TypeIdDto("OBRIDGE", "SAMPLE_TYPE_ONE"),
+                Arrays.asList(new TypeAttribute("NAME", "VARCHAR2", 1, 0, 0, null, null),
+                              new TypeAttribute("INNER", "SAMPLE_TYPE_TWO", 2, 0, 1, "OBJECT", null, "SHARED"),
+                              new TypeAttribute("NAMES", "SIMPLE_STRING_LIST", 3, 0, 1, "COLLECTION", "VARCHAR2", "SHARED"),
+                              new TypeAttribute("ITEMS", "SAMPLE_TYPE_ONE_LIST", 4, 0, 1, "COLLECTION", "SAMPLE_TYPE_ONE")));
+
+        Assert.assertEquals(Arrays.asList(new TypeIdDto("SHARED", "SAMPLE_TYPE_TWO"),
+                                          new TypeIdDto("SHARED", "SIMPLE_STRING_LIST"),
+                                          new TypeIdDto("OBRIDGE", "SAMPLE_TYPE_ONE_LIST"),
+                                          new TypeIdDto("OBRIDGE", "SAMPLE_TYPE_ONE")),
+                            ObjectDependencies.attributeTypeIds(typeAttributes));
+        Assert.assertEquals(new HashSet<>(Arrays.asList(type("SAMPLE_TYPE_ONE"), type("SAMPLE_TYPE_ONE_LIST"),
+                                                        ObjectStatusDto.key("TYPE", "SHARED", "SAMPLE_TYPE_TWO"),
+                                                        ObjectStatusDto.key("TYPE", "SHARED", "SIMPLE_STRING_LIST"))),
+                            new ObjectDependencies(typeAttributes).ofType(new TypeIdDto("OBRIDGE", "SAMPLE_TYPE_ONE")));
+    }
+
+    private static String type(String name) {
+        return ObjectStatusDto.key("TYPE", "OBRIDGE", name);
+    }
+}
@@ -0,0 +1,156 @@
+package org.obridge.cache;
+
+import com.sun.net.httpserver.HttpServer;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.obridge.OBridge;
+import org.obridge.context.BuildCache;
+import org.obridge.context.OBridgeConfiguration;
+import org.obridge.context.Packages;
+import org.obridge.generators.GenerationContext;
+import org.obridge.model.data.SchemaModel;
+import org.obridge.model.data.TypeAttribute;
+import org.obridge.model.dto.TypeIdDto;
+import org.obridge.util.SourceWriter;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class SourceCacheTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final Map<String, byte[]> remote = new ConcurrentHashMap<>();
+
+    private HttpServer server;
+
+    @Before
+    public void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/cache/", exchange -> {
+            String path = exchange.getRequestURI().getPath();
+            if ("PUT".equals(exchange.getRequestMethod())) {
+                try (InputStream is = exchange.getRequestBody()) {
+                    remote.put(path, IOUtils.toByteArray(is));
+                }
+                exchange.sendResponseHeaders(201, -1);
+            } else if (remote.containsKey(path)) {
+                exchange.sendResponseHeaders(200, remote.get(path).length);
+                try (OutputStream os = exchange.getResponseBody()) {
+                    os.write(remote.get(path));
+                }
+            } else {
+                exchange.sendResponseHeaders(404, -1);
+            }
+            exchange.close();
+        });
+        server.start();
+    }
+
+    @After
+    public void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    public void testLocalCache() throws IOException {
+        OBridgeConfiguration c = configuration("first", new File(folder.getRoot(), "cache").getPath(), null);
+        new OBridge().generate(c, createModel());
+
+        File cached = new File(folder.getRoot(), "first/hu/obridge/test/objects/SampleTypeOne.java");
+        Assert.assertEquals(1, new File(folder.getRoot(), "cache").list((dir, name) -> name.endsWith(".zip")).length);
+
+        OBridgeConfiguration other = configuration("second", new File(folder.getRoot(), "cache").getPath(), null);
+        String               key   = SourceCache.key(new GenerationContext(other), createModel());
+        Assert.assertEquals(SourceCache.key(new GenerationContext(c), createModel()), key);
+
+        SourceWriter sourceWriter = new SourceWriter();
+        Assert.assertTrue(SourceCache.open(other).restore(key, folder.getRoot().toPath().resolve("second").toAbsolutePath(), sourceWriter));
+
+        File restored = new File(folder.getRoot(), "second/hu/obridge/test/objects/SampleTypeOne.java");
+        Assert.assertEquals(FileUtils.readFileToString(cached, StandardCharsets.UTF_8), FileUtils.readFileToString(restored, StandardCharsets.UTF_8));
+        Assert.assertEquals(sourceWriter.getFiles().size(), sourceWriter.getCount(SourceWriter.Result.CREATED));
+    }
+
+    @Test
+    public void testKeyChangesWithMetadata() {
+        OBridgeConfiguration c     = configuration("first", null, null);
+        SchemaModel          model = createModel();
+        SchemaModel changed = new SchemaModel(model.getTypes(),
+                                              Collections.singletonMap(model.getTypes().get(0),
+                                                                       Collections.singletonList(new TypeAttribute("ATTR", "DATE", 1, 0, 0, null, null))),
+                                              model.getPackages(),
+                                              model.getObjectStatus());
+
+        Assert.assertNotEquals(SourceCache.key(new GenerationContext(c), model), SourceCache.key(new GenerationContext(c), changed));
+    }
+
+    @Test
+    public void testKeyChangesWithTemplates() throws IOException {
+        OBridgeConfiguration c     = configuration("first", null, null);
+        SchemaModel          model = createModel();
+        String               key   = SourceCache.key(new GenerationContext(c), model);
+
+        File templates = folder.newFolder("templates");
+        c.setTemplateDirectory(templates.getPath());
+        Assert.assertEquals(key, SourceCache.key(new GenerationContext(c), model));
+
+        FileUtils.writeStringToFile(new File(templates, "pojo.mustache"), "changed", StandardCharsets.UTF_8);
+        Assert.assertNotEquals(key, SourceCache.key(new GenerationContext(c), model));
+    }
+
+    @Test
+    public void testRemoteCache() throws IOException {
+        String url = "http://127.0.0.1:" + server.getAddress().getPort() + "/cache";
+
+        OBridgeConfiguration push = configuration("first", null, url);
+        push.getBuildCache().setRemotePush(true);
+        new OBridge().generate(push, createModel());
+        Assert.assertEquals(1, remote.size());
+
+        File                 local = new File(folder.getRoot(), "local");
+        OBridgeConfiguration pull  = configuration("second", local.getPath(), url);
+        new OBridge().generate(pull, createModel());
+
+        Assert.assertTrue(new File(folder.getRoot(), "second/hu/obridge/test/objects/SampleTypeOne.java").exists());
+        Assert.assertEquals(1, local.list((dir, name) -> name.endsWith(".zip")).length);
+
+        HttpSourceCacheStore store = new HttpSourceCacheStore(url);
+        Assert.assertNull(store.get("missing"));
+    }
+
+    private OBridgeConfiguration configuration(String sourceRoot, String cacheDirectory, String remoteUrl) {
+        OBridgeConfiguration c = new OBridgeConfiguration();
+        c.setSourceRoot(new File(folder.getRoot(), sourceRoot).getPath());
+        c.setRootPackageName("hu.obridge.test");
+        c.setPackages(new Packages());
+        c.setBuildCache(new BuildCache());
+        c.getBuildCache().setDirectory(cacheDirectory);
+        c.getBuildCache().setRemoteUrl(remoteUrl);
+        return c;
+    }
+
+    private static SchemaModel createModel() {
+        TypeIdDto type = new TypeIdDto("OBRIDGE", "SAMPLE_TYPE_ONE");
+        return new SchemaModel(Collections.singletonList(type),
+                               Collections.singletonMap(type, new ArrayList<>(Collections.singletonList(
+                                       new TypeAttribute("ATTR_VARCHAR", "VARCHAR2", 1, 0, 0, null, null)))),
+                               Collections.emptyList(),
+                               Collections.emptyMap());
+    }
+}
@@ -0,0 +1,50 @@
+package org.obridge.dao;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.obridge.model.data.TypeAttribute;
+import org.obridge.model.dto.ArgumentDto;
+import org.obridge.model.dto.TypeIdDto;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+public class EmbeddedTypeAttributesTest {
+
+    @Test
+    public void testRecordTypesAreAssembledFromNestedArguments() {
+        List<ArgumentDto> arguments = Arrays.asList(
+                argument(1, 0, "P_REC", "PL/SQL RECORD", null, "PKG", "REC_T"),
+                argument(1, 1, "ID", "NUMBER", 0, null, null),
+                argument(1, 1, "NAMES", "TABLE", null, "PKG", "NAMES_T"),
+                argument(1, 2, null, "VARCHAR2", null, null, null),
+                argument(1, 1, "INNER", "PL/SQL RECORD", null, "PKG", "INNER_T"),
+                argument(1, 2, "CODE", "VARCHAR2", null, null, null),
+                argument(1, 0, "P_OBJ", "OBJECT", null, "SAMPLE_TYPE_ONE", null),
+                argument(1, 1, "X", "NUMBER", null, null, null),
+                argument(2, 0, "P_OTHER", "PL/SQL RECORD", null, "PKG", "REC_T"),
+                argument(2, 1, "OTHER", "VARCHAR2", null, null, null));
+
+        Map<TypeIdDto, List<TypeAttribute>> types = TypeDao.toEmbeddedTypeAttributes(arguments);
+
+        Assert.assertEquals(Arrays.asList(new TypeIdDto("OBRIDGE", "PKG.REC_T"), new TypeIdDto("OBRIDGE", "PKG.INNER_T")),
+                            Arrays.asList(types.keySet().toArray()));
+
+        List<TypeAttribute> record = types.get(new TypeIdDto("OBRIDGE", "PKG.REC_T"));
+        Assert.assertEquals(Arrays.asList("ID", "NAMES", "INNER"), record.stream().map(TypeAttribute::getAttrName).collect(Collectors.toList()));
+        Assert.assertEquals(Arrays.asList("Integer", "List<String>", "PkgInnerT"),
+                            record.stream().map(TypeAttribute::getJavaDataType).collect(Collectors.toList()));
+        Assert.assertEquals("PKG.NAMES_T", record.get(1).getAttrTypeName());
+        Assert.assertEquals("VARCHAR2", record.get(1).getCollectionBaseType());
+
+        Assert.assertEquals("CODE", types.get(new TypeIdDto("OBRIDGE", "PKG.INNER_T")).get(0).getAttrName());
+    }
+
+    private static ArgumentDto argument(long subprogramId, int dataLevel, String name, String dataType, Integer scale, String typeName,
+                                        String typeSubname) {
+        return new ArgumentDto("OBRIDGE", 100, subprogramId, dataLevel, name, dataType, scale, typeName == null ? null : "OBRIDGE", typeName,
+                               typeSubname);
+    }
+}
@@ -0,0 +1,87 @@
+package org.obridge.dao;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.obridge.context.OBridgeConfiguration;
+import org.obridge.model.data.OraclePackage;
+import org.obridge.model.data.Procedure;
+import org.obridge.model.data.SchemaModel;
+import org.obridge.model.dto.ObjectStatusDto;
+import org.obridge.model.dto.TypeIdDto;
+import org.obridge.util.ResourceUtils;
+import org.obridge.util.jdbc.StubDataSource;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class JsonSchemaModelDaoTest {
+
+    @Test
+    public void testSchemaModelIsReadWithOneStatement() {
+        OBridgeConfiguration c = new OBridgeConfiguration();
+        c.setExtractionStrategy("json");
+
+        StubDataSource stub  = stub(c);
+        SchemaModel    model = new SchemaModelDao(stub.dataSource(), 1).getSchemaModel(c);
+
+        Assert.assertEquals(1, stub.executions.get());
+
+        Assert.assertEquals(Arrays.asList("SIMPLE_PROCEDURES", "PROCEDURES_AND_FUNCTIONS"),
+                            model.getPackages().stream().map(OraclePackage::getName).collect(Collectors.toList()));
+
+        List<Procedure> procedures = model.getPackages().get(0).getProcedureList();
+        Assert.assertEquals(2, procedures.size());
+        Assert.assertEquals("FUNCTION", procedures.get(0).getMethodType());
+        Assert.assertEquals(2, procedures.get(0).getArgumentList().size());
+        Assert.assertEquals("PROCEDURE", procedures.get(1).getMethodType());
+        Assert.assertEquals("SimpleProceduresRecT", procedures.get(1).getArgumentList().get(0).getJavaDataType());
+        Assert.assertEquals("", model.getPackages().get(1).getProcedureList().get(0).getObjectName());
+
+        Assert.assertEquals(Arrays.asList(new TypeIdDto("OBRIDGE", "SAMPLE_TYPE_ONE"),
+                                          new TypeIdDto("OBRIDGE", "SAMPLE_TYPE_TWO"),
+                                          new TypeIdDto("OBRIDGE", "SIMPLE_PROCEDURES.REC_T")), model.getTypes());
+        Assert.assertEquals("SAMPLE_TYPE_TWO", model.getTypeAttributes().get(new TypeIdDto("OBRIDGE", "SAMPLE_TYPE_ONE")).get(0).getAttrTypeName());
+        Assert.assertEquals("ID", model.getTypeAttributes().get(new TypeIdDto("OBRIDGE", "SIMPLE_PROCEDURES.REC_T")).get(0).getAttrName());
+
+        Assert.assertEquals("2024-01-01 10:00:00",
+                            model.getObjectStatus().get(ObjectStatusDto.key("PACKAGE", "OBRIDGE", "SIMPLE_PROCEDURES")).getLastDdlTime());
+    }
+
+    @Test
+    public void testReferencedTypesOnly() {
+        OBridgeConfiguration c = new OBridgeConfiguration();
+        c.setExtractionStrategy("json");
+        c.setReferencedTypesOnly(true);
+
+        StubDataSource stub = stub(c);
+        SchemaModel    model = new SchemaModelDao(stub.dataSource(), 1).getTypeModel(c);
+
+        Assert.assertEquals(3, model.getTypes().size());
+        Assert.assertTrue(model.getPackages().isEmpty());
+    }
+
+    @Test
+    public void testForEachPackage() {
+        OBridgeConfiguration c = new OBridgeConfiguration();
+        c.setExtractionStrategy("json");
+
+        List<String>    names           = new ArrayList<>();
+        List<TypeIdDto> referencedTypes = new SchemaModelDao(stub(c).dataSource(), 1).forEachPackage(c, Collections.emptyMap(),
+                                                                                                     p -> names.add(p.getName()));
+
+        Assert.assertEquals(Arrays.asList("SIMPLE_PROCEDURES", "PROCEDURES_AND_FUNCTIONS"), names);
+        Assert.assertTrue(referencedTypes.contains(new TypeIdDto("OBRIDGE", "SIMPLE_PROCEDURES.REC_T")));
+    }
+
+    private static StubDataSource stub(OBridgeConfiguration c) {
+        List<Object> args = new ArrayList<>();
+        String       sql  = JsonSchemaModelDao.getQuery(c, args);
+
+        Assert.assertTrue(args.isEmpty());
+
+        return new StubDataSource().result(sql, new Object[]{"model", ResourceUtils.load("json/schema-model.json")});
+    }
+}
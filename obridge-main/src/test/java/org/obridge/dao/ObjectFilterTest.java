@@ -0,0 +1,82 @@
+package org.obridge.dao;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.obridge.context.DbObject;
+import org.obridge.util.OBridgeException;
+import org.obridge.util.jdbc.SqlArray;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class ObjectFilterTest {
+
+    @Test
+    public void testNoObjectsSelectsConnectedUser() {
+        List<Object> args = new ArrayList<>();
+
+        Assert.assertEquals("owner = user", new ObjectFilter(null).toPredicate("owner", "object_name", args));
+        Assert.assertTrue(args.isEmpty());
+    }
+
+    @Test
+    public void testExactNamesAreBoundAsCollections() {
+        List<DbObject> objects = new ArrayList<>();
+        for (int i = 0; i < 1500; i++) {
+            objects.add(new DbObject("SCOTT", "PKG_" + i));
+        }
+        objects.add(new DbObject("HR", "PKG_0"));
+
+        List<Object> args      = new ArrayList<>();
+        String       predicate = new ObjectFilter(objects).toPredicate("owner", "object_name", args);
+
+        Assert.assertEquals("((owner In (Select column_value From Table(?)) And object_name In (Select column_value From Table(?))"
+                                    + " And owner || '.' || object_name In (Select column_value From Table(?))))", predicate);
+        Assert.assertEquals(3, args.size());
+        Assert.assertEquals(SqlArray.VARCHAR2_LIST, ((SqlArray) args.get(0)).getTypeName());
+        Assert.assertArrayEquals(new Object[]{"SCOTT", "HR"}, ((SqlArray) args.get(0)).getElements());
+        Assert.assertEquals(1500, ((SqlArray) args.get(1)).getElements().length);
+        Assert.assertEquals(1501, ((SqlArray) args.get(2)).getElements().length);
+        Assert.assertEquals("SCOTT.PKG_0", ((SqlArray) args.get(2)).getElements()[0]);
+        Assert.assertEquals("HR.PKG_0", ((SqlArray) args.get(2)).getElements()[1500]);
+    }
+
+    @Test
+    public void testPatternsAndExclusions() {
+        List<Object> args = new ArrayList<>();
+        String predicate = new ObjectFilter(Arrays.asList(object("SCOTT", "EMP_PKG", null, false),
+                                                          object("SCOTT", "HR\\_%", DbObject.MATCH_LIKE, false),
+                                                          object("HR", null, null, false),
+                                                          object("SCOTT", ".*_TEST$", DbObject.MATCH_REGEX, true)))
+                .toPredicate("owner", "type_name", args);
+
+        Assert.assertEquals("((owner In (Select column_value From Table(?)) And type_name In (Select column_value From Table(?))"
+                                    + " And owner || '.' || type_name In (Select column_value From Table(?)))"
+                                    + " Or (owner = ? And type_name Like ? Escape '\\') Or owner = ?)"
+                                    + " And Not ((owner = ? And regexp_like(type_name, ?)))", predicate);
+        Assert.assertEquals(Arrays.asList("SCOTT", "HR\\_%", "HR", "SCOTT", ".*_TEST$"), args.subList(3, args.size()));
+    }
+
+    @Test
+    public void testOwnersOfIncludedObjects() {
+        ObjectFilter filter = new ObjectFilter(Arrays.asList(object("SCOTT", "A", null, false),
+                                                             object("SCOTT", "B%", DbObject.MATCH_LIKE, false),
+                                                             object("SYS", "X", null, true)));
+
+        Assert.assertEquals(Collections.singletonList("SCOTT"), filter.getOwners());
+    }
+
+    @Test(expected = OBridgeException.class)
+    public void testUnknownMatch() {
+        new ObjectFilter(Collections.singletonList(object("SCOTT", "A", "glob", false)));
+    }
+
+    private static DbObject object(String owner, String name, String match, boolean exclude) {
+        DbObject o = new DbObject(owner, name);
+        o.setMatch(match);
+        o.setExclude(exclude);
+        return o;
+    }
+}
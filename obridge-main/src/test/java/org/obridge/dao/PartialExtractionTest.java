@@ -0,0 +1,178 @@
+package org.obridge.dao;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.obridge.cache.MetadataCache;
+import org.obridge.context.DbObject;
+import org.obridge.context.OBridgeConfiguration;
+import org.obridge.model.data.OraclePackage;
+import org.obridge.model.data.TypeAttribute;
+import org.obridge.model.dto.ObjectStatusDto;
+import org.obridge.model.dto.TypeIdDto;
+import org.obridge.util.jdbc.JdbcTemplate;
+import org.obridge.util.jdbc.StubDataSource;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+public class PartialExtractionTest {
+
+    private static final String DDL_TIME = "2016-01-01 10:00:00";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testChangedPackagesOnly() {
+        StubDataSource stub = new StubDataSource()
+                .resultContaining("t.package_name In (Select",
+                                  new Object[]{"package_name", "P2", "object_name", "RUN", "overload", null, "argument_name", "P_ID",
+                                               "data_type", "NUMBER", "type_name", null, "in_out", "IN", "orig_type_name", "NUMBER", "type_owner", null})
+                .resultContaining("t.package_name Is Null",
+                                  new Object[]{"package_name", null, "object_name", "STANDALONE", "overload", null, "argument_name", "P_NAME",
+                                               "data_type", "VARCHAR2", "type_name", null, "in_out", "IN", "orig_type_name", "VARCHAR2", "type_owner", null})
+                .resultContaining("From all_objects",
+                                  new Object[]{"owner", "SCOTT", "object_name", "P1"},
+                                  new Object[]{"owner", "SCOTT", "object_name", "P2"})
+                .resultContaining("procedure_name Is Not Null",
+                                  new Object[]{"owner", "SCOTT", "object_name", "P2", "procedure_name", "RUN", "overload", null, "proc_or_func", 0})
+                .resultContaining("procedure_name Is Null",
+                                  new Object[]{"owner", "SCOTT", "object_name", "STANDALONE", "overload", null, "proc_or_func", 0})
+                .otherwiseEmpty();
+
+        Map<String, ObjectStatusDto> status = new HashMap<>();
+        status.put(ObjectStatusDto.key("PACKAGE", "SCOTT", "P1"), new ObjectStatusDto("SCOTT", "P1", "PACKAGE", DDL_TIME, ObjectStatusDto.VALID));
+        status.put(ObjectStatusDto.key("PACKAGE", "SCOTT", "P2"), new ObjectStatusDto("SCOTT", "P2", "PACKAGE", DDL_TIME, ObjectStatusDto.VALID));
+        MetadataCache cache = cache(status);
+        cache.put(ObjectStatusDto.key("PACKAGE", "SCOTT", "P1"), Collections.emptyList(), Collections.emptyList());
+
+        List<OraclePackage> packages = new ProcedureDao(new JdbcTemplate(stub.dataSource()), 2, cache)
+                .getAllPackages(Collections.singletonList(new DbObject("SCOTT", null)));
+
+        Assert.assertEquals(3, packages.size());
+        Assert.assertEquals(0, packages.get(0).getProcedureList().size());
+        Assert.assertEquals(1, packages.get(1).getProcedureList().get(0).getArgumentList().size());
+        Assert.assertEquals(1, packages.get(2).getProcedureList().get(0).getArgumentList().size());
+
+        // the arguments of the changed package only, not of every package of the owner
+        List<String> argumentQueries = stub.queries.stream().filter(q -> q.contains("From all_arguments t")).collect(Collectors.toList());
+        Assert.assertEquals(2, argumentQueries.size());
+        Assert.assertTrue(argumentQueries.get(0).contains("t.package_name In (Select column_value From Table(?))"));
+        Assert.assertTrue(argumentQueries.get(1).contains("t.package_name Is Null"));
+    }
+
+    @Test
+    public void testChangedTypesAreBoundAsCollection() {
+        Object[][] types = new Object[1500][];
+        for (int i = 0; i < types.length; i++) {
+            types[i] = new Object[]{"owner", "SCOTT", "type_name", "T" + i};
+        }
+
+        StubDataSource stub = new StubDataSource()
+                .resultContaining("all_type_attrs")
+                .resultContaining("all_coll_types")
+                .resultContaining("FROM all_types", types)
+                .otherwiseEmpty();
+
+        Map<String, ObjectStatusDto> status = new HashMap<>();
+        status.put(ObjectStatusDto.key("TYPE", "SCOTT", "T0"), new ObjectStatusDto("SCOTT", "T0", "TYPE", DDL_TIME, ObjectStatusDto.VALID));
+        MetadataCache cache = cache(status);
+        cache.put(ObjectStatusDto.key("TYPE", "SCOTT", "T0"), new ArrayList<TypeAttribute>(), Collections.emptyList());
+
+        OBridgeConfiguration c = new OBridgeConfiguration();
+        c.setDbObjects(Collections.singletonList(new DbObject("SCOTT", null)));
+        Map<TypeIdDto, List<TypeAttribute>> attributes = new TypeDao(new JdbcTemplate(stub.dataSource()), 2, cache).getTypeAttributes(c);
+
+        Assert.assertEquals(Collections.singleton(new TypeIdDto("SCOTT", "T0")), attributes.keySet());
+
+        // more than 1000 changed types, an In list of binds would fail
+        List<String> attributeQueries = stub.queries.stream().filter(q -> q.contains("From all_type_attrs aa")).collect(Collectors.toList());
+        Assert.assertEquals(1, attributeQueries.size());
+        Assert.assertTrue(attributeQueries.get(0).contains("Where type_name In (Select column_value From Table(?))"));
+        Assert.assertFalse(attributeQueries.get(0).contains("?, ?"));
+    }
+
+    @Test
+    public void testCollectionTypeOfAnotherOwner() {
+        StubDataSource stub = new StubDataSource()
+                .resultContaining("From all_coll_types",
+                                  new Object[]{"owner", "SCOTT", "type_name", "NAME_LIST", "elem_type_name", "NUMBER", "scale", null},
+                                  new Object[]{"owner", "SHARED", "type_name", "NAME_LIST", "elem_type_name", "VARCHAR2", "scale", null})
+                .resultContaining("all_type_attrs",
+                                  new Object[]{"owner", "SCOTT", "type_name", "T", "attr_name", "NAMES", "attr_type_name", "NAME_LIST",
+                                               "attr_type_owner", "SHARED", "attr_no", 1, "scale", null, "multi_type", 1, "typecode", "COLLECTION"})
+                .resultContaining("FROM all_types", new Object[]{"owner", "SCOTT", "type_name", "T"})
+                .otherwiseEmpty();
+
+        OBridgeConfiguration c = new OBridgeConfiguration();
+        c.setDbObjects(Collections.singletonList(new DbObject("SCOTT", null)));
+        Map<TypeIdDto, List<TypeAttribute>> attributes = new TypeDao(new JdbcTemplate(stub.dataSource()), 2, MetadataCache.disabled()).getTypeAttributes(c);
+
+        Assert.assertEquals("VARCHAR2", attributes.get(new TypeIdDto("SCOTT", "T")).get(0).getCollectionBaseType());
+    }
+
+    @Test
+    public void testEmbeddedTypesCachedPerPackage() {
+        StubDataSource stub = new StubDataSource()
+                .resultContaining("From all_arguments t",
+                                  nestedArgument("P1", 0, "P_REC", "PL/SQL RECORD", "REC_T"),
+                                  nestedArgument("P1", 1, "ID", "NUMBER", null),
+                                  nestedArgument("P2", 0, "P_REC", "PL/SQL RECORD", "OTHER_T"),
+                                  nestedArgument("P2", 1, "NAME", "VARCHAR2", null))
+                .resultContaining("From all_objects",
+                                  new Object[]{"owner", "SCOTT", "object_name", "P1", "object_type", "PACKAGE"},
+                                  new Object[]{"owner", "SCOTT", "object_name", "P2", "object_type", "PACKAGE"})
+                .otherwiseEmpty();
+        List<DbObject> dbObjects = Collections.singletonList(new DbObject("SCOTT", null));
+
+        MetadataCache first = cache(packageStatus(DDL_TIME));
+        Assert.assertEquals(2, new TypeDao(new JdbcTemplate(stub.dataSource()), 2, first).getEmbeddedTypeAttributes(dbObjects).size());
+        first.save();
+        Assert.assertEquals(1, argumentQueries(stub).size());
+
+        // unchanged, every package from the cache
+        Map<TypeIdDto, List<TypeAttribute>> cached = new TypeDao(new JdbcTemplate(stub.dataSource()), 2, cache(packageStatus(DDL_TIME)))
+                .getEmbeddedTypeAttributes(dbObjects);
+        Assert.assertEquals(Arrays.asList(new TypeIdDto("SCOTT", "P1.REC_T"), new TypeIdDto("SCOTT", "P2.OTHER_T")), new ArrayList<>(cached.keySet()));
+        Assert.assertEquals(1, argumentQueries(stub).size());
+
+        // P2 recompiled, only its nested arguments are read
+        Map<String, ObjectStatusDto> changed = packageStatus(DDL_TIME);
+        changed.put(ObjectStatusDto.key("PACKAGE", "SCOTT", "P2"), new ObjectStatusDto("SCOTT", "P2", "PACKAGE", "2016-02-01 10:00:00", ObjectStatusDto.VALID));
+        Assert.assertEquals(2, new TypeDao(new JdbcTemplate(stub.dataSource()), 2, cache(changed)).getEmbeddedTypeAttributes(dbObjects).size());
+
+        List<String> argumentQueries = argumentQueries(stub);
+        Assert.assertEquals(2, argumentQueries.size());
+        Assert.assertTrue(argumentQueries.get(1).contains("Table(?)"));
+    }
+
+    private static Object[] nestedArgument(String packageName, int dataLevel, String name, String dataType, String typeSubname) {
+        return new Object[]{"owner", "SCOTT", "source_name", packageName, "object_id", packageName.hashCode(), "subprogram_id", 1,
+                            "data_level", dataLevel, "argument_name", name, "data_type", dataType, "data_scale", null,
+                            "type_owner", typeSubname == null ? null : "SCOTT", "type_name", typeSubname == null ? null : packageName,
+                            "type_subname", typeSubname};
+    }
+
+    private static Map<String, ObjectStatusDto> packageStatus(String ddlTime) {
+        Map<String, ObjectStatusDto> status = new HashMap<>();
+        status.put(ObjectStatusDto.key("PACKAGE", "SCOTT", "P1"), new ObjectStatusDto("SCOTT", "P1", "PACKAGE", ddlTime, ObjectStatusDto.VALID));
+        status.put(ObjectStatusDto.key("PACKAGE", "SCOTT", "P2"), new ObjectStatusDto("SCOTT", "P2", "PACKAGE", ddlTime, ObjectStatusDto.VALID));
+        return status;
+    }
+
+    private static List<String> argumentQueries(StubDataSource stub) {
+        return stub.queries.stream().filter(q -> q.contains("From all_arguments t")).collect(Collectors.toList());
+    }
+
+    private MetadataCache cache(Map<String, ObjectStatusDto> status) {
+        return MetadataCache.load(new File(folder.getRoot(), MetadataCache.FILE_NAME), "url", "user", status);
+    }
+}
@@ -0,0 +1,57 @@
+package org.obridge.dao;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.obridge.context.DbObject;
+import org.obridge.model.data.OraclePackage;
+import org.obridge.util.jdbc.StubDataSource;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class ProcedureDaoStreamingTest {
+
+    @Test
+    public void testForEachPackageReadsArgumentsPerPackage() {
+        StubDataSource stub = new StubDataSource()
+                .resultContaining("t.package_name = ?",
+                                  new Object[]{"package_name", "P1", "object_name", "RUN", "overload", null, "argument_name", "P_ID",
+                                               "data_type", "NUMBER", "type_name", null, "in_out", "IN", "orig_type_name", "NUMBER", "type_owner", null})
+                .resultContaining("t.package_name Is Null",
+                                  new Object[]{"package_name", null, "object_name", "STANDALONE", "overload", null, "argument_name", "P_NAME",
+                                               "data_type", "VARCHAR2", "type_name", null, "in_out", "IN", "orig_type_name", "VARCHAR2", "type_owner", null})
+                .resultContaining("From all_objects",
+                                  new Object[]{"owner", "SCOTT", "object_name", "P1"})
+                .resultContaining("procedure_name Is Not Null",
+                                  new Object[]{"owner", "SCOTT", "object_name", "P1", "procedure_name", "RUN", "overload", null, "proc_or_func", 0})
+                .resultContaining("procedure_name Is Null",
+                                  new Object[]{"owner", "SCOTT", "object_name", "STANDALONE", "overload", null, "proc_or_func", 0});
+
+        List<OraclePackage> packages = new ArrayList<>();
+        List<Integer>       sizes    = new ArrayList<>();
+        new ProcedureDao(stub.dataSource(), 2).forEachPackage(Collections.singletonList(new DbObject("SCOTT", null)), p -> {
+            packages.add(p);
+            sizes.add(p.getProcedureList().size());
+            Assert.assertEquals(1, p.getProcedureList().get(0).getArgumentList().size());
+        });
+
+        Assert.assertEquals(2, packages.size());
+        Assert.assertEquals("P1", packages.get(0).getName());
+        Assert.assertEquals("PROCEDURES_AND_FUNCTIONS", packages.get(1).getName());
+        Assert.assertEquals(1, (int) sizes.get(0));
+        Assert.assertEquals(1, (int) sizes.get(1));
+
+        // never the arguments of every package of the owner
+        List<String> argumentQueries = new ArrayList<>();
+        for (String query : stub.queries) {
+            if (query.contains("From all_arguments t")) {
+                argumentQueries.add(query);
+            }
+        }
+        Assert.assertEquals(2, argumentQueries.size());
+        Assert.assertTrue(argumentQueries.get(0).contains("t.package_name = ?"));
+        Assert.assertTrue(argumentQueries.get(1).contains("t.package_name Is Null"));
+        Assert.assertEquals(0, stub.openConnections.get());
+    }
+}
@@ -67,8 +67,13 @@ public class ProcedureDaoTest extends BaseTest {
 
     @Test
     public void getProcedureArguments() {
-        final List<ProcedureArgument> procedureArguments = procedureDao.getProcedureArguments("NULLITY_CHECK", "CHECK_OUT_NULL_LIST", null,
-                                                                                              "OBRIDGE");
+        Procedure procedure = procedureDao.getAllProcedure("OBRIDGE", "NULLITY_CHECK")
+                                          .stream()
+                                          .filter(p -> p.getProcedureName().equals("CHECK_OUT_NULL_LIST"))
+                                          .findFirst()
+                                          .get();
+
+        List<ProcedureArgument> procedureArguments = procedure.getArgumentList();
         Assert.assertEquals(1, procedureArguments.size());
         Assert.assertEquals("P_LIST_OBJECT", procedureArguments.get(0).getArgumentName());
     }
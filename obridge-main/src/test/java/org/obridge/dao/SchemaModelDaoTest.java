@@ -0,0 +1,39 @@
+package org.obridge.dao;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.obridge.context.OBridgeConfiguration;
+import org.obridge.model.data.SchemaModel;
+import org.obridge.util.jdbc.StubDataSource;
+
+public class SchemaModelDaoTest {
+
+    @Test
+    public void testParallelExtractionFitsThePool() {
+        int threads = 3;
+        StubDataSource stub = new StubDataSource()
+                .resultContaining("From all_objects",
+                                  new Object[]{"owner", "A", "object_name", "P1"},
+                                  new Object[]{"owner", "B", "object_name", "P2"},
+                                  new Object[]{"owner", "C", "object_name", "P3"})
+                .resultContaining("all_type_attrs")
+                .resultContaining("FROM all_types",
+                                  new Object[]{"owner", "A", "type_name", "T1"},
+                                  new Object[]{"owner", "B", "type_name", "T2"},
+                                  new Object[]{"owner", "C", "type_name", "T3"})
+                .otherwiseEmpty()
+                .latency(20)
+                .maxConnections(threads + 1);
+
+        OBridgeConfiguration c = new OBridgeConfiguration();
+        c.setExtractionThreads(threads);
+
+        // the procedure and the type extraction run on executors of their own, in the same session
+        SchemaModel model = new SchemaModelDao(stub.dataSource(), threads).getGenerationModel(c);
+
+        Assert.assertEquals(3, model.getPackages().size());
+        Assert.assertEquals(3, model.getTypes().size());
+        Assert.assertTrue(stub.peakConnections.get() <= threads + 1);
+        Assert.assertEquals(0, stub.openConnections.get());
+    }
+}
@@ -4,12 +4,15 @@ import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 import org.obridge.BaseTest;
+import org.obridge.context.DbObject;
 import org.obridge.context.OBridgeConfiguration;
 import org.obridge.model.data.Type;
 import org.obridge.model.data.TypeAttribute;
 import org.obridge.model.dto.TypeIdDto;
 import org.obridge.util.MustacheRunner;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -43,6 +46,29 @@ public class TypeDaoTest extends BaseTest {
         Assert.assertFalse(typeList.contains(NOT_EXISTING_TYPE));
     }
 
+    @Test
+    public void testGetTypeListFilters() {
+        OBridgeConfiguration c = new OBridgeConfiguration();
+
+        // without the escape the backslashes would be matched literally and select nothing
+        c.setDbObjects(Arrays.asList(object("SAMPLE\\_TYPE\\_ONE", DbObject.MATCH_LIKE), object("SAMPLE\\_TYPE\\_T_O", DbObject.MATCH_LIKE)));
+        Assert.assertEquals(Arrays.asList(SAMPLE_TYPE_ONE, SAMPLE_TYPE_TWO), typeNames(c));
+
+        // the owner and the name lists both match OBRIDGE.SAMPLE_TYPE_TWO, the pair does not
+        c.setDbObjects(Arrays.asList(object(SAMPLE_TYPE_ONE, DbObject.MATCH_EXACT), new DbObject("SYS", SAMPLE_TYPE_TWO)));
+        Assert.assertEquals(Collections.singletonList(SAMPLE_TYPE_ONE), typeNames(c));
+    }
+
+    private List<String> typeNames(OBridgeConfiguration c) {
+        return typeDao.getTypeList(c).stream().map(TypeIdDto::getTypeName).sorted().collect(Collectors.toList());
+    }
+
+    private static DbObject object(String name, String match) {
+        DbObject o = new DbObject("OBRIDGE", name);
+        o.setMatch(match);
+        return o;
+    }
+
     @Test
     public void testGetTypeAttributes() {
         List<TypeAttribute> typeAttributes = typeDao.getTypeAttributes(new TypeIdDto("OBRIDGE", SAMPLE_TYPE_ONE));
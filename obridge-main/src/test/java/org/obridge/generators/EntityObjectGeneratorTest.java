@@ -20,9 +20,10 @@ public class EntityObjectGeneratorTest extends BaseTest {
         c.setRootPackageName("hu.obridge.test");
         c.setPackages(new Packages());
 
-        EntityObjectGenerator.generate(c);
-        ConverterObjectGenerator.generate(c);
-        ProcedureContextGenerator.generate(c);
-        PackageObjectGenerator.generate(c);
+        GenerationContext context = new GenerationContext(c);
+        EntityObjectGenerator.generate(context);
+        ConverterObjectGenerator.generate(context);
+        ProcedureContextGenerator.generate(context);
+        PackageObjectGenerator.generate(context);
     }
 }
@@ -0,0 +1,51 @@
+package org.obridge.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public class BoundedExecutorTest {
+
+    @Test
+    public void testMapKeepsSubmissionOrder() {
+        List<Integer> input = IntStream.range(0, 200).boxed().collect(Collectors.toList());
+
+        try (BoundedExecutor executor = new BoundedExecutor("test", 8)) {
+            List<Integer> result = executor.map(input, i -> {
+                try {
+                    Thread.sleep((200 - i) % 7);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return i * 2;
+            });
+
+            Assert.assertEquals(input.stream().map(i -> i * 2).collect(Collectors.toList()), result);
+        }
+    }
+
+    @Test
+    public void testSerialRunsOnCallerThread() {
+        Thread caller = Thread.currentThread();
+        try (BoundedExecutor executor = new BoundedExecutor("test", 1)) {
+            List<Boolean> result = executor.map(Arrays.asList(1, 2, 3), i -> Thread.currentThread() == caller);
+            Assert.assertEquals(Arrays.asList(true, true, true), result);
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testTaskExceptionIsRethrown() {
+        try (BoundedExecutor executor = new BoundedExecutor("test", 4)) {
+            executor.map(Arrays.asList(1, 2, 3), i -> {
+                if (i == 2) {
+                    throw new IllegalStateException("failed");
+                }
+                return i;
+            });
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package org.obridge.util;
+
+import com.mchange.v2.c3p0.ComboPooledDataSource;
+import org.junit.Assert;
+import org.junit.Test;
+import org.obridge.context.ConnectionPool;
+import org.obridge.context.OBridgeConfiguration;
+
+import javax.sql.DataSource;
+import java.beans.PropertyVetoException;
+
+public class DataSourceProviderTest {
+
+    @Test
+    public void testPoolsAreKeyedByCredentials() throws PropertyVetoException {
+        OBridgeConfiguration scott = config("scott", "tiger");
+        OBridgeConfiguration other = config("scott", "lion");
+
+        DataSourceProvider.retain(scott);
+        DataSourceProvider.retain(other);
+        try {
+            Assert.assertSame(DataSourceProvider.getDataSource(scott), DataSourceProvider.getDataSource(config("scott", "tiger")));
+            Assert.assertNotSame(DataSourceProvider.getDataSource(scott), DataSourceProvider.getDataSource(other));
+        } finally {
+            DataSourceProvider.release(scott);
+            DataSourceProvider.release(other);
+        }
+    }
+
+    @Test
+    public void testPoolIsClosedByLastRelease() throws PropertyVetoException {
+        OBridgeConfiguration c = config("scott", "tiger");
+
+        DataSourceProvider.retain(c);
+        DataSourceProvider.retain(c);
+        DataSource dataSource = DataSourceProvider.getDataSource(c);
+
+        DataSourceProvider.release(c);
+        Assert.assertSame(dataSource, DataSourceProvider.getDataSource(c));
+
+        DataSourceProvider.release(c);
+        Assert.assertNotSame(dataSource, DataSourceProvider.getDataSource(c));
+
+        DataSourceProvider.retain(c);
+        DataSourceProvider.release(c);
+    }
+
+    @Test
+    public void testPoolSizing() throws PropertyVetoException {
+        OBridgeConfiguration c = config("sizing", "tiger");
+        c.setExtractionThreads(4);
+
+        DataSourceProvider.retain(c);
+        try {
+            ComboPooledDataSource dataSource = (ComboPooledDataSource) DataSourceProvider.getDataSource(c);
+            Assert.assertEquals(5, dataSource.getMaxPoolSize());
+            Assert.assertEquals(1, dataSource.getMinPoolSize());
+        } finally {
+            DataSourceProvider.release(c);
+        }
+
+        ConnectionPool connectionPool = new ConnectionPool();
+        connectionPool.setMinPoolSize(2);
+        connectionPool.setMaxPoolSize(8);
+        connectionPool.setStatementCacheSize(20);
+        c.setConnectionPool(connectionPool);
+
+        DataSourceProvider.retain(c);
+        try {
+            ComboPooledDataSource dataSource = (ComboPooledDataSource) DataSourceProvider.getDataSource(c);
+            Assert.assertEquals(8, dataSource.getMaxPoolSize());
+            Assert.assertEquals(2, dataSource.getMinPoolSize());
+            Assert.assertEquals(20, dataSource.getMaxStatementsPerConnection());
+        } finally {
+            DataSourceProvider.release(c);
+        }
+    }
+
+    private static OBridgeConfiguration config(String username, String password) {
+        OBridgeConfiguration c = new OBridgeConfiguration();
+        c.setJdbcUrl("jdbc:oracle:thin:@localhost:1521:xe");
+        c.setUsername(username);
+        c.setPassword(password);
+        return c;
+    }
+}
@@ -1,11 +1,19 @@
 package org.obridge.util;
 
 
+import com.github.mustachejava.MustacheException;
 import org.junit.Assert;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.obridge.context.OBridgeConfiguration;
 import org.obridge.model.generator.Pojo;
 import org.obridge.model.generator.PojoField;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.logging.Logger;
 
@@ -16,6 +24,9 @@ public class MustacheRunnerTest {
     public static final String PACKAGE_NAME = "hu.karsany.tesztpackage";
     private final static String CLASS_NAME = "ExampleClass";
 
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
     @Test
     public void pojoMustacheTest() {
 
@@ -52,4 +63,75 @@ public class MustacheRunnerTest {
         Assert.assertFalse(s.contains("setField2"));
 
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testTemplateIsCompiledOnce() {
+        MustacheRunner runner = new MustacheRunner(null);
+        Assert.assertSame(runner.getTemplate("pojo.mustache"), runner.getTemplate("pojo.mustache"));
+    }
+
+    @Test
+    public void testTemplateOverride() throws IOException {
+        File template = new File(folder.getRoot(), "StoredProcedureCallException.java.mustache");
+        Files.write(template.toPath(), "first {{className}}".getBytes(StandardCharsets.UTF_8));
+        MustacheRunner runner = new MustacheRunner(folder.getRoot());
+
+        Pojo pojo = new Pojo();
+        pojo.setClassName(CLASS_NAME);
+        Assert.assertEquals("first " + CLASS_NAME, runner.render("StoredProcedureCallException.java.mustache", pojo));
+
+        Files.write(template.toPath(), "second".getBytes(StandardCharsets.UTF_8));
+        Assert.assertTrue(template.setLastModified(template.lastModified() + 2000));
+        Assert.assertEquals("second", runner.render("StoredProcedureCallException.java.mustache", pojo));
+
+        // other runners and the built-in templates are not affected
+        Assert.assertNotEquals("second", new MustacheRunner(null).render("StoredProcedureCallException.java.mustache", pojo));
+        Assert.assertNotEquals("second", MustacheRunner.build("StoredProcedureCallException.java.mustache", pojo));
+    }
+
+    @Test
+    public void testPrecompile() throws IOException {
+        new MustacheRunner(null).precompile();
+
+        Files.write(new File(folder.getRoot(), "converter.mustache").toPath(), "{{#unclosed}}".getBytes(StandardCharsets.UTF_8));
+        try {
+            new MustacheRunner(folder.getRoot()).precompile();
+            Assert.fail("A broken template must fail the precompilation");
+        } catch (MustacheException e) {
+            Assert.assertTrue(e.getMessage(), e.getMessage().contains("converter.mustache"));
+        }
+    }
+
+    @Test
+    public void testRunnerSharedPerTemplateDirectory() throws IOException {
+        OBridgeConfiguration c = new OBridgeConfiguration();
+        c.setTemplateDirectory(folder.getRoot().getPath());
+        MustacheRunner runner = MustacheRunner.create(c);
+
+        c.setTemplateDirectory(new File(folder.getRoot(), ".").getPath());
+        Assert.assertSame(runner, MustacheRunner.create(c));
+
+        c.setTemplateDirectory(folder.newFolder("other").getPath());
+        Assert.assertNotSame(runner, MustacheRunner.create(c));
+
+        c.setTemplateDirectory(null);
+        Assert.assertSame(MustacheRunner.create(c), MustacheRunner.create(new OBridgeConfiguration()));
+    }
+
+    @Test
+    public void testNestedBuildUsesTheRenderingRunner() throws IOException {
+        Files.createDirectories(new File(folder.getRoot(), "sniplets").toPath());
+        Files.write(new File(folder.getRoot(), "StoredProcedureCallException.java.mustache").toPath(), "outer {{inner}}".getBytes(StandardCharsets.UTF_8));
+        Files.write(new File(folder.getRoot(), "sniplets/DEFAULT-GET.mustache").toPath(), "nested".getBytes(StandardCharsets.UTF_8));
+
+        Assert.assertEquals("outer nested", new MustacheRunner(folder.getRoot()).render("StoredProcedureCallException.java.mustache", new Nested()));
+        Assert.assertNotEquals("nested", MustacheRunner.build("sniplets/DEFAULT-GET.mustache", new Nested()));
+    }
+
+    public static class Nested {
+
+        public String getInner() {
+            return MustacheRunner.build("sniplets/DEFAULT-GET.mustache", this);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package org.obridge.util;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+public class ProfilerTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final Profiler profiler = new Profiler();
+
+    private RunLocal.Binding binding;
+
+    @Before
+    public void setUp() {
+        binding = profiler.activate();
+    }
+
+    @After
+    public void tearDown() {
+        binding.close();
+    }
+
+    @Test
+    public void testNestedPhasesDoNotOverlap() {
+        Profiler.measure(Profiler.Phase.EXTRACTION, () -> {
+            sleep(20);
+            return Profiler.measure(Profiler.Phase.MODEL, () -> sleep(50));
+        });
+
+        long extraction = phase(Profiler.Phase.EXTRACTION).getWallMillis();
+        long model      = phase(Profiler.Phase.MODEL).getWallMillis();
+        Assert.assertTrue("model " + model, model >= 50);
+        Assert.assertTrue("extraction " + extraction, extraction >= 20 && extraction < 50);
+        Assert.assertEquals(1, phase(Profiler.Phase.MODEL).getCount());
+    }
+
+    @Test
+    public void testSlowestUnits() {
+        for (int i = 0; i < Profiler.SLOWEST_UNITS + 5; i++) {
+            int millis = 10 * i;
+            Profiler.unit("EntityObjectGenerator", "OBRIDGE.TYPE_" + i, () -> Profiler.measure(Profiler.Phase.RENDER, () -> sleep(millis)));
+        }
+
+        List<Profiler.Entry> units = profiler.getSlowestUnits();
+        Assert.assertEquals(Profiler.SLOWEST_UNITS, units.size());
+        Assert.assertEquals("OBRIDGE.TYPE_14", units.get(0).getName());
+        Assert.assertEquals("EntityObjectGenerator", units.get(0).getGenerator());
+
+        List<Profiler.Entry> generators = profiler.getGenerators();
+        Assert.assertEquals(1, generators.size());
+        Assert.assertEquals(Profiler.SLOWEST_UNITS + 5, generators.get(0).getCount());
+        Assert.assertEquals(Profiler.SLOWEST_UNITS + 5, phase(Profiler.Phase.GENERATION).getCount());
+    }
+
+    @Test
+    public void testReport() throws IOException {
+        Profiler.unit("PackageObjectGenerator", "OBRIDGE.SIMPLE_PROCEDURES", () -> Profiler.measure(Profiler.Phase.FORMAT, () -> "formatted"));
+
+        File json = new File(temporaryFolder.getRoot(), "report/profile.json");
+        profiler.writeJson(json);
+
+        String content = new String(Files.readAllBytes(json.toPath()), StandardCharsets.UTF_8);
+        Assert.assertTrue(content, content.contains("\"name\": \"format\""));
+        Assert.assertTrue(content, content.contains("\"name\": \"OBRIDGE.SIMPLE_PROCEDURES\""));
+        Assert.assertTrue(profiler.formatTable().contains("PackageObjectGenerator"));
+    }
+
+    @Test
+    public void testRunsDoNotShareProfiles() throws InterruptedException {
+        Profiler other  = new Profiler();
+        Thread   thread = new Thread(() -> {
+            try (RunLocal.Binding ignored = other.activate()) {
+                Profiler.unit("EntityObjectGenerator", "OBRIDGE.OTHER", () -> Profiler.measure(Profiler.Phase.RENDER, () -> "rendered"));
+            }
+        });
+        thread.start();
+        thread.join();
+
+        Profiler.unit("PackageObjectGenerator", "OBRIDGE.SIMPLE_PROCEDURES", () -> Profiler.measure(Profiler.Phase.FORMAT, () -> "formatted"));
+
+        Assert.assertEquals("OBRIDGE.SIMPLE_PROCEDURES", profiler.getSlowestUnits().get(0).getName());
+        Assert.assertEquals(1, profiler.getSlowestUnits().size());
+        Assert.assertEquals("OBRIDGE.OTHER", other.getSlowestUnits().get(0).getName());
+        Assert.assertEquals(1, other.getSlowestUnits().size());
+    }
+
+    private Profiler.Entry phase(Profiler.Phase phase) {
+        return profiler.getPhases().stream().filter(e -> e.getName().equals(phase.name().toLowerCase())).findFirst().get();
+    }
+
+    private static Object sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,139 @@
+package org.obridge.util;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.obridge.OBridge;
+import org.obridge.context.OBridgeConfiguration;
+import org.obridge.context.Packages;
+import org.obridge.model.data.OraclePackage;
+import org.obridge.model.data.Procedure;
+import org.obridge.model.data.ProcedureArgument;
+import org.obridge.model.data.SchemaModel;
+import org.obridge.model.data.TypeAttribute;
+import org.obridge.model.dto.ObjectStatusDto;
+import org.obridge.model.dto.TypeIdDto;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class SchemaSnapshotTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testRoundTrip() {
+        File snapshot = new File(folder.getRoot(), "snapshot.xml");
+
+        SchemaSnapshot.write(createModel(), snapshot);
+        SchemaModel model = SchemaSnapshot.read(snapshot);
+
+        TypeIdDto type = new TypeIdDto("OBRIDGE", "SAMPLE_TYPE_ONE");
+        Assert.assertEquals(Collections.singletonList(type), model.getTypes());
+        Assert.assertEquals("ATTR_VARCHAR", model.getTypeAttributes().get(type).get(0).getAttrName());
+        Assert.assertEquals("SIMPLE_PROCEDURES", model.getPackages().get(0).getName());
+        Assert.assertEquals(createModel().getAllProcedures().get(0).getCallString(), model.getAllProcedures().get(0).getCallString());
+        Assert.assertEquals("2016-01-01 10:00:00", model.getObjectStatus().get(ObjectStatusDto.key("TYPE", "OBRIDGE", "SAMPLE_TYPE_ONE")).getLastDdlTime());
+    }
+
+    @Test
+    public void testGenerateFromSnapshot() {
+        File snapshot = new File(folder.getRoot(), "snapshot.xml");
+        SchemaSnapshot.write(createModel(), snapshot);
+
+        OBridgeConfiguration c = new OBridgeConfiguration();
+        c.setSourceRoot(new File(folder.getRoot(), "src").getPath());
+        c.setRootPackageName("hu.obridge.test");
+        c.setPackages(new Packages());
+
+        new OBridge().generate(c, SchemaSnapshot.read(snapshot));
+
+        File root = new File(folder.getRoot(), "src/hu/obridge/test");
+        Assert.assertTrue(new File(root, "objects/SampleTypeOne.java").exists());
+        Assert.assertTrue(new File(root, "converters/SampleTypeOneConverter.java").exists());
+        Assert.assertTrue(new File(root, "context/SimpleProceduresTypeIn.java").exists());
+        Assert.assertTrue(new File(root, "packages/SimpleProcedures.java").exists());
+    }
+
+    @Test
+    public void testGenerateLeavesModelUnchanged() {
+        OBridgeConfiguration c = new OBridgeConfiguration();
+        c.setSourceRoot(new File(folder.getRoot(), "src").getPath());
+        c.setRootPackageName("hu.obridge.test");
+        c.setPackages(new Packages());
+
+        SchemaModel model = createModel();
+        new OBridge().generate(c, model);
+
+        Assert.assertNull(model.getPackages().get(0).getJavaPackageName());
+        Assert.assertTrue(new File(folder.getRoot(), "src/hu/obridge/test/packages/SimpleProcedures.java").exists());
+    }
+
+    @Test
+    public void testParallelRenderingIsDeterministic() throws IOException {
+        Assert.assertEquals(generate("serial", 1), generate("parallel", 4));
+    }
+
+    private Map<String, String> generate(String directory, int renderThreads) throws IOException {
+        File root = new File(folder.getRoot(), directory);
+
+        OBridgeConfiguration c = new OBridgeConfiguration();
+        c.setSourceRoot(root.getPath());
+        c.setRootPackageName("hu.obridge.test");
+        c.setPackages(new Packages());
+        c.setRenderThreads(renderThreads);
+        c.setReportDirectory(new File(folder.getRoot(), directory + "-report").getPath());
+
+        new OBridge().generate(c, createModel());
+
+        Map<String, String> ret = new HashMap<>();
+        for (File f : FileUtils.listFiles(root, null, true)) {
+            ret.put(root.toPath().relativize(f.toPath()).toString(), FileUtils.readFileToString(f, StandardCharsets.UTF_8));
+        }
+        return ret;
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testModelIsReadOnly() {
+        createModel().getPackages().add(new OraclePackage());
+    }
+
+    private static SchemaModel createModel() {
+        TypeIdDto type = new TypeIdDto("OBRIDGE", "SAMPLE_TYPE_ONE");
+
+        Procedure procedure = new Procedure.Builder()
+                .owner("OBRIDGE")
+                .objectName("SIMPLE_PROCEDURES")
+                .procedureName("TYPE_IN")
+                .overload("")
+                .methodType("PROCEDURE")
+                .argumentList(Collections.singletonList(new ProcedureArgument("P_TYPE", "OBJECT", "SAMPLE_TYPE_ONE", true, false, "SAMPLE_TYPE_ONE")))
+                .build();
+
+        OraclePackage oraclePackage = new OraclePackage();
+        oraclePackage.setOwner("OBRIDGE");
+        oraclePackage.setName("SIMPLE_PROCEDURES");
+        oraclePackage.setProcedureList(new ArrayList<>(Collections.singletonList(procedure)));
+
+        Map<TypeIdDto, List<TypeAttribute>> typeAttributes = Collections.singletonMap(
+                type, new ArrayList<>(Arrays.asList(new TypeAttribute("ATTR_VARCHAR", "VARCHAR2", 1, 0, 0, null, null),
+                                                    new TypeAttribute("ATTR_NUMBER", "NUMBER", 2, 0, 0, null, null))));
+
+        return new SchemaModel(new ArrayList<>(Collections.singletonList(type)),
+                               new HashMap<>(typeAttributes),
+                               new ArrayList<>(Collections.singletonList(oraclePackage)),
+                               new HashMap<>(Collections.singletonMap(
+                                       ObjectStatusDto.key("TYPE", "OBRIDGE", "SAMPLE_TYPE_ONE"),
+                                       new ObjectStatusDto("OBRIDGE", "SAMPLE_TYPE_ONE", "TYPE", "2016-01-01 10:00:00", ObjectStatusDto.VALID))));
+    }
+}
@@ -0,0 +1,34 @@
+package org.obridge.util;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+
+public class SourceWriterTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testWriteIfChanged() throws IOException {
+        String       fileName     = new File(folder.getRoot(), "hu/obridge/Test.java").getPath();
+        SourceWriter sourceWriter = new SourceWriter();
+
+        Assert.assertEquals(SourceWriter.Result.CREATED, sourceWriter.write(fileName, "class Test {}"));
+
+        File file = new File(fileName);
+        Assert.assertTrue(file.setLastModified(1000L));
+
+        Assert.assertEquals(SourceWriter.Result.UNCHANGED, sourceWriter.write(fileName, "class Test {}"));
+        Assert.assertEquals(1000L, file.lastModified());
+
+        Assert.assertEquals(SourceWriter.Result.UPDATED, sourceWriter.write(fileName, "class Test { }"));
+        Assert.assertNotEquals(1000L, file.lastModified());
+
+        Assert.assertEquals("Generated files: 1 created, 1 updated, 1 unchanged, 0 deleted", sourceWriter.formatSummary());
+    }
+}
@@ -8,6 +8,7 @@ public class StringHelperTest {
     @Test
     public void testToCamelCase() {
         Assert.assertEquals("HelloWorld", StringHelper.toCamelCase("hello_world"));
+        Assert.assertEquals("PkgRecordType", StringHelper.toCamelCase("PKG.RECORD_TYPE"));
         Assert.assertEquals("", StringHelper.toCamelCase(null));
     }
 
@@ -0,0 +1,269 @@
+
+package org.obridge.util;
+
+import org.obridge.model.data.OraclePackage;
+import org.obridge.model.data.Procedure;
+import org.obridge.model.data.ProcedureArgument;
+import org.obridge.model.data.SchemaModel;
+import org.obridge.model.data.TypeAttribute;
+import org.obridge.model.dto.ObjectStatusDto;
+import org.obridge.model.dto.TypeIdDto;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Builds made-up schema models of any size, to test and benchmark the generators at scales the test database does not
+ * have. The same settings, including the seed, always build the same model.
+ * <p>
+ * Every top-level object type refers to a chain of nested types, as deep as the nesting depth, through its last
+ * attribute. Procedure arguments and nested attributes refer to the types directly or through a collection
+ * ({@code <TYPE>_LIST}).
+ */
+public final class SyntheticSchema {
+
+    public static final int    MAX_ATTRIBUTES = 1000;
+    public static final String LAST_DDL_TIME  = "2016-01-01 10:00:00";
+
+    private static final String[] SCALAR_TYPES = {TypeMapper.ORACLE_VARCHAR2, TypeMapper.ORACLE_NUMBER, TypeMapper.ORACLE_DATE,
+                                                  TypeMapper.ORACLE_TIMESTAMP, TypeMapper.ORACLE_CLOB, TypeMapper.ORACLE_BLOB,
+                                                  TypeMapper.ORACLE_RAW};
+
+    private SyntheticSchema() {
+    }
+
+    public static final class Builder {
+
+        private String owner               = "SYNTHETIC";
+        private long   seed                = 1L;
+        private int    types               = 10;
+        private int    attributes          = 10;
+        private int    nestingDepth        = 1;
+        private double collectionRatio     = 0.2;
+        private int    packages            = 10;
+        private int    procedures          = 10;
+        private int    overloads           = 1;
+        private int    arguments           = 5;
+        private double objectArgumentRatio = 0.2;
+        private double functionRatio       = 0.5;
+
+        private Random random;
+
+        public Builder owner(String owner) {
+            this.owner = owner;
+            return this;
+        }
+
+        public Builder seed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        /**
+         * Top-level object types, each one with its chain of nested types.
+         */
+        public Builder types(int types) {
+            this.types = types;
+            return this;
+        }
+
+        /**
+         * Attributes of every type, at most {@value #MAX_ATTRIBUTES}.
+         */
+        public Builder attributes(int attributes) {
+            this.attributes = attributes;
+            return this;
+        }
+
+        /**
+         * Levels of nested types under each top-level type, 0 for flat types.
+         */
+        public Builder nestingDepth(int nestingDepth) {
+            this.nestingDepth = nestingDepth;
+            return this;
+        }
+
+        /**
+         * The share of type references (object arguments and nested attributes) made through a collection.
+         */
+        public Builder collectionRatio(double collectionRatio) {
+            this.collectionRatio = collectionRatio;
+            return this;
+        }
+
+        public Builder packages(int packages) {
+            this.packages = packages;
+            return this;
+        }
+
+        /**
+         * Procedure names per package.
+         */
+        public Builder procedures(int procedures) {
+            this.procedures = procedures;
+            return this;
+        }
+
+        /**
+         * Overloads of every procedure name, each one with one more argument than the previous one.
+         */
+        public Builder overloads(int overloads) {
+            this.overloads = overloads;
+            return this;
+        }
+
+        /**
+         * Arguments of the first overload, not counting the return value of functions.
+         */
+        public Builder arguments(int arguments) {
+            this.arguments = arguments;
+            return this;
+        }
+
+        /**
+         * The share of arguments referring to an object type, the others are scalars.
+         */
+        public Builder objectArgumentRatio(double objectArgumentRatio) {
+            this.objectArgumentRatio = objectArgumentRatio;
+            return this;
+        }
+
+        public Builder functionRatio(double functionRatio) {
+            this.functionRatio = functionRatio;
+            return this;
+        }
+
+        /**
+         * Multiplies the number of types and packages, keeping their shape.
+         */
+        public Builder scale(int factor) {
+            this.types *= factor;
+            this.packages *= factor;
+            return this;
+        }
+
+        public SchemaModel build() {
+            validate();
+            random = new Random(seed);
+
+            List<TypeIdDto>                     typeList       = new ArrayList<>();
+            Map<TypeIdDto, List<TypeAttribute>> typeAttributes = new LinkedHashMap<>();
+            Map<String, ObjectStatusDto>        objectStatus   = new LinkedHashMap<>();
+
+            for (int t = 0; t < types; t++) {
+                for (int level = 0; level <= nestingDepth; level++) {
+                    TypeIdDto type = new TypeIdDto(owner, typeName(t, level));
+                    typeList.add(type);
+                    typeAttributes.put(type, typeAttributes(t, level));
+                    status(objectStatus, "TYPE", type.getTypeName());
+                    status(objectStatus, "TYPE", listName(type.getTypeName()));
+                }
+            }
+
+            List<OraclePackage> packageList = new ArrayList<>();
+            for (int p = 0; p < packages; p++) {
+                OraclePackage oraclePackage = new OraclePackage();
+                oraclePackage.setOwner(owner);
+                oraclePackage.setName("SYNTHETIC_PACKAGE_" + p);
+
+                List<Procedure> procedureList = new ArrayList<>();
+                for (int n = 0; n < procedures; n++) {
+                    for (int o = 0; o < overloads; o++) {
+                        procedureList.add(procedure(oraclePackage.getName(), "PROCEDURE_" + n, overloads == 1 ? "" : String.valueOf(o + 1), arguments + o));
+                    }
+                }
+                oraclePackage.setProcedureList(procedureList);
+                packageList.add(oraclePackage);
+                status(objectStatus, "PACKAGE", oraclePackage.getName());
+            }
+
+            return new SchemaModel(typeList, typeAttributes, packageList, objectStatus);
+        }
+
+        private void validate() {
+            if (attributes < 1 || attributes > MAX_ATTRIBUTES) {
+                throw new OBridgeException("attributes must be between 1 and " + MAX_ATTRIBUTES + ": " + attributes);
+            }
+            if (types < 0 || nestingDepth < 0 || packages < 0 || procedures < 0 || overloads < 1 || arguments < 0) {
+                throw new OBridgeException("Counts must not be negative, overloads must be at least 1");
+            }
+            if (types == 0 && objectArgumentRatio > 0 && packages > 0 && procedures > 0) {
+                throw new OBridgeException("Object arguments need at least one type");
+            }
+            for (double ratio : new double[]{collectionRatio, objectArgumentRatio, functionRatio}) {
+                if (ratio < 0 || ratio > 1) {
+                    throw new OBridgeException("Ratios must be between 0 and 1: " + ratio);
+                }
+            }
+        }
+
+        private List<TypeAttribute> typeAttributes(int type, int level) {
+            boolean             nested = level < nestingDepth;
+            List<TypeAttribute> ret    = new ArrayList<>(attributes);
+
+            for (int a = 1; a <= attributes; a++) {
+                if (nested && a == attributes) {
+                    String nestedType = typeName(type, level + 1);
+                    ret.add(random.nextDouble() < collectionRatio
+                            ? new TypeAttribute("ATTR_LIST_" + a, listName(nestedType), a, 0, 1, TypeMapper.ORACLE_COLLECTION, nestedType)
+                            : new TypeAttribute("ATTR_OBJECT_" + a, nestedType, a, 0, 1, TypeMapper.ORACLE_OBJECT, null));
+                } else {
+                    String dataType = SCALAR_TYPES[random.nextInt(SCALAR_TYPES.length)];
+                    ret.add(new TypeAttribute("ATTR_" + dataType + "_" + a, dataType, a, random.nextInt(3), 0, null, null));
+                }
+            }
+
+            return ret;
+        }
+
+        private Procedure procedure(String packageName, String procedureName, String overload, int argumentCount) {
+            boolean                 function  = random.nextDouble() < functionRatio;
+            List<ProcedureArgument> arguments = new ArrayList<>();
+
+            if (function) {
+                arguments.add(new ProcedureArgument(null, TypeMapper.ORACLE_NUMBER, null, false, true, null));
+            }
+
+            for (int a = 1; a <= argumentCount; a++) {
+                int     direction = random.nextInt(3);
+                boolean in        = direction != 1;
+                boolean out       = direction != 0;
+
+                if (random.nextDouble() < objectArgumentRatio) {
+                    String typeName = typeName(random.nextInt(types), 0);
+                    arguments.add(random.nextDouble() < collectionRatio
+                                  ? new ProcedureArgument("P_LIST_" + a, TypeMapper.ORACLE_TABLE, typeName, in, out, listName(typeName), owner)
+                                  : new ProcedureArgument("P_OBJECT_" + a, TypeMapper.ORACLE_OBJECT, typeName, in, out, typeName, owner));
+                } else {
+                    String dataType = random.nextInt(8) == 0 ? TypeMapper.ORACLE_BOOLEAN : SCALAR_TYPES[random.nextInt(SCALAR_TYPES.length)];
+                    arguments.add(new ProcedureArgument("P_" + a, dataType, null, in, out, null));
+                }
+            }
+
+            return new Procedure.Builder()
+                    .owner(owner)
+                    .objectName(packageName)
+                    .procedureName(procedureName)
+                    .overload(overload)
+                    .methodType(function ? "FUNCTION" : "PROCEDURE")
+                    .argumentList(arguments)
+                    .build();
+        }
+
+        private void status(Map<String, ObjectStatusDto> objectStatus, String objectType, String objectName) {
+            ObjectStatusDto status = new ObjectStatusDto(owner, objectName, objectType, LAST_DDL_TIME, ObjectStatusDto.VALID);
+            objectStatus.put(status.getKey(), status);
+        }
+
+        private static String typeName(int type, int level) {
+            return level == 0 ? "SYNTHETIC_TYPE_" + type : "SYNTHETIC_TYPE_" + type + "_NESTED_" + level;
+        }
+
+        private static String listName(String typeName) {
+            return typeName + "_LIST";
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package org.obridge.util;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.obridge.OBridge;
+import org.obridge.context.OBridgeConfiguration;
+import org.obridge.context.Packages;
+import org.obridge.model.data.Procedure;
+import org.obridge.model.data.ProcedureArgument;
+import org.obridge.model.data.SchemaModel;
+import org.obridge.model.data.TypeAttribute;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public class SyntheticSchemaTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testSameSeedSameModel() throws IOException {
+        File first  = folder.newFile("first.xml");
+        File second = folder.newFile("second.xml");
+        File other  = folder.newFile("other.xml");
+
+        SchemaSnapshot.write(new SyntheticSchema.Builder().seed(7).build(), first);
+        SchemaSnapshot.write(new SyntheticSchema.Builder().seed(7).build(), second);
+        SchemaSnapshot.write(new SyntheticSchema.Builder().seed(8).build(), other);
+
+        Assert.assertArrayEquals(Files.readAllBytes(first.toPath()), Files.readAllBytes(second.toPath()));
+        Assert.assertFalse(Arrays.equals(Files.readAllBytes(first.toPath()), Files.readAllBytes(other.toPath())));
+    }
+
+    @Test
+    public void testCounts() {
+        SchemaModel model = new SyntheticSchema.Builder().types(3)
+                                                         .nestingDepth(2)
+                                                         .attributes(SyntheticSchema.MAX_ATTRIBUTES)
+                                                         .packages(2)
+                                                         .procedures(3)
+                                                         .overloads(2)
+                                                         .arguments(4)
+                                                         .functionRatio(0)
+                                                         .build();
+
+        Assert.assertEquals(9, model.getTypes().size());
+        Assert.assertEquals(SyntheticSchema.MAX_ATTRIBUTES, model.getTypeAttributes().get(model.getTypes().get(0)).size());
+        Assert.assertEquals(2, model.getPackages().size());
+
+        List<Procedure> procedures = model.getPackages().get(0).getProcedureList();
+        Assert.assertEquals(6, procedures.size());
+        Assert.assertEquals("2", procedures.get(1).getOverload());
+        Assert.assertEquals(4, procedures.get(0).getArgumentList().size());
+        Assert.assertEquals(5, procedures.get(1).getArgumentList().size());
+    }
+
+    @Test
+    public void testNestingThroughCollections() {
+        SchemaModel model = new SyntheticSchema.Builder().types(1)
+                                                         .nestingDepth(1)
+                                                         .collectionRatio(1)
+                                                         .objectArgumentRatio(1)
+                                                         .build();
+
+        List<TypeAttribute> attributes = model.getTypeAttributes().get(model.getTypes().get(0));
+        TypeAttribute       nested     = attributes.get(attributes.size() - 1);
+        Assert.assertTrue(nested.getJavaDataType(), nested.getJavaDataType().startsWith("List<"));
+        Assert.assertEquals(model.getTypes().get(1).getTypeName(), nested.getCollectionBaseType());
+
+        List<String> dataTypes = model.getAllProcedures()
+                                      .stream()
+                                      .flatMap(p -> p.getArgumentList().stream())
+                                      .filter(a -> a.getArgumentName() != null)
+                                      .map(ProcedureArgument::getDataType)
+                                      .distinct()
+                                      .collect(Collectors.toList());
+        Assert.assertEquals(1, dataTypes.size());
+        Assert.assertEquals(TypeMapper.ORACLE_TABLE, dataTypes.get(0));
+    }
+
+    @Test(expected = OBridgeException.class)
+    public void testTooManyAttributes() {
+        new SyntheticSchema.Builder().attributes(SyntheticSchema.MAX_ATTRIBUTES + 1).build();
+    }
+
+    @Test
+    public void testGenerateAtScale() throws IOException {
+        SchemaModel model = new SyntheticSchema.Builder().types(2)
+                                                         .attributes(20)
+                                                         .packages(2)
+                                                         .procedures(5)
+                                                         .scale(10)
+                                                         .build();
+
+        OBridgeConfiguration c = new OBridgeConfiguration();
+        c.setSourceRoot(folder.getRoot().getPath());
+        c.setRootPackageName("hu.obridge.test");
+        c.setPackages(new Packages());
+        c.setFormatter(OBridgeConfiguration.FORMATTER_NONE);
+        c.setRenderThreads(4);
+
+        new OBridge().generate(c, model);
+
+        int types      = model.getTypes().size();
+        int procedures = model.getAllProcedures().size();
+        Assert.assertEquals(40, types);
+        Assert.assertEquals(100, procedures);
+        // entity and converter per type, a context per procedure, a class per package and the shared classes
+        try (Stream<Path> files = Files.walk(folder.getRoot().toPath())) {
+            Assert.assertEquals(2 * types + procedures + model.getPackages().size() + 2, files.filter(f -> f.toString().endsWith(".java")).count());
+        }
+    }
+}
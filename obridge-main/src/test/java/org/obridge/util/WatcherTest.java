@@ -0,0 +1,100 @@
+package org.obridge.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.obridge.model.dto.ObjectStatusDto;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class WatcherTest {
+
+    private static final String PACKAGE_KEY = ObjectStatusDto.key("PACKAGE", "OBRIDGE", "SIMPLE_PROCEDURES");
+    private static final String TYPE_KEY    = ObjectStatusDto.key("TYPE", "OBRIDGE", "SAMPLE_TYPE_ONE");
+
+    @Test
+    public void testChanges() {
+        Map<String, ObjectStatusDto> previous = status("2016-01-01 10:00:00", ObjectStatusDto.VALID);
+
+        Assert.assertTrue(Watcher.changes(previous, status("2016-01-01 10:00:00", ObjectStatusDto.VALID)).isEmpty());
+        Assert.assertEquals(Arrays.asList(PACKAGE_KEY),
+                            new ArrayList<>(Watcher.changes(previous, status("2016-02-01 10:00:00", ObjectStatusDto.VALID))));
+        Assert.assertEquals(Arrays.asList(PACKAGE_KEY),
+                            new ArrayList<>(Watcher.changes(previous, status("2016-01-01 10:00:00", "INVALID"))));
+
+        Map<String, ObjectStatusDto> dropped = status("2016-01-01 10:00:00", ObjectStatusDto.VALID);
+        dropped.remove(TYPE_KEY);
+        Assert.assertEquals(Arrays.asList(TYPE_KEY), new ArrayList<>(Watcher.changes(previous, dropped)));
+        Assert.assertEquals(Arrays.asList(TYPE_KEY), new ArrayList<>(Watcher.changes(dropped, previous)));
+    }
+
+    @Test
+    public void testRegeneratesOnChange() {
+        List<Map<String, ObjectStatusDto>> polls = Arrays.asList(status("2016-01-01 10:00:00", ObjectStatusDto.VALID),
+                                                                 status("2016-01-01 10:00:00", ObjectStatusDto.VALID),
+                                                                 status("2016-02-01 10:00:00", ObjectStatusDto.VALID),
+                                                                 status("2016-02-01 10:00:00", ObjectStatusDto.VALID),
+                                                                 status("2016-03-01 10:00:00", ObjectStatusDto.VALID));
+        AtomicInteger poll        = new AtomicInteger();
+        AtomicInteger generations = new AtomicInteger();
+
+        Watcher[] watcher = new Watcher[1];
+        watcher[0] = new Watcher(1, () -> {
+            int i = poll.getAndIncrement();
+            if (i == polls.size() - 1) {
+                watcher[0].stop();
+            }
+            return polls.get(Math.min(i, polls.size() - 1));
+        }, () -> {
+            if (generations.incrementAndGet() == 2) {
+                throw new OBridgeException("broken template");
+            }
+        });
+        watcher[0].run();
+
+        // the first generation, the failed one after the first change, its retry on the next poll, none after the stop
+        Assert.assertEquals(3, generations.get());
+        Assert.assertEquals(polls.size(), poll.get());
+    }
+
+    @Test
+    public void testRetriesFailedFirstGeneration() {
+        Map<String, ObjectStatusDto> unchanged   = status("2016-01-01 10:00:00", ObjectStatusDto.VALID);
+        AtomicInteger                poll        = new AtomicInteger();
+        AtomicInteger                generations = new AtomicInteger();
+
+        Watcher[] watcher = new Watcher[1];
+        watcher[0] = new Watcher(1, () -> {
+            if (poll.incrementAndGet() == 4) {
+                watcher[0].stop();
+            }
+            return unchanged;
+        }, () -> {
+            if (generations.incrementAndGet() == 1) {
+                throw new OBridgeException("broken template");
+            }
+        });
+        watcher[0].run();
+
+        // the failed first generation, its retry although nothing changed, none after that
+        Assert.assertEquals(2, generations.get());
+        Assert.assertEquals(4, poll.get());
+    }
+
+    @Test(expected = OBridgeException.class)
+    public void testInvalidInterval() {
+        new Watcher(0, HashMap::new, () -> {
+        });
+    }
+
+    private static Map<String, ObjectStatusDto> status(String packageDdlTime, String packageStatus) {
+        Map<String, ObjectStatusDto> status = new HashMap<>();
+        status.put(PACKAGE_KEY, new ObjectStatusDto("OBRIDGE", "SIMPLE_PROCEDURES", "PACKAGE", packageDdlTime, packageStatus));
+        status.put(TYPE_KEY, new ObjectStatusDto("OBRIDGE", "SAMPLE_TYPE_ONE", "TYPE", "2016-01-01 10:00:00", ObjectStatusDto.VALID));
+        return status;
+    }
+}
@@ -0,0 +1,67 @@
+package org.obridge.util.format;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.obridge.util.CodeFormatter;
+import org.obridge.util.OBridgeException;
+
+public class IndentingFormatterTest {
+
+    @Test
+    public void testIndent() {
+        String source = "package hu.obridge;\n" +
+                "\n" +
+                "\n" +
+                "public class Test {\n" +
+                "\n" +
+                "      private String call = \"{ call pkg.proc(?) }\"; // {\n" +
+                "  public void run() {\n" +
+                "if (a) {\n" +
+                "      /* { */ x('{');\n" +
+                "   } else {\n" +
+                "  /**\n" +
+                "     * Comment {\n" +
+                "   */\n" +
+                "  }\n" +
+                "\n" +
+                "}\n" +
+                "}\n";
+
+        String expected = "package hu.obridge;\n" +
+                "\n" +
+                "public class Test {\n" +
+                "    private String call = \"{ call pkg.proc(?) }\"; // {\n" +
+                "    public void run() {\n" +
+                "        if (a) {\n" +
+                "            /* { */ x('{');\n" +
+                "        } else {\n" +
+                "            /**\n" +
+                "             * Comment {\n" +
+                "             */\n" +
+                "        }\n" +
+                "    }\n" +
+                "}\n";
+
+        Assert.assertEquals(expected, new IndentingFormatter().format(source));
+    }
+
+    @Test
+    public void testCreate() {
+        Assert.assertTrue(CodeFormatter.create("jastyle") instanceof JAstyleFormatter);
+        Assert.assertTrue(CodeFormatter.create("indent") instanceof IndentingFormatter);
+        Assert.assertSame(SourceFormatter.NONE, CodeFormatter.create("none"));
+        Assert.assertTrue(CodeFormatter.create(IndentingFormatter.class.getName()) instanceof IndentingFormatter);
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    public void testStaticFormatUsesJAstyle() {
+        String source = "public class Test {\nprivate int a;\n}\n";
+        Assert.assertEquals(new JAstyleFormatter().format(source), CodeFormatter.format(source));
+    }
+
+    @Test(expected = OBridgeException.class)
+    public void testUnknownFormatter() {
+        CodeFormatter.create("java.lang.String");
+    }
+}
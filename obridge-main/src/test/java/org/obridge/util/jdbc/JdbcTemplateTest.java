@@ -0,0 +1,113 @@
+package org.obridge.util.jdbc;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+public class JdbcTemplateTest {
+
+    private static final String OWNERS = "select owner from owners";
+    private static final String TYPES  = "select type_name from types where owner = ?";
+
+    private final StubDataSource stub = new StubDataSource()
+            .result(OWNERS, new Object[]{"owner", "A"}, new Object[]{"owner", "B"})
+            .result(TYPES, new Object[]{"type_name", "T1"}, new Object[]{"type_name", "T2"});
+
+    @Test
+    public void testEveryQueryChecksOutAConnection() {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(stub.dataSource());
+
+        for (int i = 0; i < 3; i++) {
+            Assert.assertEquals(Arrays.asList("T1", "T2"), jdbcTemplate.query(TYPES, (rs, n) -> rs.getString("type_name"), "A"));
+        }
+
+        Assert.assertEquals(3, stub.connections.get());
+        Assert.assertEquals(3, stub.statements.get());
+        Assert.assertEquals(0, stub.openConnections.get());
+    }
+
+    @Test
+    public void testSessionReusesConnectionAndStatements() {
+        try (JdbcTemplate session = JdbcTemplate.session(stub.dataSource(), 500)) {
+            for (int i = 0; i < 3; i++) {
+                Assert.assertEquals(Arrays.asList("T1", "T2"), session.query(TYPES, (rs, n) -> rs.getString("type_name"), "A"));
+            }
+            session.queryForList(OWNERS);
+
+            Assert.assertEquals(1, stub.openConnections.get());
+        }
+
+        Assert.assertEquals(1, stub.connections.get());
+        Assert.assertEquals(2, stub.statements.get());
+        Assert.assertEquals(4, stub.executions.get());
+        Assert.assertEquals(0, stub.openConnections.get());
+    }
+
+    @Test
+    public void testNestedQueryInSession() {
+        try (JdbcTemplate session = JdbcTemplate.session(stub.dataSource(), 0)) {
+            List<List<String>> types = session.query(OWNERS, (rs, n) -> session.query(TYPES, (rs2, m) -> rs2.getString(1), rs.getString(1)));
+
+            Assert.assertEquals(Arrays.asList(Arrays.asList("T1", "T2"), Arrays.asList("T1", "T2")), types);
+        }
+
+        Assert.assertEquals(1, stub.connections.get());
+        Assert.assertEquals(0, stub.openConnections.get());
+    }
+
+    @Test
+    public void testSessionQueryFailure() {
+        try (JdbcTemplate session = JdbcTemplate.session(stub.dataSource(), 0)) {
+            session.queryForList("select 1 from dual");
+            Assert.fail();
+        } catch (JdbcTemplateException e) {
+            Assert.assertTrue(e.getMessage().contains("select 1 from dual"));
+        }
+    }
+
+    @Test
+    public void testReleaseReturnsThreadConnection() throws InterruptedException {
+        try (JdbcTemplate session = JdbcTemplate.session(stub.dataSource(), 0)) {
+            session.queryForList(OWNERS);
+
+            Thread worker = new Thread(() -> {
+                session.queryForList(OWNERS);
+                session.release();
+            });
+            worker.start();
+            worker.join();
+            Assert.assertEquals(1, stub.openConnections.get());
+
+            session.release();
+            Assert.assertEquals(0, stub.openConnections.get());
+
+            session.queryForList(OWNERS);
+            Assert.assertEquals(1, stub.openConnections.get());
+        }
+
+        Assert.assertEquals(3, stub.connections.get());
+        Assert.assertEquals(0, stub.openConnections.get());
+    }
+
+    @Test
+    public void testCloseReleasesEveryThread() throws InterruptedException {
+        JdbcTemplate session = JdbcTemplate.session(stub.dataSource(), 0);
+
+        Thread worker = new Thread(() -> session.queryForList(OWNERS));
+        worker.start();
+        worker.join();
+        session.queryForList(OWNERS);
+        Assert.assertEquals(2, stub.openConnections.get());
+
+        session.close();
+        Assert.assertEquals(0, stub.openConnections.get());
+
+        // a closed session starts over
+        session.queryForList(OWNERS);
+        session.close();
+        Assert.assertEquals(3, stub.connections.get());
+        Assert.assertEquals(0, stub.openConnections.get());
+    }
+}
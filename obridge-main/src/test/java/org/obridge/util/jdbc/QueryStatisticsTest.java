@@ -0,0 +1,99 @@
+package org.obridge.util.jdbc;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.obridge.util.RunLocal;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+public class QueryStatisticsTest {
+
+    private static final String OWNERS = "select owner\n  from owners";
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final StubDataSource stub = new StubDataSource()
+            .result(OWNERS, new Object[]{"owner", "A"}, new Object[]{"owner", "B"}, new Object[]{"owner", "C"});
+
+    private final QueryStatistics statistics = new QueryStatistics();
+
+    private RunLocal.Binding binding;
+
+    @Before
+    public void setUp() {
+        binding = statistics.activate();
+    }
+
+    @After
+    public void tearDown() {
+        binding.close();
+    }
+
+    @Test
+    public void testNamedQuery() {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(stub.dataSource());
+
+        jdbcTemplate.query("GET_OWNERS", OWNERS, new Object[0], (rs, n) -> rs.getString(1));
+        jdbcTemplate.query("GET_OWNERS", OWNERS, new Object[0], (rs, n) -> rs.getString(1));
+
+        List<QueryStatistics.Entry> entries = statistics.getEntries();
+        Assert.assertEquals(1, entries.size());
+        Assert.assertEquals("GET_OWNERS", entries.get(0).getName());
+        Assert.assertEquals(2, entries.get(0).getExecutions());
+        Assert.assertEquals(6, entries.get(0).getRows());
+    }
+
+    @Test
+    public void testUnnamedQueryIsNamedBySql() {
+        try (JdbcTemplate session = JdbcTemplate.session(stub.dataSource(), 0)) {
+            session.queryForList(OWNERS);
+        }
+
+        List<QueryStatistics.Entry> entries = statistics.getEntries();
+        Assert.assertEquals(1, entries.size());
+        Assert.assertEquals("select owner from owners", entries.get(0).getName());
+        Assert.assertEquals(3, entries.get(0).getRows());
+    }
+
+    @Test
+    public void testRunsDoNotShareStatistics() throws InterruptedException {
+        JdbcTemplate    jdbcTemplate = new JdbcTemplate(stub.dataSource());
+        QueryStatistics other        = new QueryStatistics();
+
+        Thread thread = new Thread(() -> {
+            try (RunLocal.Binding ignored = other.activate()) {
+                jdbcTemplate.query("GET_OWNERS", OWNERS, new Object[0], (rs, n) -> rs.getString(1));
+                jdbcTemplate.query("GET_OWNERS", OWNERS, new Object[0], (rs, n) -> rs.getString(1));
+            }
+        });
+        thread.start();
+        thread.join();
+
+        jdbcTemplate.query("GET_OWNERS", OWNERS, new Object[0], (rs, n) -> rs.getString(1));
+
+        Assert.assertEquals(1, statistics.getEntries().get(0).getExecutions());
+        Assert.assertEquals(2, other.getEntries().get(0).getExecutions());
+    }
+
+    @Test
+    public void testReport() throws IOException {
+        new JdbcTemplate(stub.dataSource()).query("GET_OWNERS", OWNERS, new Object[0], (rs, n) -> rs.getString(1));
+
+        File json = new File(temporaryFolder.getRoot(), "report/stats.json");
+        statistics.writeJson(json);
+
+        String content = new String(Files.readAllBytes(json.toPath()), StandardCharsets.UTF_8);
+        Assert.assertTrue(content, content.contains("\"name\": \"GET_OWNERS\""));
+        Assert.assertTrue(content, content.contains("\"rows\": 3"));
+        Assert.assertTrue(statistics.formatTable().contains("GET_OWNERS"));
+    }
+}
@@ -0,0 +1,221 @@
+package org.obridge.util.jdbc;
+
+import oracle.jdbc.OracleConnection;
+
+import javax.sql.DataSource;
+import java.io.StringReader;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-memory JDBC stand-in: returns canned rows for known SQL texts and counts the connections and statements used.
+ * Like a bounded pool with a checkout timeout, it fails instead of handing out more than the allowed open connections.
+ */
+public class StubDataSource {
+
+    public final AtomicInteger openConnections = new AtomicInteger();
+    public final AtomicInteger connections     = new AtomicInteger();
+    public final AtomicInteger statements      = new AtomicInteger();
+    public final AtomicInteger executions      = new AtomicInteger();
+    public final AtomicInteger peakConnections = new AtomicInteger();
+    public final List<String>  queries         = Collections.synchronizedList(new ArrayList<>());
+
+    private final Map<String, List<Map<String, Object>>> results   = new HashMap<>();
+    private final Map<String, List<Map<String, Object>>> fragments = new LinkedHashMap<>();
+
+    private int     maxConnections = Integer.MAX_VALUE;
+    private long    latencyMillis;
+    private boolean otherwiseEmpty;
+
+    /**
+     * Registers the result of a query, each row is a list of column name, value pairs.
+     */
+    public StubDataSource result(String sql, Object[]... rows) {
+        results.put(sql, rows(rows));
+        return this;
+    }
+
+    /**
+     * Registers the result of the queries containing a fragment, the first registered fragment found wins.
+     */
+    public StubDataSource resultContaining(String fragment, Object[]... rows) {
+        fragments.put(fragment, rows(rows));
+        return this;
+    }
+
+    /**
+     * Queries without a registered result return no rows instead of failing.
+     */
+    public StubDataSource otherwiseEmpty() {
+        this.otherwiseEmpty = true;
+        return this;
+    }
+
+    public StubDataSource maxConnections(int maxConnections) {
+        this.maxConnections = maxConnections;
+        return this;
+    }
+
+    public StubDataSource latency(long latencyMillis) {
+        this.latencyMillis = latencyMillis;
+        return this;
+    }
+
+    private static List<Map<String, Object>> rows(Object[]... rows) {
+        List<Map<String, Object>> r = new ArrayList<>();
+        for (Object[] row : rows) {
+            Map<String, Object> columns = new LinkedHashMap<>();
+            for (int i = 0; i < row.length; i += 2) {
+                columns.put(((String) row[i]).toUpperCase(), row[i + 1]);
+            }
+            r.add(columns);
+        }
+        return r;
+    }
+
+    private List<Map<String, Object>> find(String sql) {
+        if (results.containsKey(sql)) {
+            return results.get(sql);
+        }
+        for (Map.Entry<String, List<Map<String, Object>>> fragment : fragments.entrySet()) {
+            if (sql.contains(fragment.getKey())) {
+                return fragment.getValue();
+            }
+        }
+        return otherwiseEmpty ? new ArrayList<>() : null;
+    }
+
+    public DataSource dataSource() {
+        return proxy(DataSource.class, (p, method, args) -> {
+            if ("getConnection".equals(method.getName())) {
+                int open = openConnections.incrementAndGet();
+                if (open > maxConnections) {
+                    openConnections.decrementAndGet();
+                    throw new java.sql.SQLException("No connection available, " + maxConnections + " are checked out");
+                }
+                connections.incrementAndGet();
+                peakConnections.accumulateAndGet(open, Math::max);
+                return connection();
+            }
+            throw new UnsupportedOperationException(method.getName());
+        });
+    }
+
+    private Connection connection() {
+        boolean[] closed = {false};
+        return proxy(Connection.class, (p, method, args) -> {
+            switch (method.getName()) {
+                case "prepareStatement":
+                    statements.incrementAndGet();
+                    return statement((Connection) p, (String) args[0]);
+                case "unwrap":
+                    // collection binds, see SqlArray
+                    return proxy(OracleConnection.class, (o, m, a) -> {
+                        if ("createOracleArray".equals(m.getName())) {
+                            return null;
+                        }
+                        throw new UnsupportedOperationException(m.getName());
+                    });
+                case "close":
+                    if (!closed[0]) {
+                        openConnections.decrementAndGet();
+                    }
+                    closed[0] = true;
+                    return null;
+                case "isClosed":
+                    return closed[0];
+                default:
+                    throw new UnsupportedOperationException(method.getName());
+            }
+        });
+    }
+
+    private PreparedStatement statement(Connection connection, String sql) {
+        boolean[] closed = {false};
+        return proxy(PreparedStatement.class, (p, method, args) -> {
+            switch (method.getName()) {
+                case "getConnection":
+                    return connection;
+                case "setObject":
+                case "setArray":
+                case "setFetchSize":
+                case "clearParameters":
+                    return null;
+                case "executeQuery":
+                    executions.incrementAndGet();
+                    queries.add(sql);
+                    List<Map<String, Object>> rows = find(sql);
+                    if (rows == null) {
+                        throw new java.sql.SQLException("Unknown query: " + sql);
+                    }
+                    if (latencyMillis > 0) {
+                        Thread.sleep(latencyMillis);
+                    }
+                    return resultSet(rows);
+                case "close":
+                    closed[0] = true;
+                    return null;
+                case "isClosed":
+                    return closed[0];
+                default:
+                    throw new UnsupportedOperationException(method.getName());
+            }
+        });
+    }
+
+    private ResultSet resultSet(List<Map<String, Object>> rows) {
+        int[]     row    = {-1};
+        boolean[] closed = {false};
+        return proxy(ResultSet.class, (p, method, args) -> {
+            switch (method.getName()) {
+                case "next":
+                    return ++row[0] < rows.size();
+                case "close":
+                    closed[0] = true;
+                    return null;
+                case "isClosed":
+                    return closed[0];
+                case "getObject":
+                case "getString":
+                case "getInt":
+                case "getLong":
+                case "getCharacterStream":
+                    Map<String, Object> columns = rows.get(row[0]);
+                    Object value = args[0] instanceof Integer
+                                   ? new ArrayList<>(columns.values()).get((Integer) args[0] - 1)
+                                   : columns.get(((String) args[0]).toUpperCase());
+                    if ("getString".equals(method.getName())) {
+                        return value == null ? null : value.toString();
+                    }
+                    if ("getCharacterStream".equals(method.getName())) {
+                        return value == null ? null : new StringReader(value.toString());
+                    }
+                    if ("getInt".equals(method.getName())) {
+                        return value == null ? 0 : ((Number) value).intValue();
+                    }
+                    if ("getLong".equals(method.getName())) {
+                        return value == null ? 0L : ((Number) value).longValue();
+                    }
+                    return value;
+                default:
+                    throw new UnsupportedOperationException(method.getName() + Arrays.toString(args));
+            }
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(StubDataSource.class.getClassLoader(), new Class[]{type}, handler);
+    }
+}
@@ -34,11 +34,12 @@ import org.apache.maven.plugins.annotations.ResolutionScope;
 import org.apache.maven.project.MavenProject;
 import org.obridge.OBridge;
 import org.obridge.context.OBridgeConfiguration;
+import org.obridge.util.SchemaSnapshot;
 
 import java.io.File;
 
 @Mojo(name = "obridge", requiresProject = true, defaultPhase = LifecyclePhase.GENERATE_SOURCES,
-        requiresDependencyResolution = ResolutionScope.COMPILE)
+        requiresDependencyResolution = ResolutionScope.COMPILE, threadSafe = false)
 public class OBridgeMojo extends AbstractMojo {
 
     @Parameter(property = "project", required = true, readonly = true)
@@ -49,6 +50,10 @@ public class OBridgeMojo extends AbstractMojo {
     private String groupId;
     @Parameter(property = "obridge.configuration", defaultValue = "${basedir}/obridge.xml")
     private File configurationFile;
+    @Parameter(property = "obridge.snapshot")
+    private File snapshot;
+    @Parameter(defaultValue = "${project.build.directory}/obridge")
+    private String reportDirectory;
 
     @Override
     public void execute() throws MojoExecutionException, MojoFailureException {
@@ -58,13 +63,21 @@ public class OBridgeMojo extends AbstractMojo {
         OBridgeConfiguration config = o.loadConfiguration(configurationFile);
         config.setSourceRoot(baseDir);
 
+        if (config.getReportDirectory() == null || "".equals(config.getReportDirectory())) {
+            config.setReportDirectory(reportDirectory);
+        }
+
         if (config.getRootPackageName() == null || "".equals(config.getRootPackageName())) {
             config.setRootPackageName(groupId);
         }
 
         getLog().info(config.toString());
 
-        o.generate(config);
+        if (snapshot != null) {
+            o.generate(config, SchemaSnapshot.read(snapshot));
+        } else {
+            o.generate(config);
+        }
 
         project.addCompileSourceRoot(config.getSourceRoot());
         project.addTestCompileSourceRoot(config.getSourceRoot());